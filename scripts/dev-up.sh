@@ -20,7 +20,7 @@ export SPRING_DATASOURCE_URL="${SPRING_DATASOURCE_URL:-jdbc:postgresql://localho
 export SPRING_DATASOURCE_USERNAME="${SPRING_DATASOURCE_USERNAME:-postgres}"
 export SPRING_DATASOURCE_PASSWORD="${SPRING_DATASOURCE_PASSWORD:-$DB_PASSWORD}"
 export SPRING_DATA_REDIS_URL="${SPRING_DATA_REDIS_URL:-redis://localhost:6379}"
-export APP_CHAT_CONTEXT_SIZE="${APP_CHAT_CONTEXT_SIZE:-10}"
+export APP_CHAT_CONTEXT_SIZE="${APP_CHAT_CONTEXT_SIZE:-50}"
 
 if lsof -tiTCP:8080 -sTCP:LISTEN >/dev/null 2>&1; then
   echo "[INFO] 8080 포트 사용 중 프로세스를 종료합니다."
@@ -0,0 +1,83 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.dto.openai.ChatCompletionChunkResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스트리밍 응답 한 건을 토큰으로 바꾸는 비용을 비교한다. 결과는 스레드 하나 기준 초당 토큰 수다.
+ *
+ * legacy: 버퍼마다 String으로 디코딩하고 줄로 나눈 뒤 ObjectMapper로 청크 객체를 만드는 이전 방식.
+ * 이전 방식은 버퍼 경계에 걸친 줄을 처리하지 못하므로 두 방식 모두 이벤트 단위로 나뉜 버퍼를 입력으로 쓴다.
+ * decoder: SseEventFramer + ChatStreamDecoder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChatStreamDecodeBenchmark {
+
+    private static final int TOKENS = 1_000;
+    private static final String CHUNK_TEMPLATE = "{\"id\":\"chatcmpl-benchmark\",\"object\":\"chat.completion.chunk\","
+            + "\"created\":1700000000,\"model\":\"gpt-4o-mini\",\"system_fingerprint\":\"fp_benchmark\","
+            + "\"choices\":[{\"index\":0,\"delta\":{\"content\":%s},\"logprobs\":null,\"finish_reason\":null}]}";
+
+    // 애플리케이션의 ObjectMapper처럼 모르는 필드는 무시한다.
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final List<DataBuffer> buffers = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        String[] words = {"안녕하세요", " 오늘", " 날씨", "는", " Hello", " world", ",", " 🚀", "\n", " 코드"};
+        DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        for (int i = 0; i < TOKENS; i++) {
+            String event = "data: " + CHUNK_TEMPLATE.formatted(
+                    objectMapper.writeValueAsString(words[random.nextInt(words.length)])) + "\n\n";
+            buffers.add(bufferFactory.wrap(event.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void legacy(Blackhole blackhole) throws Exception {
+        for (DataBuffer buffer : buffers) {
+            buffer.readPosition(0);
+            String body = buffer.toString(StandardCharsets.UTF_8);
+            for (String line : body.split("\n")) {
+                String data = line.startsWith("data:") ? line.substring(5).trim() : line.trim();
+                if (data.isEmpty() || "[DONE]".equals(data)) continue;
+                ChatCompletionChunkResponse chunk = objectMapper.readValue(data, ChatCompletionChunkResponse.class);
+                blackhole.consume(chunk.getChoices().get(0).getDelta().getContent());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void decoder(Blackhole blackhole) {
+        ChatStreamDecoder decoder = new ChatStreamDecoder(objectMapper.getFactory());
+        for (DataBuffer buffer : buffers) {
+            buffer.readPosition(0);
+            blackhole.consume(decoder.decode(buffer));
+        }
+        blackhole.consume(decoder.finish());
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.chatbot.config;
 
+import com.example.chatbot.upstream.UpstreamEndpoint;
+import com.example.chatbot.upstream.UpstreamEndpoints;
+import com.example.chatbot.upstream.UpstreamProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,9 +11,15 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -26,17 +36,129 @@ public class OpenAiConfig {
     private int connectTimeoutMs;
     private int responseTimeoutMs;
 
-    @Bean
-    public WebClient openAiWebClient(WebClient.Builder builder) {
-        HttpClient httpClient = HttpClient.create()
+    // https 업스트림이 ALPN으로 h2를 협상하면 커넥션 하나에 여러 요청을 다중화한다.
+    private boolean http2 = true;
+
+    // 비어 있으면 base-url/api-key로 엔드포인트 하나를 만든다.
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    private Pool pool = new Pool();
+
+    private Warmup warmup = new Warmup();
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+
+        private String name;
+        private String baseUrl;
+
+        // 비어 있으면 openai.api-key를 쓴다.
+        private String apiKey;
+
+        // openai.model → 이 엔드포인트에서 쓸 모델(배포) 이름
+        private Map<String, String> models = new HashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int maxConnections = 500;
+
+        // 커넥션을 기다리는 요청 수 상한. 넘으면 바로 실패한다.
+        private int pendingAcquireMaxCount = 1000;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        // 이 시간 동안 쓰이지 않은 커넥션은 닫는다. 업스트림/로드밸런서의 유휴 종료보다 짧게 둔다.
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        // 유휴/수명 초과 커넥션을 백그라운드에서 정리하는 주기
+        private Duration evictInBackground = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Warmup {
+
+        // 시작 시 토큰을 쓰지 않는 요청으로 TLS 핸드셰이크와 커넥션을 미리 맺어 둔다.
+        private boolean enabled = true;
+
+        private int connections = 4;
+
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     * 엔드포인트마다 키, 커넥션 풀, WebClient를 따로 둔다.
+     * 풀 지표는 metrics(true)로 reactor.netty.connection.provider.*{name=openai-<엔드포인트>}에 나온다.
+     * 커넥션 획득 대기 시간은 reactor.netty.connection.provider.pending.connections.time.
+     */
+    @Bean(destroyMethod = "dispose")
+    public UpstreamEndpoints openAiEndpoints(WebClient.Builder builder,
+                                             UpstreamProperties upstreamProperties,
+                                             MeterRegistry meterRegistry) {
+        List<UpstreamEndpoint> resolved = new ArrayList<>();
+        List<ConnectionProvider> connectionProviders = new ArrayList<>();
+        for (Endpoint endpoint : resolveEndpoints()) {
+            ConnectionProvider connectionProvider = connectionProvider(endpoint.getName());
+            HttpClient httpClient = httpClient(connectionProvider, endpoint.getBaseUrl());
+            WebClient webClient = builder.clone()
+                    .baseUrl(endpoint.getBaseUrl())
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .defaultHeader("Authorization", "Bearer " + endpoint.getApiKey())
+                    .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                    .build();
+            connectionProviders.add(connectionProvider);
+            resolved.add(new UpstreamEndpoint(endpoint.getName(), endpoint.getModels(), webClient, httpClient,
+                    upstreamProperties, meterRegistry));
+        }
+        return new UpstreamEndpoints(resolved, connectionProviders);
+    }
+
+    private List<Endpoint> resolveEndpoints() {
+        if (endpoints.isEmpty()) {
+            Endpoint single = new Endpoint();
+            single.setName("default");
+            single.setBaseUrl(baseUrl);
+            single.setApiKey(apiKey);
+            return List.of(single);
+        }
+        for (int i = 0; i < endpoints.size(); i++) {
+            Endpoint endpoint = endpoints.get(i);
+            if (endpoint.getName() == null) endpoint.setName("endpoint-" + i);
+            if (endpoint.getApiKey() == null) endpoint.setApiKey(apiKey);
+            if (endpoint.getModels() == null) endpoint.setModels(new HashMap<>());
+        }
+        return endpoints;
+    }
+
+    private ConnectionProvider connectionProvider(String endpointName) {
+        return ConnectionProvider.builder("openai-" + endpointName)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+
+    private HttpClient httpClient(ConnectionProvider connectionProvider, String endpointBaseUrl) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
                 .responseTimeout(Duration.ofMillis(responseTimeoutMs));
 
-        return builder
-                .baseUrl(baseUrl)
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .defaultHeader("Authorization", "Bearer " + apiKey)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
-                .build();
+        // h2는 TLS(ALPN)에서만 협상한다. 평문 http 업스트림(테스트 목 서버 등)은 HTTP/1.1로 연결한다.
+        if (http2 && endpointBaseUrl != null && endpointBaseUrl.startsWith("https:")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return httpClient;
     }
 }
@@ -6,6 +6,7 @@ import com.example.chatbot.dto.request.ChatCompletionRequest;
 import com.example.chatbot.dto.response.ChatCompletionResponse;
 import com.example.chatbot.global.auth.AuthenticatedUserId;
 import com.example.chatbot.service.ChatService;
+import com.example.chatbot.service.SseFrameEmitter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -20,7 +21,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -56,7 +56,7 @@ public class ChatController {
 
     @PostMapping(value = "/completions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(summary = "채팅 스트리밍", description = "AI 응답을 SSE(Server-Sent Events)로 스트리밍합니다.")
-    public SseEmitter streamChatCompletion(
+    public SseFrameEmitter streamChatCompletion(
             @Valid @RequestBody ChatCompletionRequest request,
             @AuthenticatedUserId Long userId) {
 
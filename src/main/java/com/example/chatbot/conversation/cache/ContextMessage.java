@@ -0,0 +1,19 @@
+package com.example.chatbot.conversation.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContextMessage {
+    // 쓰기 지연 저장 등으로 아직 ID가 없으면 null
+    private Long id;
+    private String role;
+    private String content;
+    // 이전 데이터는 토큰 수가 저장되어 있지 않을 수 있다.
+    private Integer tokenCount;
+}
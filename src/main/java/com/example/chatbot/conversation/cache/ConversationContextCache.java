@@ -0,0 +1,380 @@
+package com.example.chatbot.conversation.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대화별 소유자 ID와 최근 컨텍스트 메시지(링 버퍼)를 보관하는 캐시.
+ * 소유자는 변하지 않으므로 항상 로컬(L1)에 둔다. 메시지 버퍼는 Redis L2가 켜져 있으면
+ * 노드 간 일관성을 위해 L2를 기준으로 읽고, 꺼져 있으면 L1 링 버퍼를 사용한다.
+ *
+ * DB에서 읽은 컨텍스트를 적재하는 동안 다른 요청이 메시지를 추가할 수 있으므로,
+ * 적재는 {@link #beginLoad}로 받은 버전 이후 추가된 메시지가 없을 때만 반영한다.
+ */
+@Slf4j
+@Component
+public class ConversationContextCache {
+
+    private static final String CACHE_NAME = "conversation_context";
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int MESSAGE_OVERHEAD_BYTES = 48;
+
+    private final ConversationContextCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final Cache<Long, Entry> localCache;
+    private final AtomicLong appendSequence = new AtomicLong();
+    private final Counter redisHits;
+    private final Counter redisMisses;
+
+    public ConversationContextCache(ConversationContextCacheProperties properties,
+                                    StringRedisTemplate redisTemplate,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.chat.context-size:50}") int contextSize) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(contextSize, 1);
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeightBytes())
+                .weigher((Long id, Entry entry) -> entry.weight())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, CACHE_NAME);
+        this.redisHits = Counter.builder("cache.l2.gets")
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMisses = Counter.builder("cache.l2.gets")
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public Long findOwner(Long conversationId) {
+        if (!properties.isEnabled()) return null;
+
+        Entry entry = localCache.getIfPresent(conversationId);
+        if (entry != null) {
+            return entry.ownerId;
+        }
+        if (!isRedisEnabled()) return null;
+
+        try {
+            String owner = redisTemplate.opsForValue().get(ownerKey(conversationId));
+            if (owner == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+            Long ownerId = Long.valueOf(owner);
+            localCache.put(conversationId, newEntry(ownerId, false));
+            return ownerId;
+        } catch (DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 조회 실패: conversationId={}, error={}", conversationId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 소유권이 확인된 대화를 등록한다. 새로 만든 대화는 메시지가 없으므로 빈 컨텍스트로 바로 사용할 수 있다.
+     */
+    public void registerConversation(Long conversationId, Long ownerId, boolean newConversation) {
+        if (!properties.isEnabled()) return;
+
+        localCache.put(conversationId, newEntry(ownerId, newConversation && !isRedisEnabled()));
+        if (!isRedisEnabled()) return;
+
+        try {
+            redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                public <K, V> List<Object> execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> stringOps = stringOps(operations);
+                    stringOps.multi();
+                    stringOps.opsForValue().set(ownerKey(conversationId), String.valueOf(ownerId),
+                            properties.getRedis().getTtl());
+                    if (newConversation) {
+                        // 빈 리스트는 Redis에 저장되지 않으므로 빈 컨텍스트는 키 삭제 + 초기화 표시로 나타낸다.
+                        stringOps.delete(messagesKey(conversationId));
+                        stringOps.opsForValue().set(loadedKey(conversationId), "1", properties.getRedis().getTtl());
+                    }
+                    return stringOps.exec();
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 등록 실패: conversationId={}, error={}", conversationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 캐시된 최근 컨텍스트를 시간순으로 반환한다. 적재되지 않았으면 null.
+     */
+    public List<ContextMessage> getContext(Long conversationId) {
+        if (!properties.isEnabled()) return null;
+
+        if (isRedisEnabled()) {
+            return getContextFromRedis(conversationId);
+        }
+
+        Entry entry = localCache.getIfPresent(conversationId);
+        return entry != null ? entry.snapshot() : null;
+    }
+
+    /**
+     * DB에서 컨텍스트를 읽기 직전에 호출해 현재 버전을 받는다. 이 버전은 {@link #putContext}에 그대로 넘긴다.
+     * L2 조회에 실패하면 음수를 돌려주며, 이 경우 적재는 건너뛴다.
+     */
+    public long beginLoad(Long conversationId) {
+        if (!properties.isEnabled()) return -1L;
+        if (!isRedisEnabled()) return appendSequence.get();
+
+        try {
+            String version = redisTemplate.opsForValue().get(versionKey(conversationId));
+            return version != null ? Long.parseLong(version) : 0L;
+        } catch (DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 버전 조회 실패: conversationId={}, error={}", conversationId, e.getMessage());
+            return -1L;
+        }
+    }
+
+    /**
+     * DB에서 읽어온 컨텍스트로 캐시를 채운다. 소유권이 등록되지 않은 대화는 캐시하지 않는다.
+     * 읽는 동안 메시지가 추가되었으면 스냅샷이 오래된 것이므로 반영하지 않고 다음 조회에서 다시 적재한다.
+     */
+    public void putContext(Long conversationId, List<ContextMessage> messages, long version) {
+        if (!properties.isEnabled() || version < 0) return;
+
+        if (!isRedisEnabled()) {
+            Entry entry = localCache.getIfPresent(conversationId);
+            if (entry != null && entry.load(messages, capacity, version)) {
+                localCache.put(conversationId, entry);
+            }
+            return;
+        }
+
+        try {
+            List<String> values = serialize(messages);
+            String expectedVersion = version > 0 ? String.valueOf(version) : null;
+            redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                public <K, V> List<Object> execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> stringOps = stringOps(operations);
+                    // 버전 키를 감시해 그 사이 append가 끼어들면 EXEC가 취소되도록 한다.
+                    stringOps.watch(versionKey(conversationId));
+                    if (!Objects.equals(stringOps.opsForValue().get(versionKey(conversationId)), expectedVersion)) {
+                        stringOps.unwatch();
+                        return null;
+                    }
+                    stringOps.multi();
+                    stringOps.delete(messagesKey(conversationId));
+                    if (!values.isEmpty()) {
+                        stringOps.opsForList().rightPushAll(messagesKey(conversationId), values);
+                        stringOps.opsForList().trim(messagesKey(conversationId), -capacity, -1);
+                        stringOps.expire(messagesKey(conversationId), properties.getRedis().getTtl());
+                    }
+                    stringOps.opsForValue().set(loadedKey(conversationId), "1", properties.getRedis().getTtl());
+                    return stringOps.exec();
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 적재 실패: conversationId={}, error={}", conversationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 저장된 메시지를 캐시에 바로 반영한다(write-through). 적재되지 않은 컨텍스트에는 추가하지 않는다.
+     */
+    public void append(Long conversationId, ContextMessage message) {
+        if (!properties.isEnabled()) return;
+
+        if (!isRedisEnabled()) {
+            Entry entry = localCache.getIfPresent(conversationId);
+            if (entry != null && entry.append(message, capacity, appendSequence.incrementAndGet())) {
+                // 가중치를 다시 계산하도록 같은 엔트리를 다시 넣는다.
+                localCache.put(conversationId, entry);
+            }
+            return;
+        }
+
+        try {
+            String value = objectMapper.writeValueAsString(message);
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> stringOps = stringOps(operations);
+                    String key = messagesKey(conversationId);
+                    stringOps.opsForList().rightPush(key, value);
+                    stringOps.opsForList().trim(key, -capacity, -1);
+                    stringOps.expire(key, properties.getRedis().getTtl());
+                    stringOps.expire(loadedKey(conversationId), properties.getRedis().getTtl());
+                    stringOps.opsForValue().increment(versionKey(conversationId));
+                    stringOps.expire(versionKey(conversationId), properties.getRedis().getTtl());
+                    return null;
+                }
+            });
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 추가 실패: conversationId={}, error={}", conversationId, e.getMessage());
+            evict(conversationId);
+        }
+    }
+
+    public void evict(Long conversationId) {
+        localCache.invalidate(conversationId);
+        if (!isRedisEnabled()) return;
+
+        try {
+            redisTemplate.delete(List.of(ownerKey(conversationId), messagesKey(conversationId),
+                    loadedKey(conversationId), versionKey(conversationId)));
+        } catch (DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 삭제 실패: conversationId={}, error={}", conversationId, e.getMessage());
+        }
+    }
+
+    private List<ContextMessage> getContextFromRedis(Long conversationId) {
+        try {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> stringOps = stringOps(operations);
+                    stringOps.opsForValue().get(loadedKey(conversationId));
+                    stringOps.opsForList().range(messagesKey(conversationId), 0, -1);
+                    return null;
+                }
+            });
+            if (results.size() < 2 || results.get(0) == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+
+            @SuppressWarnings("unchecked")
+            List<String> values = (List<String>) results.get(1);
+            List<ContextMessage> messages = new ArrayList<>(values != null ? values.size() : 0);
+            if (values != null) {
+                for (String value : values) {
+                    messages.add(objectMapper.readValue(value, ContextMessage.class));
+                }
+            }
+            return messages;
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("컨텍스트 L2 캐시 조회 실패: conversationId={}, error={}", conversationId, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<String> serialize(List<ContextMessage> messages) {
+        List<String> values = new ArrayList<>(messages.size());
+        try {
+            for (ContextMessage message : messages) {
+                values.add(objectMapper.writeValueAsString(message));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("컨텍스트 메시지 직렬화 실패", e);
+        }
+        return values;
+    }
+
+    private Entry newEntry(Long ownerId, boolean loaded) {
+        // 새 엔트리는 그 전에 시작된 적재를 받아들이지 않도록 현재보다 큰 버전으로 시작한다.
+        return new Entry(ownerId, loaded, appendSequence.incrementAndGet());
+    }
+
+    private boolean isRedisEnabled() {
+        return properties.getRedis().isEnabled();
+    }
+
+    private String ownerKey(Long conversationId) {
+        return properties.getRedis().getKeyPrefix() + ":" + conversationId + ":owner";
+    }
+
+    private String messagesKey(Long conversationId) {
+        return properties.getRedis().getKeyPrefix() + ":" + conversationId + ":messages";
+    }
+
+    private String loadedKey(Long conversationId) {
+        return properties.getRedis().getKeyPrefix() + ":" + conversationId + ":loaded";
+    }
+
+    private String versionKey(Long conversationId) {
+        return properties.getRedis().getKeyPrefix() + ":" + conversationId + ":version";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisOperations<String, String> stringOps(RedisOperations<?, ?> operations) {
+        return (RedisOperations<String, String>) operations;
+    }
+
+    private static final class Entry {
+
+        private final Long ownerId;
+        private final ArrayDeque<ContextMessage> messages = new ArrayDeque<>();
+        private boolean loaded;
+        private int contentBytes;
+        // 마지막으로 메시지가 추가된 시점의 버전. 적재되지 않은 상태에서도 갱신해 오래된 스냅샷을 거른다.
+        private long version;
+
+        private Entry(Long ownerId, boolean loaded, long version) {
+            this.ownerId = ownerId;
+            this.loaded = loaded;
+            this.version = version;
+        }
+
+        private synchronized boolean append(ContextMessage message, int capacity, long appendVersion) {
+            version = appendVersion;
+            if (!loaded) return false;
+            addLast(message, capacity);
+            return true;
+        }
+
+        private synchronized boolean load(List<ContextMessage> source, int capacity, long loadVersion) {
+            if (version > loadVersion) return false;
+            messages.clear();
+            contentBytes = 0;
+            for (ContextMessage message : source) {
+                addLast(message, capacity);
+            }
+            loaded = true;
+            return true;
+        }
+
+        private synchronized List<ContextMessage> snapshot() {
+            return loaded ? new ArrayList<>(messages) : null;
+        }
+
+        private synchronized int weight() {
+            return ENTRY_OVERHEAD_BYTES + contentBytes;
+        }
+
+        private void addLast(ContextMessage message, int capacity) {
+            messages.addLast(message);
+            contentBytes += sizeOf(message);
+            while (messages.size() > capacity) {
+                contentBytes -= sizeOf(messages.removeFirst());
+            }
+        }
+
+        private static int sizeOf(ContextMessage message) {
+            return MESSAGE_OVERHEAD_BYTES + message.getContent().length() * 2;
+        }
+    }
+}
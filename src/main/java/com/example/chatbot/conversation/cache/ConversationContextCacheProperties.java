@@ -0,0 +1,37 @@
+package com.example.chatbot.conversation.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.chat.context-cache")
+public class ConversationContextCacheProperties {
+
+    private boolean enabled = true;
+
+    // 로컬 캐시 최대 가중치 (메시지 본문 기준 대략적인 바이트 수)
+    private long maxWeightBytes = 64L * 1024 * 1024;
+
+    // 마지막 접근 이후 로컬 캐시 유지 시간
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+
+    private Redis redis = new Redis();
+
+    @Getter
+    @Setter
+    public static class Redis {
+
+        // 여러 노드가 컨텍스트를 공유하기 위한 L2 캐시 사용 여부
+        private boolean enabled = false;
+
+        private Duration ttl = Duration.ofHours(1);
+
+        private String keyPrefix = "conv_ctx";
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.chatbot.conversation.repository;
+
+// 컨텍스트 구성에 필요한 컬럼만 담는 경량 프로젝션 (엔티티 하이드레이션 없음)
+public interface ContextMessageView {
+    Long getId();
+
+    String getRole();
+
+    String getContent();
+
+    Integer getTokenCount();
+}
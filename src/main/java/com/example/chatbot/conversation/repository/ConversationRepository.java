@@ -2,7 +2,11 @@ package com.example.chatbot.conversation.repository;
 
 import com.example.chatbot.entity.Conversation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +16,17 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     List<Conversation> findByUser_IdOrderByUpdatedAtDesc(Long userId);
 
     Optional<Conversation> findByIdAndUser_Id(Long id, Long userId);
+
+    @Query("select c.summary as summary, c.summarizedUntilMessageId as summarizedUntilMessageId "
+            + "from Conversation c where c.id = :id")
+    Optional<ConversationSummaryView> findSummaryById(@Param("id") Long id);
+
+    // 요약 기준점은 앞으로만 이동한다 (동시 갱신 시 오래된 요약으로 덮어쓰지 않음).
+    @Transactional
+    @Modifying
+    @Query("update Conversation c set c.summary = :summary, c.summarizedUntilMessageId = :untilMessageId "
+            + "where c.id = :id and (c.summarizedUntilMessageId is null or c.summarizedUntilMessageId < :untilMessageId)")
+    int updateSummary(@Param("id") Long id,
+                      @Param("summary") String summary,
+                      @Param("untilMessageId") Long untilMessageId);
 }
@@ -0,0 +1,7 @@
+package com.example.chatbot.conversation.repository;
+
+public interface ConversationSummaryView {
+    String getSummary();
+
+    Long getSummarizedUntilMessageId();
+}
@@ -2,6 +2,8 @@ package com.example.chatbot.conversation.repository;
 
 import com.example.chatbot.entity.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,46 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByConversation_IdOrderByCreatedAtAsc(Long conversationId);
 
     long countByConversation_Id(Long conversationId);
+
+    // (created_at, id) 역순 keyset 조회: 최신 N개만 읽으므로 대화 길이와 무관하게 비용이 일정하다.
+    @Query(value = """
+            SELECT m.id AS id, CAST(m.role AS text) AS role, m.content AS content, m.token_count AS "tokenCount"
+            FROM messages m
+            WHERE m.conversation_id = :conversationId
+            ORDER BY m.created_at DESC, m.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ContextMessageView> findContextTail(@Param("conversationId") Long conversationId,
+                                             @Param("limit") int limit);
+
+    // 동일한 tail 윈도우를 Postgres에서 시간순 JSON 배열([{id, role, content, tokenCount}, ...])로 바로 만들어 반환한다.
+    @Query(value = """
+            SELECT CAST(COALESCE(
+                       json_agg(json_build_object('id', t.id, 'role', CAST(t.role AS text), 'content', t.content,
+                                                 'tokenCount', t.token_count)
+                                ORDER BY t.created_at, t.id),
+                       CAST('[]' AS json)) AS text)
+            FROM (
+                SELECT m.id, m.role, m.content, m.token_count, m.created_at
+                FROM messages m
+                WHERE m.conversation_id = :conversationId
+                ORDER BY m.created_at DESC, m.id DESC
+                LIMIT :limit
+            ) t
+            """, nativeQuery = true)
+    String findContextTailJson(@Param("conversationId") Long conversationId,
+                               @Param("limit") int limit);
+
+    // 요약 기준점 이후의 메시지를 오래된 순으로 조회한다.
+    @Query(value = """
+            SELECT m.id AS id, CAST(m.role AS text) AS role, m.content AS content, m.token_count AS "tokenCount"
+            FROM messages m
+            WHERE m.conversation_id = :conversationId
+              AND m.id > :afterMessageId
+            ORDER BY m.created_at, m.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ContextMessageView> findMessagesAfter(@Param("conversationId") Long conversationId,
+                                               @Param("afterMessageId") Long afterMessageId,
+                                               @Param("limit") int limit);
 }
@@ -1,5 +1,6 @@
 package com.example.chatbot.conversation.service;
 
+import com.example.chatbot.conversation.cache.ConversationContextCache;
 import com.example.chatbot.conversation.dto.ConversationDetailResponse;
 import com.example.chatbot.conversation.dto.ConversationListResponse;
 import com.example.chatbot.conversation.dto.MessageResponse;
@@ -23,6 +24,7 @@ public class ConversationService {
 
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
+    private final ConversationContextCache contextCache;
 
     @Transactional(readOnly = true)
     public List<ConversationListResponse> getConversations(Long userId) {
@@ -57,6 +59,7 @@ public class ConversationService {
         Conversation conversation = requireConversationOwnedByUser(conversationId, userId);
 
         conversationRepository.delete(conversation);
+        contextCache.evict(conversationId);
         log.info("대화 삭제 완료: conversationId={}, userId={}", conversationId, userId);
     }
 
@@ -0,0 +1,15 @@
+package com.example.chatbot.dto.openai;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ChatCompletionResult {
+
+    private final String content;
+
+    // 업스트림이 usage를 돌려주지 않으면 null
+    private final Integer promptTokens;
+    private final Integer completionTokens;
+}
@@ -16,4 +16,7 @@ public class ChatCompletionRequest {
     
     @JsonProperty("conversation_id")
     private String conversationId;
+
+    // false면 이 요청은 응답 캐시를 읽지도 쓰지도 않는다. 생략하면 서버 설정을 따른다.
+    private Boolean cache;
 }
@@ -26,6 +26,14 @@ public class Conversation {
     
     @Column(name = "title", length = 255, nullable = false)
     private String title;
+
+    // 컨텍스트 윈도우 밖으로 밀려난 메시지들의 누적 요약
+    @Column(name = "summary", columnDefinition = "TEXT")
+    private String summary;
+
+    // summary에 반영된 마지막 메시지 ID
+    @Column(name = "summarized_until_message_id")
+    private Long summarizedUntilMessageId;
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -10,7 +10,9 @@ import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_conversation_id_created_at_id", columnList = "conversation_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,6 +33,10 @@ public class Message {
     
     @Column(name = "content", columnDefinition = "TEXT", nullable = false)
     private String content;
+
+    // 저장 시점에 한 번 계산한 토큰 수 (이전 데이터는 null)
+    @Column(name = "token_count")
+    private Integer tokenCount;
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
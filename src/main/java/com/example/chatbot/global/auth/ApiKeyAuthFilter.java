@@ -1,14 +1,15 @@
 package com.example.chatbot.global.auth;
 
 import com.example.chatbot.dto.common.ApiErrorResponse;
-import com.example.chatbot.entity.User;
-import com.example.chatbot.repository.UserRepository;
+import com.example.chatbot.global.ratelimit.PreAuthLimiter;
+import com.example.chatbot.global.ratelimit.RateLimitResponseFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -17,15 +18,33 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
     public static final String AUTHENTICATED_USER_ID_ATTR = "authenticatedUserId";
-    private final UserRepository userRepository;
+    // 뒤따르는 필터가 키를 다시 해시하지 않도록 인증 결과를 요청 속성으로 넘긴다.
+    public static final String API_KEY_IDENTITY_ATTR = "apiKeyIdentity";
+    private static final String ALREADY_FILTERED_ATTR = ApiKeyAuthFilter.class.getName() + ALREADY_FILTERED_SUFFIX;
+    private final ApiKeyCache apiKeyCache;
+    private final PreAuthLimiter preAuthLimiter;
     private final ObjectMapper objectMapper;
+    private final Timer foundLookups;
+    private final Timer notFoundLookups;
+
+    public ApiKeyAuthFilter(ApiKeyCache apiKeyCache,
+                            PreAuthLimiter preAuthLimiter,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.apiKeyCache = apiKeyCache;
+        this.preAuthLimiter = preAuthLimiter;
+        this.objectMapper = objectMapper;
+        this.foundLookups = lookupTimer("found", meterRegistry);
+        this.notFoundLookups = lookupTimer("not_found", meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -40,24 +59,58 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
         }
 
         String apiKey = request.getHeader("X-API-Key");
+        // 신뢰하는 프록시 뒤라면 RemoteIpValve가 X-Forwarded-For의 클라이언트 IP로 바꿔 둔다.
+        String clientAddress = request.getRemoteAddr();
+        // 인증 실패가 잦은 IP는 캐시된 유효 키만 통과시켜 DB 조회를 일으키지 못하게 한다.
+        boolean throttled = preAuthLimiter.isThrottled(clientAddress);
 
         if (apiKey == null || apiKey.isBlank()) {
+            if (throttled) {
+                sendThrottledResponse(response, clientAddress);
+                return;
+            }
+            preAuthLimiter.recordFailure(clientAddress);
             log.warn("인증 실패: uri={}, reason=missing_api_key", path);
             sendErrorResponse(response, true);
             return;
         }
 
-        User user = userRepository.findByApiKey(apiKey).orElse(null);
-        if (user == null) {
+        long started = System.nanoTime();
+        ApiKeyIdentity identity = throttled ? apiKeyCache.findCached(apiKey) : apiKeyCache.resolve(apiKey);
+        Timer lookups = identity != null ? foundLookups : notFoundLookups;
+        lookups.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (identity == null) {
+            if (throttled) {
+                sendThrottledResponse(response, clientAddress);
+                return;
+            }
+            preAuthLimiter.recordFailure(clientAddress);
             log.warn("인증 실패: uri={}, reason=invalid_api_key, apiKeyPrefix={}", path, maskApiKey(apiKey));
             sendErrorResponse(response, false);
             return;
         }
 
-        request.setAttribute(AUTHENTICATED_USER_ID_ATTR, user.getId());
+        request.setAttribute(AUTHENTICATED_USER_ID_ATTR, identity.getUserId());
+        request.setAttribute(API_KEY_IDENTITY_ATTR, identity);
         filterChain.doFilter(request, response);
     }
 
+    // 기본 구현은 요청마다 속성 이름 문자열을 새로 만든다.
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTR;
+    }
+
+    // 캐시 적중과 DB 조회가 한 분포에 섞이므로 범위를 넓게 잡는다.
+    private static Timer lookupTimer(String result, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.lookup")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(meterRegistry);
+    }
+
     private void sendErrorResponse(HttpServletResponse response, boolean isEmpty) throws IOException {
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
@@ -72,6 +125,19 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
         response.getWriter().write(json);
     }
 
+    private void sendThrottledResponse(HttpServletResponse response, String clientAddress) throws IOException {
+        preAuthLimiter.recordThrottled();
+        log.debug("인증 실패 제한: from={}", clientAddress);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(preAuthLimiter.retryAfterSeconds(clientAddress)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        ApiErrorResponse errorResponse = ApiErrorResponse.error(
+                RateLimitResponseFactory.RATE_LIMIT_EXCEEDED_CODE, "인증 실패가 너무 많습니다. 잠시 후 다시 시도하세요.");
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+
     private String maskApiKey(String apiKey) {
         int prefixLength = Math.min(4, apiKey.length());
         return apiKey.substring(0, prefixLength) + "****";
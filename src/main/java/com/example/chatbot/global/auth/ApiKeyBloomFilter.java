@@ -0,0 +1,58 @@
+package com.example.chatbot.global.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * API Key 해시의 Bloom filter. 없다고 답한 키는 확실히 존재하지 않는다.
+ * 비트 배열은 AtomicLongArray로 두어 조회 중에도 잠금 없이 키를 추가할 수 있다.
+ */
+public class ApiKeyBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    private ApiKeyBloomFilter(long bitSize, int hashFunctions) {
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    public static ApiKeyBloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(expectedKeys, 1);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bitSize = Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        return new ApiKeyBloomFilter(bitSize, hashFunctions);
+    }
+
+    public void put(String keyHash) {
+        long h1 = Long.parseUnsignedLong(keyHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(keyHash, 16, 32, 16);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(h1, h2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String keyHash) {
+        long h1 = Long.parseUnsignedLong(keyHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(keyHash, 16, 32, 16);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(h1, h2, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // SHA-256 값은 이미 균일하므로 앞 128비트를 두 해시로 나누어 이중 해싱한다.
+    private long index(long h1, long h2, int i) {
+        return Long.remainderUnsigned(h1 + i * h2, bitSize);
+    }
+}
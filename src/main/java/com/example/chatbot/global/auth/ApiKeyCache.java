@@ -0,0 +1,166 @@
+package com.example.chatbot.global.auth;
+
+import com.example.chatbot.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API Key -> 사용자 ID 조회 결과를 노드 메모리에 보관한다.
+ * 키 원문은 보관하지 않고 SHA-256 해시를 캐시 키로 사용한다.
+ *
+ * 키 발급/교체는 {@link ValidApiKeyIndex}가 DB 변경을 주기적으로 읽어 알려 준다(노드마다 각자 읽으므로 전파가 필요 없다).
+ * 인덱스가 꺼져 있으면 TTL 만료로만 반영된다. DB에서 알 수 없는 폐기(행 삭제 등)는 pub/sub 채널로 키 해시를 발행해 즉시 반영한다.
+ */
+@Component
+public class ApiKeyCache implements ValidApiKeyIndex.KeyChangeListener {
+
+    private final UserRepository userRepository;
+    private final ValidApiKeyIndex validKeyIndex;
+    private final ApiKeyCacheProperties properties;
+    private final Cache<String, ApiKeyIdentity> identities;
+    private final Cache<String, Boolean> invalidKeys;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder databaseLookups = new LongAdder();
+    private final LongAdder bloomFilterRejections = new LongAdder();
+    private final Counter invalidations;
+
+    public ApiKeyCache(UserRepository userRepository,
+                       ValidApiKeyIndex validKeyIndex,
+                       ApiKeyCacheProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.validKeyIndex = validKeyIndex;
+        this.properties = properties;
+        this.identities = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.invalidKeys = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaxSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, identities, "api_key");
+        CaffeineCacheMetrics.monitor(meterRegistry, invalidKeys, "api_key_negative");
+        FunctionCounter.builder("auth.api_key.lookups", cacheHits, LongAdder::sum)
+                .tag("source", "cache")
+                .description("DB 조회 없이 캐시로 처리한 API Key 인증 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.api_key.lookups", bloomFilterRejections, LongAdder::sum)
+                .tag("source", "bloom_filter")
+                .description("Bloom filter로 DB 조회 없이 거절한 API Key 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.api_key.lookups", databaseLookups, LongAdder::sum)
+                .tag("source", "database")
+                .register(meterRegistry);
+        Gauge.builder("auth.api_key.cache.hit_ratio", this, ApiKeyCache::hitRatio)
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("auth.api_key.invalidations").register(meterRegistry);
+        validKeyIndex.addListener(this);
+    }
+
+    /**
+     * 유효한 키면 사용자 ID를, 존재하지 않는 키면 null을 반환한다.
+     */
+    public Long resolveUserId(String apiKey) {
+        ApiKeyIdentity identity = resolve(apiKey);
+        return identity != null ? identity.getUserId() : null;
+    }
+
+    /**
+     * 유효한 키면 캐시된 인증 정보를, 존재하지 않는 키면 null을 반환한다.
+     * 캐시 적중 시 키 해시 문자열 외에는 할당하지 않는다.
+     */
+    public ApiKeyIdentity resolve(String apiKey) {
+        String keyHash = ApiKeyHasher.sha256Hex(apiKey);
+        if (!properties.isEnabled()) {
+            databaseLookups.increment();
+            return userRepository.findIdByApiKey(apiKey)
+                    .map(userId -> new ApiKeyIdentity(userId, keyHash))
+                    .orElse(null);
+        }
+
+        ApiKeyIdentity identity = identities.getIfPresent(keyHash);
+        if (identity != null) {
+            cacheHits.increment();
+            return identity;
+        }
+        if (invalidKeys.getIfPresent(keyHash) != null) {
+            cacheHits.increment();
+            return null;
+        }
+        if (!validKeyIndex.mightBeValid(keyHash)) {
+            bloomFilterRejections.increment();
+            return null;
+        }
+
+        databaseLookups.increment();
+        Long userId = userRepository.findIdByApiKey(apiKey).orElse(null);
+        if (userId == null) {
+            invalidKeys.put(keyHash, Boolean.TRUE);
+            return null;
+        }
+        identity = new ApiKeyIdentity(userId, keyHash);
+        identities.put(keyHash, identity);
+        return identity;
+    }
+
+    /**
+     * DB 조회 없이 캐시에 있는 유효한 키만 확인한다. 인증 실패 제한에 걸린 IP의 요청에 사용한다.
+     */
+    public ApiKeyIdentity findCached(String apiKey) {
+        return identities.getIfPresent(ApiKeyHasher.sha256Hex(apiKey));
+    }
+
+    /**
+     * 새로 발급된 키는 부정 캐시에서 지우고, 키가 교체된 사용자의 이전 키는 인증 캐시에서 내린다.
+     */
+    @Override
+    public void onKeysChanged(Map<Long, String> keyHashesByUserId) {
+        keyHashesByUserId.values().forEach(invalidKeys::invalidate);
+        identities.asMap().values().removeIf(identity -> {
+            String current = keyHashesByUserId.get(identity.getUserId());
+            if (current == null || current.equals(identity.getKeyHash())) return false;
+            invalidations.increment();
+            return true;
+        });
+    }
+
+    /**
+     * 전체 재생성 사이에 폐기 후 다시 발급된 키가 부정 캐시에 남지 않도록 비운다.
+     */
+    @Override
+    public void onRebuilt() {
+        invalidKeys.invalidateAll();
+    }
+
+    /**
+     * pub/sub 채널로 받은 키 해시를 무효화한다.
+     */
+    void onMessage(String keyHash) {
+        evictLocal(keyHash);
+    }
+
+    private void evictLocal(String keyHash) {
+        identities.invalidate(keyHash);
+        invalidKeys.invalidate(keyHash);
+        invalidations.increment();
+    }
+
+    private double hitRatio() {
+        long hits = cacheHits.sum() + bloomFilterRejections.sum();
+        long total = hits + databaseLookups.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
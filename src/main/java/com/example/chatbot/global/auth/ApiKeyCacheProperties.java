@@ -0,0 +1,48 @@
+package com.example.chatbot.global.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.auth.key-cache")
+public class ApiKeyCacheProperties {
+
+    private boolean enabled = true;
+
+    // 유효한 키 -> 사용자 ID 캐시 유지 시간과 최대 크기
+    private Duration ttl = Duration.ofMinutes(5);
+    private long maxSize = 100_000;
+
+    // 존재하지 않는 키를 기억하는 시간 (짧게 유지해 새로 발급된 키가 곧바로 반영되도록 한다)
+    private Duration negativeTtl = Duration.ofSeconds(30);
+    private long negativeMaxSize = 10_000;
+
+    // 키 폐기를 모든 노드에 알리기 위한 Redis pub/sub 채널. 메시지는 폐기할 키의 SHA-256 해시(hex)다.
+    private boolean pubsubEnabled = true;
+    private String invalidationChannel = "auth:api-key:invalidate";
+
+    private BloomFilter bloomFilter = new BloomFilter();
+
+    @Getter
+    @Setter
+    public static class BloomFilter {
+
+        // 유효한 키 해시의 Bloom filter로 확실히 없는 키는 DB 조회 없이 거절한다.
+        private boolean enabled = true;
+
+        private long expectedKeys = 100_000;
+        private double falsePositiveRate = 0.01;
+
+        // 새로 추가/변경된 키를 반영하는 주기
+        private Duration refreshInterval = Duration.ofSeconds(5);
+
+        // 폐기된 키를 비우기 위해 전체를 다시 만드는 주기
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+    }
+}
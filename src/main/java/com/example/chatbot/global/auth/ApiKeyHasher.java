@@ -0,0 +1,72 @@
+package com.example.chatbot.global.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// API Key 원문 대신 저장/비교/로그에 사용하는 SHA-256 해시
+public final class ApiKeyHasher {
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // 요청마다 MessageDigest와 버퍼를 만들지 않도록 스레드별로 재사용한다.
+    // 가상 스레드는 요청마다 새로 생기므로 ThreadLocal에 남기지 않고 그때그때 만든다.
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private ApiKeyHasher() {
+    }
+
+    /**
+     * 플랫폼 스레드에서는 결과 문자열 하나 외에는 할당하지 않는다.
+     */
+    public static String sha256Hex(String apiKey) {
+        Buffers buffers = Thread.currentThread().isVirtual() ? new Buffers() : BUFFERS.get();
+        MessageDigest digest = buffers.digest;
+        digest.reset();
+        update(digest, apiKey);
+        try {
+            digest.digest(buffers.hashed, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        }
+
+        char[] hex = buffers.hex;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int value = buffers.hashed[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[value >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    // API Key는 ASCII이므로 바이트 배열로 인코딩하지 않고 문자 단위로 넣는다.
+    private static void update(MessageDigest digest, String apiKey) {
+        int length = apiKey.length();
+        for (int i = 0; i < length; i++) {
+            if (apiKey.charAt(i) >= 0x80) {
+                digest.reset();
+                digest.update(apiKey.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            digest.update((byte) apiKey.charAt(i));
+        }
+    }
+
+    private static final class Buffers {
+        private final MessageDigest digest;
+        private final byte[] hashed = new byte[DIGEST_LENGTH];
+        private final char[] hex = new char[DIGEST_LENGTH * 2];
+
+        private Buffers() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 algorithm unavailable", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.chatbot.global.auth;
+
+import lombok.Getter;
+
+/**
+ * 인증된 API Key의 캐시 항목. 요청마다 다시 만들지 않도록 키 해시에서 파생되는 값을 함께 보관한다.
+ */
+@Getter
+public class ApiKeyIdentity {
+
+    private final Long userId;
+    private final String keyHash;
+
+    // Rate limit 식별자 ("key:" + 키 해시)
+    private final String rateLimitIdentifier;
+
+    public ApiKeyIdentity(Long userId, String keyHash) {
+        this.userId = userId;
+        this.keyHash = keyHash;
+        this.rateLimitIdentifier = "key:" + keyHash;
+    }
+}
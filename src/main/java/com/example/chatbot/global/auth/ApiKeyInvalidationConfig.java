@@ -0,0 +1,30 @@
+package com.example.chatbot.global.auth;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 운영 도구 등에서 발행한 API Key 폐기 이벤트(키 해시)를 받아 로컬 캐시에서 내린다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.auth.key-cache", name = "pubsub-enabled", havingValue = "true", matchIfMissing = true)
+public class ApiKeyInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer apiKeyInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                             ApiKeyCache apiKeyCache,
+                                                                             ApiKeyCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> apiKeyCache.onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+}
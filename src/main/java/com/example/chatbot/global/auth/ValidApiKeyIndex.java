@@ -0,0 +1,166 @@
+package com.example.chatbot.global.auth;
+
+import com.example.chatbot.repository.ApiKeyView;
+import com.example.chatbot.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 유효한 API Key 해시의 Bloom filter를 시작 시 만들고, 새 키는 주기적으로 추가한다.
+ * Bloom filter는 삭제를 지원하지 않으므로 폐기된 키는 주기적인 전체 재생성으로 비운다.
+ * 갱신 중 발견한 키 발급/교체는 {@link KeyChangeListener}로 알려 인증 캐시가 바로 반영하게 한다.
+ */
+@Slf4j
+@Component
+public class ValidApiKeyIndex {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final ApiKeyCacheProperties.BloomFilter properties;
+    private final List<KeyChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ApiKeyBloomFilter filter;
+    private volatile long indexedKeys;
+    private ScheduledExecutorService scheduler;
+
+    // 아래 필드는 갱신 스레드만 읽고 쓴다.
+    private long lastUserId;
+    private LocalDateTime lastRefreshedAt;
+    private long lastRebuiltAt;
+
+    public ValidApiKeyIndex(UserRepository userRepository,
+                            ApiKeyCacheProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.properties = properties.getBloomFilter();
+        Gauge.builder("auth.api_key.bloom_filter.keys", this, index -> index.indexedKeys).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) return;
+
+        long intervalMillis = Math.max(properties.getRefreshInterval().toMillis(), 100);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("api-key-index-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        // 시작을 막지 않도록 첫 생성도 백그라운드에서 한다. 생성 전까지는 모든 키를 통과시킨다.
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 확실히 존재하지 않는 키면 false. 인덱스가 준비되지 않았거나 비활성화되어 있으면 항상 true.
+     */
+    public boolean mightBeValid(String keyHash) {
+        ApiKeyBloomFilter current = filter;
+        return current == null || current.mightContain(keyHash);
+    }
+
+    public void addListener(KeyChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    void refresh() {
+        try {
+            if (filter == null
+                    || System.currentTimeMillis() - lastRebuiltAt >= properties.getRebuildInterval().toMillis()) {
+                rebuild();
+            } else {
+                loadChanges();
+            }
+        } catch (RuntimeException e) {
+            log.warn("API Key 인덱스 갱신 실패: error={}", e.getMessage());
+        }
+    }
+
+    private void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> keyHashes = new ArrayList<>();
+        long afterId = 0;
+        List<ApiKeyView> batch;
+        do {
+            batch = userRepository.findApiKeysAfter(afterId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+            for (ApiKeyView view : batch) {
+                keyHashes.add(ApiKeyHasher.sha256Hex(view.getApiKey()));
+                afterId = view.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        // 예상보다 키가 많으면 오탐률이 오르지 않도록 여유 있게 잡는다.
+        ApiKeyBloomFilter rebuilt = ApiKeyBloomFilter.create(
+                Math.max(properties.getExpectedKeys(), keyHashes.size() * 2L), properties.getFalsePositiveRate());
+        keyHashes.forEach(rebuilt::put);
+
+        filter = rebuilt;
+        indexedKeys = keyHashes.size();
+        lastUserId = afterId;
+        lastRefreshedAt = startedAt;
+        lastRebuiltAt = System.currentTimeMillis();
+        log.info("API Key 인덱스 생성: keys={}", keyHashes.size());
+        listeners.forEach(KeyChangeListener::onRebuilt);
+    }
+
+    private void loadChanges() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        ApiKeyBloomFilter current = filter;
+        Map<Long, String> changed = new HashMap<>();
+        List<ApiKeyView> batch;
+        do {
+            batch = userRepository.findApiKeysAfter(lastUserId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+            for (ApiKeyView view : batch) {
+                String keyHash = ApiKeyHasher.sha256Hex(view.getApiKey());
+                current.put(keyHash);
+                changed.put(view.getId(), keyHash);
+                lastUserId = view.getId();
+                indexedKeys++;
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        // 키 교체(UPDATE)는 updated_at으로 찾는다. 시계 차이를 고려해 한 주기만큼 겹쳐 읽는다.
+        for (ApiKeyView view : userRepository.findApiKeysUpdatedSince(lastRefreshedAt.minus(properties.getRefreshInterval()))) {
+            String keyHash = ApiKeyHasher.sha256Hex(view.getApiKey());
+            current.put(keyHash);
+            changed.put(view.getId(), keyHash);
+        }
+        lastRefreshedAt = startedAt;
+
+        if (!changed.isEmpty()) {
+            listeners.forEach(listener -> listener.onKeysChanged(changed));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 갱신 스레드에서 호출된다.
+     */
+    public interface KeyChangeListener {
+
+        // 이번 갱신에서 새로 발급되었거나 교체된 키 (사용자 ID -> 현재 키 해시)
+        void onKeysChanged(Map<Long, String> keyHashesByUserId);
+
+        // 전체를 다시 만들었다. 그 사이 폐기되었거나 다시 발급된 키가 있을 수 있다.
+        void onRebuilt();
+    }
+}
@@ -16,7 +16,8 @@ import org.springframework.web.util.ContentCachingResponseWrapper;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
@@ -26,28 +27,36 @@ public class HttpLoggingFilter extends OncePerRequestFilter {
     private static final Set<String> SENSITIVE_HEADERS = Set.of(
             "x-api-key", "authorization", "cookie", "set-cookie", "proxy-authorization"
     );
+    private static final String ALREADY_FILTERED_ATTR = HttpLoggingFilter.class.getName() + ALREADY_FILTERED_SUFFIX;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // 요청 ID = 노드 구분값(4자리) + 요청 순번(8자리). UUID와 달리 SecureRandom을 거치지 않는다.
+    private static final int NODE_ID = ThreadLocalRandom.current().nextInt(1 << 16);
+    private static final AtomicLong REQUEST_SEQUENCE = new AtomicLong();
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
+        String requestId = nextRequestId();
         MDC.put("requestId", requestId);
 
         long startTime = System.currentTimeMillis();
 
-        ContentCachingRequestWrapper requestWrapper = wrapRequest(request);
-        boolean isSse = isSseRequest(request);
-        
-        HttpServletResponse responseToUse = isSse ? response : new ContentCachingResponseWrapper(response);
+        // 본문은 DEBUG 로그에만 쓰이므로 그때만 요청/응답을 감싸 복사한다.
+        boolean logPayload = log.isDebugEnabled() && isApiRequest(request);
+        HttpServletRequest requestToUse = logPayload ? wrapRequest(request) : request;
+        HttpServletResponse responseToUse = logPayload && !isSseRequest(request)
+                ? new ContentCachingResponseWrapper(response)
+                : response;
 
         try {
-            filterChain.doFilter(requestWrapper, responseToUse);
+            filterChain.doFilter(requestToUse, responseToUse);
         } finally {
             long duration = System.currentTimeMillis() - startTime;
-            logRequestResponse(requestWrapper, responseToUse, duration);
-            
+            logRequestResponse(requestId, requestToUse, responseToUse, duration, logPayload);
+
             if (responseToUse instanceof ContentCachingResponseWrapper responseWrapper) {
                 responseWrapper.copyBodyToResponse();
             }
@@ -55,17 +64,19 @@ public class HttpLoggingFilter extends OncePerRequestFilter {
         }
     }
 
-    private void logRequestResponse(ContentCachingRequestWrapper request, HttpServletResponse response, long duration) {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        int status = response.getStatus();
-
-        log.info("[{}] {} {} -> {} ({}ms) from={} ua={}",
-                MDC.get("requestId"), method, path, status, duration, request.getRemoteAddr(), request.getHeader("User-Agent"));
+    private void logRequestResponse(String requestId, HttpServletRequest request, HttpServletResponse response,
+                                    long duration, boolean logPayload) {
+        if (log.isInfoEnabled()) {
+            log.info("[{}] {} {} -> {} ({}ms) from={} ua={}",
+                    requestId, request.getMethod(), request.getRequestURI(), response.getStatus(), duration,
+                    request.getRemoteAddr(), request.getHeader("User-Agent"));
+        }
 
-        if (path != null && path.startsWith("/api/")) {
+        if (logPayload) {
             log.debug("Request Headers: {}", getMaskedHeaders(request));
-            log.debug("Request Body: {}", getPayload(request.getContentAsByteArray(), request.getCharacterEncoding()));
+            if (request instanceof ContentCachingRequestWrapper requestWrapper) {
+                log.debug("Request Body: {}", getPayload(requestWrapper.getContentAsByteArray(), requestWrapper.getCharacterEncoding()));
+            }
 
             if (response instanceof ContentCachingResponseWrapper responseWrapper) {
                 log.debug("Response Body: {}", getPayload(responseWrapper.getContentAsByteArray(), responseWrapper.getCharacterEncoding()));
@@ -75,6 +86,18 @@ public class HttpLoggingFilter extends OncePerRequestFilter {
         }
     }
 
+    private static String nextRequestId() {
+        long sequence = REQUEST_SEQUENCE.incrementAndGet();
+        char[] id = new char[12];
+        for (int i = 0; i < 4; i++) {
+            id[i] = HEX_DIGITS[(NODE_ID >>> (12 - i * 4)) & 0x0f];
+        }
+        for (int i = 0; i < 8; i++) {
+            id[4 + i] = HEX_DIGITS[(int) (sequence >>> (28 - i * 4)) & 0x0f];
+        }
+        return new String(id);
+    }
+
     private String getMaskedHeaders(HttpServletRequest request) {
         StringBuilder sb = new StringBuilder("{");
         Collections.list(request.getHeaderNames()).forEach(headerName -> {
@@ -103,8 +126,18 @@ public class HttpLoggingFilter extends OncePerRequestFilter {
         return new ContentCachingRequestWrapper(request);
     }
 
+    private boolean isApiRequest(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path != null && path.startsWith("/api/");
+    }
+
     private boolean isSseRequest(HttpServletRequest request) {
         String path = request.getRequestURI();
         return (path != null && path.endsWith("/stream")) || MediaType.TEXT_EVENT_STREAM_VALUE.equals(request.getHeader("Accept"));
     }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTR;
+    }
 }
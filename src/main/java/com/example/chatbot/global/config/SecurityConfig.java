@@ -1,7 +1,9 @@
 package com.example.chatbot.global.config;
 
 import com.example.chatbot.global.auth.ApiKeyAuthFilter;
+import com.example.chatbot.global.ratelimit.AdaptiveConcurrencyFilter;
 import com.example.chatbot.global.ratelimit.RateLimitFilter;
+import jakarta.servlet.ServletContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,6 +13,8 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,6 +29,8 @@ public class SecurityConfig {
     private final ApiKeyAuthFilter apiKeyAuthFilter;
     private final RateLimitFilter rateLimitFilter;
     private final HttpLoggingFilter httpLoggingFilter;
+    private final AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+    private final ServletContext servletContext;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -34,17 +40,29 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/health", "/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/error").permitAll()
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers(managementServer()).permitAll()
                 .requestMatchers("/api/**").permitAll()
                 .anyRequest().authenticated()
             )
-            // 필터 순서: 로깅 -> API Key 인증 -> 속도 제한
+            // 필터 순서: 로깅 -> API Key 인증 -> 속도 제한 -> 동시 처리 한도
             .addFilterBefore(httpLoggingFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterAfter(apiKeyAuthFilter, HttpLoggingFilter.class)
-            .addFilterAfter(rateLimitFilter, ApiKeyAuthFilter.class);
+            .addFilterAfter(rateLimitFilter, ApiKeyAuthFilter.class)
+            .addFilterAfter(adaptiveConcurrencyFilter, RateLimitFilter.class);
 
         return http.build();
     }
 
+    /**
+     * 관리 포트(management.server.port)로 들어온 actuator 요청. 관리 서버는 공개 API 포트와 서블릿 컨텍스트가 다르다.
+     * 관리 포트를 API 포트와 같게 두면 metrics/prometheus는 익명으로 열리지 않는다.
+     */
+    private RequestMatcher managementServer() {
+        RequestMatcher actuator = new AntPathRequestMatcher("/actuator/**");
+        return request -> request.getServletContext() != servletContext && actuator.matches(request);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,46 @@
+package com.example.chatbot.global.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Tomcat 요청 스레드와 MVC 비동기 실행기는 spring.threads.virtual.enabled 로 Spring Boot가 가상 스레드로 바꾼다.
+ * 여기서는 업스트림 스트림 이벤트를 받아 SSE 전송과 DB 저장을 하는 스케줄러만 정한다.
+ */
+@Slf4j
+@Configuration
+public class VirtualThreadConfig {
+
+    /**
+     * 가상 스레드 모드에서는 스트림 이벤트 처리를 Netty 이벤트 루프에서 가상 스레드로 옮긴다.
+     * 응답 쓰기와 저장이 블로킹이므로 이벤트 루프를 붙잡지 않게 하기 위함이다.
+     * 플랫폼 스레드 모드에서는 기존처럼 이벤트를 받은 스레드에서 바로 처리한다.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler streamEventScheduler(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (!virtualThreads) {
+            return Schedulers.immediate();
+        }
+        log.info("가상 스레드 모드: 스트림 이벤트를 가상 스레드에서 처리합니다.");
+        return Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-stream-", 0).factory()),
+                "sse-stream");
+    }
+
+    /**
+     * 스트림 종료 처리(done 전송, 정산)처럼 모든 스트림이 공유하는 스레드(메시지 저장 스레드 등)에서
+     * 넘겨받는 블로킹 작업을 실행한다. 느린 클라이언트 하나가 공유 스레드를 붙잡지 않게 하기 위함이다.
+     * 가상 스레드 모드에서는 스트림 이벤트 스케줄러를 그대로 쓰고, 아니면 boundedElastic을 쓴다.
+     */
+    @Bean(destroyMethod = "")
+    public Scheduler streamBlockingScheduler(Scheduler streamEventScheduler,
+                                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return virtualThreads ? streamEventScheduler : Schedulers.boundedElastic();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.chatbot.global.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 가상 스레드가 synchronized 블록이나 네이티브 호출 안에서 블로킹되어 캐리어 스레드를 붙잡는 경우를
+ * JFR jdk.VirtualThreadPinned 이벤트로 받아 지표와 로그로 남긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final VirtualThreadProperties properties;
+    private final Counter pinnedEvents;
+    private final Timer pinnedDuration;
+    private final AtomicLong lastLoggedAt = new AtomicLong();
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pinnedEvents = Counter.builder("jvm.threads.virtual.pinned")
+                .description("캐리어 스레드에 고정된 채 블로킹된 가상 스레드 수")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+                .withThreshold(properties.getPinnedEventThreshold())
+                .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("가상 스레드 pinning 감시 시작: threshold={}", properties.getPinnedEventThreshold());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedDuration.record(event.getDuration());
+
+        long now = System.currentTimeMillis();
+        long last = lastLoggedAt.get();
+        if (now - last < properties.getPinnedLogInterval().toMillis() || !lastLoggedAt.compareAndSet(last, now)) {
+            return;
+        }
+        log.warn("가상 스레드 pinning: duration={}ms, thread={}, stack={}",
+                event.getDuration().toMillis(), event.getThread() != null ? event.getThread().getJavaName() : null,
+                topFrames(event));
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "[unavailable]";
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            RecordedFrame frame = frames.get(i);
+            sb.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.chatbot.global.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 가상 스레드 모드 자체는 spring.threads.virtual.enabled 로 켠다. 여기서는 pinning 관측 방식만 정한다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.virtual-threads")
+public class VirtualThreadProperties {
+
+    // 이 시간 이상 캐리어 스레드에 고정된 경우만 JFR 이벤트로 받는다.
+    private Duration pinnedEventThreshold = Duration.ofMillis(20);
+
+    // pinning 스택 로그 최소 간격. 같은 원인이 반복되어도 로그가 넘치지 않게 한다.
+    private Duration pinnedLogInterval = Duration.ofMinutes(1);
+}
@@ -21,9 +21,17 @@ public enum ErrorCode {
 
     // 429 Too Many Requests
     RATE_LIMIT_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", "요청 횟수가 초과되었습니다."),
+    CONCURRENT_STREAM_LIMIT_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "CONCURRENT_STREAM_LIMIT_EXCEEDED", "동시에 열 수 있는 스트림 수를 초과했습니다."),
+    TOKEN_QUOTA_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "TOKEN_QUOTA_EXCEEDED", "토큰 사용량 한도를 초과했습니다."),
 
     // 500 Internal Server Error
-    INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_SERVER_ERROR", "서버 내부 오류가 발생했습니다.");
+    INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_SERVER_ERROR", "서버 내부 오류가 발생했습니다."),
+
+    // 503 Service Unavailable
+    SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", "일시적으로 요청을 처리할 수 없습니다. 잠시 후 다시 시도하세요."),
+    UPSTREAM_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "UPSTREAM_UNAVAILABLE", "AI 응답 서버가 불안정해 요청을 잠시 멈췄습니다. 잠시 후 다시 시도하세요."),
+    UPSTREAM_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "UPSTREAM_BUSY", "AI 응답 요청이 몰려 있습니다. 잠시 후 다시 시도하세요."),
+    CONCURRENCY_LIMIT_EXCEEDED(HttpStatus.SERVICE_UNAVAILABLE, "CONCURRENCY_LIMIT_EXCEEDED", "처리 중인 채팅 요청이 많아 지금은 받을 수 없습니다. 잠시 후 다시 시도하세요.");
     
     private final HttpStatus status;
     private final String code;
@@ -1,8 +1,10 @@
 package com.example.chatbot.global.error;
 
 import com.example.chatbot.dto.common.ApiErrorResponse;
+import com.example.chatbot.global.quota.TokenQuotaException;
 import com.example.chatbot.global.ratelimit.RateLimitException;
 import com.example.chatbot.global.ratelimit.RateLimitResponseFactory;
+import com.example.chatbot.upstream.UpstreamUnavailableException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -28,6 +30,25 @@ public class GlobalExceptionHandler {
                 .body(rateLimitResponseFactory.createBody(e));
     }
 
+    @ExceptionHandler(TokenQuotaException.class)
+    public ResponseEntity<ApiErrorResponse> handleTokenQuotaException(TokenQuotaException e) {
+        log.warn("Token quota exceeded: windowSeconds={}, retryAfter={}", e.getWindowSeconds(), e.getRetryAfterSeconds());
+        return ResponseEntity
+                .status(ErrorCode.TOKEN_QUOTA_EXCEEDED.getStatus())
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiErrorResponse.error(ErrorCode.TOKEN_QUOTA_EXCEEDED.getCode(),
+                        String.format("토큰 사용량 한도 초과 (%d초 후 재시도)", e.getRetryAfterSeconds())));
+    }
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleUpstreamUnavailableException(UpstreamUnavailableException e) {
+        log.warn("Upstream unavailable: message={}, retryAfter={}", e.getMessage(), e.getRetryAfterSeconds());
+        return ResponseEntity
+                .status(e.getErrorCode().getStatus())
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiErrorResponse.error(e.getErrorCode().getCode(), e.getMessage()));
+    }
+
     @ExceptionHandler(AppException.class)
     public ResponseEntity<ApiErrorResponse> handleAppException(AppException e) {
         log.warn("AppException: code={}, message={}", e.getErrorCode().getCode(), e.getMessage());
@@ -0,0 +1,16 @@
+package com.example.chatbot.global.quota;
+
+import lombok.Getter;
+
+@Getter
+public class TokenQuotaException extends RuntimeException {
+
+    private final int windowSeconds;
+    private final int retryAfterSeconds;
+
+    public TokenQuotaException(int windowSeconds, int retryAfterSeconds) {
+        super("Token quota exceeded");
+        this.windowSeconds = windowSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.chatbot.global.quota;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.token-quota")
+public class TokenQuotaProperties {
+
+    private boolean enabled = true;
+
+    // 윈도우 내 사용자별 최대 프롬프트/응답 토큰 수
+    private long promptTokens = 200_000;
+    private long completionTokens = 100_000;
+
+    // 고정 윈도우 크기 (초 단위)
+    private int windowSeconds = 3600;
+
+    // 호출 전 예약할 응답 토큰 추정치 (실사용량으로 정산된다)
+    private int estimatedCompletionTokens = 1000;
+
+    // 정산을 모아서 반영하는 주기와 한 번에 처리할 최대 건수
+    private Duration settleInterval = Duration.ofMillis(500);
+    private int settleBatchSize = 500;
+
+    // Redis key prefix
+    private String keyPrefix = "token_quota";
+}
@@ -0,0 +1,213 @@
+package com.example.chatbot.global.quota;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 사용자별 프롬프트/응답 토큰 쿼터.
+ * 업스트림 호출 전에 추정치를 원자적으로 예약하고, 응답이 끝나면 실사용량과의 차이를 모아서 비동기로 정산한다.
+ */
+@Slf4j
+@Service
+public class TokenQuotaService {
+
+    private static final String PROMPT_FIELD = "prompt";
+    private static final String COMPLETION_FIELD = "completion";
+    // 윈도우가 끝난 뒤 늦게 도착한 정산도 반영되도록 키를 조금 더 유지한다.
+    private static final long KEY_TTL_SLACK_SECONDS = 60;
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = createScript();
+
+    private final StringRedisTemplate redisTemplate;
+    private final TokenQuotaProperties properties;
+    private final ConcurrentLinkedQueue<Settlement> pendingSettlements = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter unavailable;
+    private final Counter settleFailures;
+    private ScheduledExecutorService scheduler;
+
+    public TokenQuotaService(StringRedisTemplate redisTemplate,
+                             TokenQuotaProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.accepted = Counter.builder("token_quota.reservations").tag("result", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("token_quota.reservations").tag("result", "rejected").register(meterRegistry);
+        this.unavailable = Counter.builder("token_quota.reservations").tag("result", "unavailable").register(meterRegistry);
+        this.settleFailures = Counter.builder("token_quota.settlement.failures").register(meterRegistry);
+        Gauge.builder("token_quota.settlement.pending", pendingCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) return;
+
+        long intervalMillis = Math.max(properties.getSettleInterval().toMillis(), 10);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("token-quota-settle-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::flushSettlements, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 프롬프트 토큰과 응답 토큰 추정치를 예약한다. 한도를 넘으면 {@link TokenQuotaException}을 던진다.
+     * Redis 장애 시에는 예약 없이 진행한다.
+     */
+    public TokenReservation reserve(Long userId, int promptTokens) {
+        if (!properties.isEnabled()) return TokenReservation.NONE;
+
+        long now = Instant.now().getEpochSecond();
+        long windowIndex = now / properties.getWindowSeconds();
+        long windowEnd = (windowIndex + 1) * properties.getWindowSeconds();
+        String key = String.format("%s:%d:%d", properties.getKeyPrefix(), userId, windowIndex);
+        long completionTokens = properties.getEstimatedCompletionTokens();
+
+        List<?> result;
+        try {
+            result = redisTemplate.execute(RESERVE_SCRIPT, List.of(key),
+                    String.valueOf(promptTokens),
+                    String.valueOf(completionTokens),
+                    String.valueOf(properties.getPromptTokens()),
+                    String.valueOf(properties.getCompletionTokens()),
+                    String.valueOf(windowEnd - now + KEY_TTL_SLACK_SECONDS));
+        } catch (DataAccessException e) {
+            unavailable.increment();
+            log.warn("토큰 쿼터 예약 실패, 예약 없이 진행: userId={}, error={}", userId, e.getMessage());
+            return TokenReservation.NONE;
+        }
+
+        if (result == null || result.isEmpty()) {
+            unavailable.increment();
+            return TokenReservation.NONE;
+        }
+        if (((Number) result.get(0)).longValue() == 0) {
+            rejected.increment();
+            log.warn("토큰 쿼터 초과: userId={}, usedPrompt={}, usedCompletion={}, requestedPrompt={}",
+                    userId, result.get(1), result.get(2), promptTokens);
+            throw new TokenQuotaException(properties.getWindowSeconds(), (int) Math.max(1, windowEnd - now));
+        }
+
+        accepted.increment();
+        return new TokenReservation(key, promptTokens, completionTokens);
+    }
+
+    /**
+     * 실사용량과 예약량의 차이를 정산 대기열에 넣고 즉시 반환한다.
+     */
+    public void settle(TokenReservation reservation, long actualPromptTokens, long actualCompletionTokens) {
+        if (reservation == null || !reservation.isReserved()) return;
+
+        long promptDelta = actualPromptTokens - reservation.getPromptTokens();
+        long completionDelta = actualCompletionTokens - reservation.getCompletionTokens();
+        if (promptDelta == 0 && completionDelta == 0) return;
+
+        pendingSettlements.add(new Settlement(reservation.getKey(), promptDelta, completionDelta));
+        pendingCount.incrementAndGet();
+    }
+
+    /**
+     * 업스트림 호출 전에 실패한 요청의 예약을 돌려준다.
+     */
+    public void release(TokenReservation reservation) {
+        settle(reservation, 0, 0);
+    }
+
+    /**
+     * 정산 스레드에서만 호출된다. 같은 키의 정산을 합쳐 한 번의 파이프라인으로 반영한다.
+     */
+    void flushSettlements() {
+        while (!pendingSettlements.isEmpty()) {
+            Map<String, long[]> deltas = new LinkedHashMap<>();
+            int drained = 0;
+            Settlement settlement;
+            while (drained < properties.getSettleBatchSize() && (settlement = pendingSettlements.poll()) != null) {
+                long[] delta = deltas.computeIfAbsent(settlement.getKey(), key -> new long[2]);
+                delta[0] += settlement.getPromptDelta();
+                delta[1] += settlement.getCompletionDelta();
+                drained++;
+            }
+            pendingCount.addAndGet(-drained);
+
+            try {
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                        @SuppressWarnings("unchecked")
+                        RedisOperations<String, String> stringOps = (RedisOperations<String, String>) operations;
+                        deltas.forEach((key, delta) -> {
+                            if (delta[0] != 0) stringOps.opsForHash().increment(key, PROMPT_FIELD, delta[0]);
+                            if (delta[1] != 0) stringOps.opsForHash().increment(key, COMPLETION_FIELD, delta[1]);
+                            stringOps.expire(key, properties.getWindowSeconds() + KEY_TTL_SLACK_SECONDS, TimeUnit.SECONDS);
+                        });
+                        return null;
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 예약량이 이미 반영되어 있으므로 정산 누락은 윈도우가 끝나면 사라지는 오차로 남긴다.
+                settleFailures.increment();
+                log.warn("토큰 쿼터 정산 실패: keys={}, error={}", deltas.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            if (scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
+                flushSettlements();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> createScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/token_quota_reserve.lua")));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Settlement {
+
+        private final String key;
+        private final long promptDelta;
+        private final long completionDelta;
+    }
+}
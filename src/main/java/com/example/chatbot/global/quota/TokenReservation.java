@@ -0,0 +1,23 @@
+package com.example.chatbot.global.quota;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 업스트림 호출 전에 예약한 토큰. 응답이 끝나면 {@link TokenQuotaService#settle}로 실사용량과 맞춘다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TokenReservation {
+
+    // 쿼터가 비활성화되었거나 Redis 장애로 예약 없이 진행한 경우
+    static final TokenReservation NONE = new TokenReservation(null, 0, 0);
+
+    private final String key;
+    private final long promptTokens;
+    private final long completionTokens;
+
+    public boolean isReserved() {
+        return key != null;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.chatbot.global.ratelimit;
+
+import com.example.chatbot.dto.common.ApiErrorResponse;
+import com.example.chatbot.global.error.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 채팅 요청이 적응형 동시 처리 한도를 넘으면 대기시키지 않고 바로 503과 Retry-After로 거절한다.
+ * 자리는 응답이 끝날 때 돌려준다. 스트림(SSE)은 비동기 처리가 끝날 때까지 자리를 차지한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final String ALREADY_FILTERED_ATTR = AdaptiveConcurrencyFilter.class.getName() + ALREADY_FILTERED_SUFFIX;
+    private static final String COMPLETIONS_PATH = "/api/chat/completions";
+    private static final String STREAM_PATH = "/api/chat/completions/stream";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final AdaptiveConcurrencyProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        GradientConcurrencyLimit limit = resolveLimit(request);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limit.tryAcquire()) {
+            ErrorCode errorCode = ErrorCode.CONCURRENCY_LIMIT_EXCEEDED;
+            response.setStatus(errorCode.getStatus().value());
+            response.setHeader("Retry-After", String.valueOf(properties.getRetryAfterSeconds()));
+            response.setContentType("application/json;charset=UTF-8");
+            ApiErrorResponse body = ApiErrorResponse.error(errorCode.getCode(), errorCode.getMessage());
+            response.getWriter().write(objectMapper.writeValueAsString(body));
+            return;
+        }
+
+        Permit permit = new Permit(limit);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTR;
+    }
+
+    private GradientConcurrencyLimit resolveLimit(HttpServletRequest request) {
+        if (!properties.isEnabled() || !"POST".equals(request.getMethod())) return null;
+
+        String path = request.getRequestURI();
+        if (COMPLETIONS_PATH.equals(path)) return limiter.getCompletions();
+        if (STREAM_PATH.equals(path)) return limiter.getStreams();
+        return null;
+    }
+
+    /**
+     * 완료/에러/타임아웃 어느 경로로 끝나도 한 번만 반납한다.
+     */
+    private static final class Permit implements AsyncListener {
+
+        private final GradientConcurrencyLimit limit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(GradientConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.chatbot.global.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅 엔드포인트의 적응형 동시 처리 한도. 스트리밍과 비스트리밍은 지연의 의미가 달라 한도를 따로 둔다.
+ * 비스트리밍은 응답 전체, 스트리밍은 첫 청크까지의 업스트림 지연을 표본으로 받는다.
+ * 응답 전에 실패한 호출은 표본 대신 실패 신호로 받아 한도를 줄인다.
+ */
+@Getter
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final GradientConcurrencyLimit completions;
+    private final GradientConcurrencyLimit streams;
+
+    public AdaptiveConcurrencyLimiter(AdaptiveConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.completions = new GradientConcurrencyLimit("completion", properties, meterRegistry);
+        this.streams = new GradientConcurrencyLimit("stream", properties, meterRegistry);
+    }
+
+    public void recordCompletionLatency(long nanos) {
+        completions.onSample(nanos);
+    }
+
+    public void recordStreamLatency(long nanos) {
+        streams.onSample(nanos);
+    }
+
+    public void recordCompletionFailure() {
+        completions.onDrop();
+    }
+
+    public void recordStreamFailure() {
+        streams.onDrop();
+    }
+}
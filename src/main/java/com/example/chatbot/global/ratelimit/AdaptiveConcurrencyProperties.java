@@ -0,0 +1,35 @@
+package com.example.chatbot.global.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.adaptive-concurrency")
+public class AdaptiveConcurrencyProperties {
+
+    private boolean enabled = true;
+
+    // 시작 한도와 한도가 움직일 수 있는 범위 (노드당 동시 처리 중인 채팅 요청 수)
+    private int initialLimit = 50;
+    private int minLimit = 10;
+    private int maxLimit = 500;
+
+    // 장기 지연의 이 배수까지는 업스트림이 느려졌다고 보지 않는다.
+    private double tolerance = 1.5;
+
+    // 장기 지연 EWMA에 반영할 최근 표본 수
+    private int longWindow = 600;
+
+    // 새로 계산한 한도를 현재 한도에 섞는 비율. 작을수록 천천히 움직인다.
+    private double smoothing = 0.2;
+
+    // 업스트림 실패(타임아웃, 5xx, 429, 서킷 거절) 한 건마다 한도에 곱하는 비율
+    private double backoffRatio = 0.9;
+
+    // 한도를 넘어 거절할 때 내려보내는 Retry-After (초)
+    private int retryAfterSeconds = 1;
+}
@@ -0,0 +1,112 @@
+package com.example.chatbot.global.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 업스트림 지연을 보고 움직이는 동시 처리 한도 (gradient 방식).
+ * 표본마다 장기 지연 EWMA와 방금 표본을 비교해 gradient = tolerance x 장기 / 표본을 0.5~1 사이로 구한다.
+ * 새 한도 = 한도 x gradient + sqrt(한도)이고, 지연이 그대로면 sqrt(한도)만큼 늘고 지연이 늘면 최대 절반까지 줄어든다.
+ * 진행 중 요청이 한도의 절반도 안 되면 한도가 문제가 아니므로 한도는 그대로 둔다.
+ * 실패(타임아웃, 5xx, 서킷 거절)는 지연 표본이 없으므로 한도를 backoff-ratio만큼 곱해 줄인다.
+ */
+public class GradientConcurrencyLimit {
+
+    // 장기 지연 EWMA를 평균으로 채울 초기 표본 수
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final AdaptiveConcurrencyProperties properties;
+    private final Counter rejected;
+
+    // 아래 상태는 this로 보호한다.
+    private double limit;
+    private int inFlight;
+    private double longRttNanos;
+    private int samples;
+
+    public GradientConcurrencyLimit(String name, AdaptiveConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = clamp(properties.getInitialLimit());
+        this.rejected = Counter.builder("chat.concurrency.rejected").tag("type", name).register(meterRegistry);
+        Gauge.builder("chat.concurrency.limit", this, GradientConcurrencyLimit::getLimit)
+                .tag("type", name)
+                .register(meterRegistry);
+        Gauge.builder("chat.concurrency.in_flight", this, GradientConcurrencyLimit::getInFlight)
+                .tag("type", name)
+                .register(meterRegistry);
+        Gauge.builder("chat.concurrency.long_rtt", this, GradientConcurrencyLimit::longRttMillis)
+                .tag("type", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 한도 안이면 자리를 차지하고 true. 반드시 {@link #release()}로 돌려줘야 한다.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected.increment();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release() {
+        if (inFlight > 0) inFlight--;
+    }
+
+    /**
+     * 업스트림 호출 한 건의 지연. 성공한 호출만 넘기고, 실패는 {@link #onDrop()}으로 넘긴다.
+     */
+    public synchronized void onSample(long rttNanos) {
+        if (rttNanos <= 0) return;
+
+        if (samples < WARMUP_SAMPLES) {
+            samples++;
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+        } else {
+            double factor = 2.0 / (Math.max(properties.getLongWindow(), 1) + 1);
+            longRttNanos = longRttNanos * (1 - factor) + rttNanos * factor;
+        }
+        // 지연이 크게 줄었으면 장기 평균이 따라오기를 기다리지 않고 끌어내려 한도를 바로 키울 수 있게 한다.
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        if (inFlight < limit / 2) return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRttNanos / rttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double smoothing = properties.getSmoothing();
+        limit = clamp(limit * (1 - smoothing) + target * smoothing);
+    }
+
+    /**
+     * 업스트림 호출 한 건의 실패. 업스트림이 타임아웃이나 5xx로만 답하면 지연 표본이 생기지 않으므로,
+     * 실패마다 한도를 줄여 받아들이는 요청 수를 최소 한도까지 내린다.
+     */
+    public synchronized void onDrop() {
+        limit = clamp(limit * properties.getBackoffRatio());
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized double longRttMillis() {
+        return longRttNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private double clamp(double value) {
+        int min = Math.max(properties.getMinLimit(), 1);
+        return Math.max(min, Math.min(Math.max(properties.getMaxLimit(), min), value));
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.chatbot.global.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 노드 로컬 토큰 버킷으로 요청을 판정하고, 소비량은 주기적으로 Redis에 모아 다른 노드와 맞춘다.
+ * 요청 경로에는 네트워크 호출이 없으며, Redis 장애 시에는 로컬 버킷만으로 계속 판정한다.
+ *
+ * 버킷은 GCRA 형태(다음 토큰이 생기는 이론상 시각 하나)로 표현해 AtomicLong CAS 한 번으로 갱신한다.
+ * 용량은 limit, 보충 속도는 limit / windowSeconds 이다.
+ */
+@Slf4j
+@Component
+public class LocalFirstRateLimiter implements RateLimiter {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
+    private final Cache<String, Bucket> buckets;
+    private final int nodeShard;
+    private final Counter syncSuccess;
+    private final Counter syncFailure;
+    private volatile boolean degraded;
+    private ScheduledExecutorService scheduler;
+
+    public LocalFirstRateLimiter(StringRedisTemplate redisTemplate,
+                                 RateLimitProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalFirst().getMaxIdentifiers())
+                .expireAfterAccess(Duration.ofSeconds(properties.getWindowSeconds() * 2L))
+                .build();
+        // 노드마다 다른 샤드에 쓰도록 해 한 식별자의 쓰기가 여러 키로 분산되게 한다.
+        this.nodeShard = ThreadLocalRandom.current().nextInt(shardCount());
+
+        this.syncSuccess = Counter.builder("rate_limit.sync").tag("result", "success").register(meterRegistry);
+        this.syncFailure = Counter.builder("rate_limit.sync").tag("result", "failure").register(meterRegistry);
+        Gauge.builder("rate_limit.local.degraded", this, limiter -> limiter.degraded ? 1 : 0)
+                .description("Redis 동기화 실패로 로컬 판정만 하는 중이면 1")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled() || properties.getMode() != RateLimitProperties.Mode.LOCAL_FIRST) return;
+
+        long intervalMillis = Math.max(properties.getLocalFirst().getSyncInterval().toMillis(), 10);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rate-limit-sync-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::synchronize, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public RateLimitDecision checkRateLimit(String identifier) {
+        if (!properties.isEnabled()) return null;
+
+        long intervalNanos = emissionIntervalNanos();
+        long toleranceNanos = toleranceNanos();
+        long result = buckets.get(identifier, key -> new Bucket())
+                .tryAcquire(System.nanoTime(), intervalNanos, toleranceNanos);
+        if (result < 0) {
+            int retryAfter = (int) Math.max(1, toSeconds(-result));
+            throw new RateLimitException(properties.getLimit(), properties.getWindowSeconds(), retryAfter,
+                    (int) toSeconds(toleranceNanos - result - intervalNanos));
+        }
+        int remaining = (int) ((toleranceNanos - result) / intervalNanos);
+        return new RateLimitDecision(properties.getLimit(), remaining, (int) toSeconds(result));
+    }
+
+    /**
+     * 동기화 스레드에서만 호출된다. 모든 활성 식별자를 한 번의 파이프라인으로 처리한다.
+     */
+    void synchronize() {
+        long window = Instant.now().getEpochSecond() / properties.getWindowSeconds();
+        List<String> identifiers = new ArrayList<>();
+        List<Bucket> active = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+
+        buckets.asMap().forEach((identifier, bucket) -> {
+            long delta = bucket.unsynced.sumThenReset();
+            if (bucket.window != window) {
+                if (delta == 0) return;
+                bucket.window = window;
+                bucket.ownCount = 0;
+                bucket.remoteSeen = 0;
+            }
+            bucket.ownCount += delta;
+            identifiers.add(identifier);
+            active.add(bucket);
+            deltas.add(delta);
+        });
+        if (active.isEmpty()) return;
+
+        int shards = shardCount();
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    @SuppressWarnings("unchecked")
+                    RedisOperations<String, String> stringOps = (RedisOperations<String, String>) operations;
+                    for (int i = 0; i < active.size(); i++) {
+                        String identifier = identifiers.get(i);
+                        if (deltas.get(i) > 0) {
+                            String ownKey = shardKey(identifier, window, nodeShard);
+                            stringOps.opsForValue().increment(ownKey, deltas.get(i));
+                            stringOps.expire(ownKey, properties.getWindowSeconds() + 10L, TimeUnit.SECONDS);
+                        }
+                        for (int shard = 0; shard < shards; shard++) {
+                            stringOps.opsForValue().get(shardKey(identifier, window, shard));
+                        }
+                    }
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            // 보내지 못한 소비량은 되돌려 두었다가 Redis가 복구되면 함께 반영한다.
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).unsynced.add(deltas.get(i));
+                active.get(i).ownCount -= deltas.get(i);
+            }
+            syncFailure.increment();
+            if (!degraded) {
+                degraded = true;
+                log.warn("Rate limit 동기화 실패, 로컬 판정으로 전환: error={}", e.getMessage());
+            }
+            return;
+        }
+
+        long now = System.nanoTime();
+        long intervalNanos = emissionIntervalNanos();
+        long toleranceNanos = toleranceNanos();
+        int index = 0;
+        for (int i = 0; i < active.size(); i++) {
+            if (deltas.get(i) > 0) index += 2;
+
+            long total = 0;
+            for (int shard = 0; shard < shards; shard++) {
+                Object value = results.get(index++);
+                if (value != null) total += Long.parseLong(value.toString());
+            }
+
+            // 전체 소비량 중 다른 노드가 새로 쓴 만큼 로컬 버킷에서도 차감한다.
+            Bucket bucket = active.get(i);
+            long remote = Math.max(0, total - bucket.ownCount);
+            if (remote > bucket.remoteSeen) {
+                bucket.consumeRemote(remote - bucket.remoteSeen, now, intervalNanos, toleranceNanos);
+                bucket.remoteSeen = remote;
+            }
+        }
+
+        syncSuccess.increment();
+        if (degraded) {
+            degraded = false;
+            log.info("Rate limit 동기화 복구");
+        }
+    }
+
+    private String shardKey(String identifier, long window, int shard) {
+        return properties.getKeyPrefix() + ":lf:" + identifier + ":" + window + ":" + shard;
+    }
+
+    private int shardCount() {
+        return Math.max(properties.getLocalFirst().getShards(), 1);
+    }
+
+    private long emissionIntervalNanos() {
+        return toleranceNanos() / Math.max(properties.getLimit(), 1);
+    }
+
+    private long toleranceNanos() {
+        return TimeUnit.SECONDS.toNanos(properties.getWindowSeconds());
+    }
+
+    private static long toSeconds(long nanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            if (scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
+                synchronize();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static final class Bucket {
+
+        // 다음 요청이 허용되는 이론상 시각(nanoTime 기준)
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder unsynced = new LongAdder();
+
+        // 아래 필드는 동기화 스레드만 읽고 쓴다.
+        private long window = -1;
+        private long ownCount;
+        private long remoteSeen;
+
+        /**
+         * 허용되면 버킷이 다시 가득 찰 때까지의 나노초(양수)를, 거부되면 다음 토큰까지 남은 나노초를 음수로 반환한다.
+         */
+        long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - toleranceNanos;
+                if (excess > 0) return -excess;
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    unsynced.increment();
+                    return next - now;
+                }
+            }
+        }
+
+        void consumeRemote(long count, long now, long intervalNanos, long toleranceNanos) {
+            // 다른 노드 소비량으로 버킷이 비는 것까지만 반영하고, 그 이상 대기 시간을 늘리지는 않는다.
+            theoreticalArrival.updateAndGet(current ->
+                    Math.min(Math.max(current, now) + count * intervalNanos, now + toleranceNanos));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.chatbot.global.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인증 전 단계의 IP별 실패 제한. 노드 로컬 GCRA 버킷으로 판정해 Redis나 DB를 거치지 않는다.
+ * 인증에 실패한 요청만 소비하므로 정상 사용자는 영향을 받지 않는다.
+ */
+@Component
+public class PreAuthLimiter {
+
+    private final RateLimitProperties.PreAuth properties;
+    private final Cache<String, AtomicLong> buckets;
+    private final Counter throttled;
+
+    public PreAuthLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getPreAuth();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(this.properties.getMaxAddresses())
+                .expireAfterAccess(Duration.ofSeconds(Math.max(this.properties.getWindowSeconds(), 1)))
+                .build();
+        this.throttled = Counter.builder("auth.pre_auth.throttled").register(meterRegistry);
+    }
+
+    /**
+     * 다음 실패가 한도를 넘는 IP면 true.
+     */
+    public boolean isThrottled(String address) {
+        if (!properties.isEnabled()) return false;
+
+        AtomicLong bucket = buckets.getIfPresent(address);
+        if (bucket == null) return false;
+        long now = System.nanoTime();
+        return Math.max(bucket.get(), now) + intervalNanos() - now > toleranceNanos();
+    }
+
+    public void recordFailure(String address) {
+        if (!properties.isEnabled()) return;
+
+        long now = System.nanoTime();
+        long interval = intervalNanos();
+        long tolerance = toleranceNanos();
+        // 차단된 뒤에도 계속 시도하면 한 윈도우 이상 밀리지 않도록 상한을 둔다.
+        buckets.get(address, key -> new AtomicLong(Long.MIN_VALUE))
+                .updateAndGet(current -> Math.min(Math.max(current, now) + interval, now + tolerance + interval));
+    }
+
+    public int retryAfterSeconds(String address) {
+        AtomicLong bucket = buckets.getIfPresent(address);
+        if (bucket == null) return 1;
+        long waitNanos = bucket.get() + intervalNanos() - System.nanoTime() - toleranceNanos();
+        return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    public void recordThrottled() {
+        throttled.increment();
+    }
+
+    private long intervalNanos() {
+        return toleranceNanos() / Math.max(properties.getLimit(), 1);
+    }
+
+    private long toleranceNanos() {
+        return TimeUnit.SECONDS.toNanos(Math.max(properties.getWindowSeconds(), 1));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.chatbot.global.ratelimit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 허용된 요청의 한도 상태. 여러 한도를 함께 평가한 경우 남은 횟수가 가장 적은 한도 기준이다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RateLimitDecision {
+
+    private final int limit;
+    private final int remaining;
+
+    // 한도가 완전히 회복되기까지 남은 시간 (초)
+    private final int resetSeconds;
+}
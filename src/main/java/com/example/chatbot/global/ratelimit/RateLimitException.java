@@ -8,11 +8,17 @@ public class RateLimitException extends RuntimeException {
     private final int limit;
     private final int windowSeconds;
     private final int retryAfterSeconds;
+    private final int resetSeconds;
 
     public RateLimitException(int limit, int windowSeconds, int retryAfterSeconds) {
+        this(limit, windowSeconds, retryAfterSeconds, retryAfterSeconds);
+    }
+
+    public RateLimitException(int limit, int windowSeconds, int retryAfterSeconds, int resetSeconds) {
         super("Rate limit exceeded");
         this.limit = limit;
         this.windowSeconds = windowSeconds;
         this.retryAfterSeconds = retryAfterSeconds;
+        this.resetSeconds = resetSeconds;
     }
 }
@@ -1,30 +1,62 @@
 package com.example.chatbot.global.ratelimit;
 
 import com.example.chatbot.dto.common.ApiErrorResponse;
+import com.example.chatbot.global.auth.ApiKeyAuthFilter;
+import com.example.chatbot.global.auth.ApiKeyHasher;
+import com.example.chatbot.global.auth.ApiKeyIdentity;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final RedisRateLimitService rateLimitService;
+    private static final String ALREADY_FILTERED_ATTR = RateLimitFilter.class.getName() + ALREADY_FILTERED_SUFFIX;
+
+    // 헤더 값으로 자주 쓰이는 작은 정수는 문자열을 미리 만들어 둔다.
+    private static final String[] SMALL_NUMBERS = new String[4096];
+
+    static {
+        for (int i = 0; i < SMALL_NUMBERS.length; i++) {
+            SMALL_NUMBERS[i] = String.valueOf(i);
+        }
+    }
+
+    private final RedisRateLimitService redisRateLimitService;
+    private final LocalFirstRateLimiter localFirstRateLimiter;
+    private final RateLimitProperties properties;
     private final ObjectMapper objectMapper;
     private final RateLimitResponseFactory rateLimitResponseFactory;
+    private final Timer allowedChecks;
+    private final Timer rejectedChecks;
+
+    public RateLimitFilter(RedisRateLimitService redisRateLimitService,
+                           LocalFirstRateLimiter localFirstRateLimiter,
+                           RateLimitProperties properties,
+                           ObjectMapper objectMapper,
+                           RateLimitResponseFactory rateLimitResponseFactory,
+                           MeterRegistry meterRegistry) {
+        this.redisRateLimitService = redisRateLimitService;
+        this.localFirstRateLimiter = localFirstRateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.rateLimitResponseFactory = rateLimitResponseFactory;
+        this.allowedChecks = checkTimer(properties, "allowed", meterRegistry);
+        this.rejectedChecks = checkTimer(properties, "rejected", meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -38,38 +70,73 @@ public class RateLimitFilter extends OncePerRequestFilter {
             return;
         }
 
-        String apiKey = request.getHeader("X-API-Key");
-        if (apiKey == null) {
+        String identifier = resolveIdentifier(request);
+        if (identifier == null) {
             filterChain.doFilter(request, response);
             return;
         }
+        if (log.isDebugEnabled()) {
+            log.debug("RateLimit Check: uri={}, keyHashPrefix={}", path, identifier.substring(4, 12));
+        }
 
-        String identifier = "key:" + hashApiKey(apiKey);
-        log.debug("RateLimit Check: uri={}, keyHashPrefix={}", path, identifier.substring(4, 12));
-
+        RateLimitDecision decision;
+        long started = System.nanoTime();
         try {
-            rateLimitService.checkRateLimit(identifier);
-            filterChain.doFilter(request, response);
+            decision = rateLimiter().checkRateLimit(identifier);
+            allowedChecks.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         } catch (RateLimitException e) {
+            rejectedChecks.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            setRateLimitHeaders(response, e.getLimit(), 0, e.getResetSeconds());
             response.setStatus(429);
-            response.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            response.setHeader("Retry-After", toHeaderValue(e.getRetryAfterSeconds()));
             response.setContentType("application/json;charset=UTF-8");
             ApiErrorResponse body = rateLimitResponseFactory.createBody(e);
             response.getWriter().write(objectMapper.writeValueAsString(body));
+            return;
+        }
+
+        if (decision != null) {
+            setRateLimitHeaders(response, decision.getLimit(), decision.getRemaining(), decision.getResetSeconds());
         }
+        filterChain.doFilter(request, response);
     }
 
-    private String hashApiKey(String apiKey) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashed = digest.digest(apiKey.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder();
-            for (byte value : hashed) {
-                hex.append(String.format("%02x", value));
-            }
-            return hex.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 algorithm unavailable", e);
+    // 인증 필터가 남긴 결과를 우선 사용하고, 없을 때만 키를 직접 해시한다.
+    private String resolveIdentifier(HttpServletRequest request) {
+        if (request.getAttribute(ApiKeyAuthFilter.API_KEY_IDENTITY_ATTR) instanceof ApiKeyIdentity identity) {
+            return identity.getRateLimitIdentifier();
         }
+        String apiKey = request.getHeader("X-API-Key");
+        return apiKey != null ? "key:" + ApiKeyHasher.sha256Hex(apiKey) : null;
+    }
+
+    private void setRateLimitHeaders(HttpServletResponse response, int limit, int remaining, int resetSeconds) {
+        response.setHeader("X-RateLimit-Limit", toHeaderValue(limit));
+        response.setHeader("X-RateLimit-Remaining", toHeaderValue(remaining));
+        response.setHeader("X-RateLimit-Reset", toHeaderValue(resetSeconds));
+    }
+
+    private static String toHeaderValue(int value) {
+        return value >= 0 && value < SMALL_NUMBERS.length ? SMALL_NUMBERS[value] : String.valueOf(value);
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTR;
+    }
+
+    private static Timer checkTimer(RateLimitProperties properties, String result, MeterRegistry meterRegistry) {
+        return Timer.builder("ratelimit.check")
+                .tags("mode", properties.getMode().name(), "result", result)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(meterRegistry);
+    }
+
+    private RateLimiter rateLimiter() {
+        return properties.getMode() == RateLimitProperties.Mode.LOCAL_FIRST
+                ? localFirstRateLimiter
+                : redisRateLimitService;
     }
 }
@@ -5,6 +5,10 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 @Component
@@ -13,12 +17,65 @@ public class RateLimitProperties {
 
     private boolean enabled = true;
 
+    // REDIS: 요청마다 Redis에서 판정, LOCAL_FIRST: 노드 로컬 버킷으로 판정하고 주기적으로 Redis와 맞춘다.
+    private Mode mode = Mode.REDIS;
+
     // 윈도우 내 최대 허용 요청 수
     private int limit = 30;
 
-    // 고정 윈도우 크기 (초 단위)
+    // 한도가 적용되는 기간 (초 단위)
     private int windowSeconds = 60;
 
+    // 기본 한도와 함께 평가할 추가 한도 (예: 초당 버스트). 모든 한도를 만족해야 허용되며 REDIS 모드에만 적용된다.
+    private List<Layer> layers = new ArrayList<>();
+
     // Redis key prefix
     private String keyPrefix = "rate_limit";
+
+    private LocalFirst localFirst = new LocalFirst();
+
+    private PreAuth preAuth = new PreAuth();
+
+    @Getter
+    @Setter
+    public static class Layer {
+
+        private int limit;
+
+        private int windowSeconds;
+    }
+
+    @Getter
+    @Setter
+    public static class PreAuth {
+
+        // 클라이언트 IP별 인증 실패(키 없음/잘못된 키) 허용 횟수. 초과한 IP는 캐시된 키만 인증된다.
+        private boolean enabled = true;
+
+        private int limit = 20;
+
+        private int windowSeconds = 60;
+
+        // 로컬에 유지할 최대 IP 수
+        private long maxAddresses = 100_000;
+    }
+
+    public enum Mode {
+        REDIS,
+        LOCAL_FIRST
+    }
+
+    @Getter
+    @Setter
+    public static class LocalFirst {
+
+        // 로컬 소비량을 Redis에 반영하고 다른 노드의 소비량을 가져오는 주기
+        private Duration syncInterval = Duration.ofSeconds(1);
+
+        // 식별자별 카운터를 나누어 저장할 Redis 키 개수 (한 키가 하나의 슬롯에 몰리지 않도록)
+        private int shards = 4;
+
+        // 로컬에 유지할 최대 식별자 수
+        private long maxIdentifiers = 100_000;
+    }
 }
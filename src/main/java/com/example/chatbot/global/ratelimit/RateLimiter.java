@@ -0,0 +1,12 @@
+package com.example.chatbot.global.ratelimit;
+
+/**
+ * 식별자 단위 요청 제한. 한도를 넘으면 {@link RateLimitException}을 던진다.
+ */
+public interface RateLimiter {
+
+    /**
+     * @return 허용된 요청의 한도 상태, 제한이 비활성화되어 있거나 판정할 수 없으면 null
+     */
+    RateLimitDecision checkRateLimit(String identifier);
+}
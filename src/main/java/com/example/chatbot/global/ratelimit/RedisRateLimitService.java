@@ -1,56 +1,123 @@
 package com.example.chatbot.global.ratelimit;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataAccessException;
-import org.springframework.data.redis.core.RedisOperations;
-import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.lang.NonNull;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+/**
+ * 모든 한도를 Redis 서버 측 GCRA 스크립트 한 번으로 판정한다.
+ * 트랜잭션 전용 커넥션 없이 공유 커넥션에서 EVALSHA 한 번으로 끝나며, 윈도우 경계에서 한도의 두 배가 허용되지 않는다.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class RedisRateLimitService {
+public class RedisRateLimitService implements RateLimiter {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GCRA_SCRIPT = createScript();
+
+    private static final int MAX_CACHED_IDENTIFIERS = 100_000;
 
     private final StringRedisTemplate redisTemplate;
     private final RateLimitProperties properties;
 
-    public void checkRateLimit(String identifier) {
-        if (!properties.isEnabled()) return;
-
-        long now = Instant.now().getEpochSecond();
-        long windowIndex = now / properties.getWindowSeconds();
-        String key = String.format("%s:%s:%d", properties.getKeyPrefix(), identifier, windowIndex);
-
-        List<Object> txResults = redisTemplate.execute(new SessionCallback<List<Object>>() {
-            @Override
-            public <K, V> List<Object> execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
-                @SuppressWarnings("unchecked")
-                RedisOperations<String, String> stringOps = (RedisOperations<String, String>) operations;
-                stringOps.multi();
-                stringOps.opsForValue().increment(key);
-                stringOps.expire(key, properties.getWindowSeconds() + 10, TimeUnit.SECONDS);
-                return stringOps.exec();
-            }
-        });
-
-        if (txResults == null || txResults.isEmpty()) {
-            log.error("Redis 트랜잭션 실패: key={}", key);
-            return;
+    // 한도 설정은 실행 중 바뀌지 않으므로 층 목록과 스크립트 인자는 한 번만 만든다.
+    private final List<RateLimitProperties.Layer> layers;
+    private final Object[] scriptArgs;
+    private final Cache<String, List<String>> keysByIdentifier;
+    private final Function<String, List<String>> keyBuilder = this::buildKeys;
+
+    public RedisRateLimitService(StringRedisTemplate redisTemplate, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.layers = layers(properties);
+        this.scriptArgs = scriptArgs(layers);
+        int longestWindow = layers.stream().mapToInt(RateLimitProperties.Layer::getWindowSeconds).max().orElse(60);
+        this.keysByIdentifier = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_IDENTIFIERS)
+                .expireAfterAccess(Duration.ofSeconds(Math.max(longestWindow, 60)))
+                .build();
+    }
+
+    @Override
+    public RateLimitDecision checkRateLimit(String identifier) {
+        if (!properties.isEnabled()) return null;
+
+        List<String> keys = keysByIdentifier.get(identifier, keyBuilder);
+        List<?> result = redisTemplate.execute(GCRA_SCRIPT, keys, scriptArgs);
+        if (result == null || result.size() < 5) {
+            log.error("Rate limit 스크립트 실행 실패: identifier={}", identifier);
+            return null;
         }
 
-        long count = (Long) txResults.get(0);
+        RateLimitProperties.Layer selected = layers.get(toInt(result.get(1)));
+        int resetSeconds = toSeconds(toLong(result.get(3)));
+        if (toLong(result.get(0)) == 0) {
+            int retryAfter = Math.max(1, toSeconds(toLong(result.get(4))));
+            throw new RateLimitException(selected.getLimit(), selected.getWindowSeconds(), retryAfter, resetSeconds);
+        }
+        return new RateLimitDecision(selected.getLimit(), toInt(result.get(2)), resetSeconds);
+    }
 
-        if (count > properties.getLimit()) {
-            long windowEnd = (windowIndex + 1) * properties.getWindowSeconds();
-            int retryAfter = Math.max(1, (int) (windowEnd - now));
-            throw new RateLimitException(properties.getLimit(), properties.getWindowSeconds(), retryAfter);
+    // 같은 식별자의 한도 키는 해시 태그로 묶어 클러스터에서도 같은 슬롯에 둔다.
+    private List<String> buildKeys(String identifier) {
+        String prefix = properties.getKeyPrefix() + ":{" + identifier + "}:";
+        List<String> keys = new ArrayList<>(layers.size());
+        for (RateLimitProperties.Layer layer : layers) {
+            keys.add(prefix + layer.getWindowSeconds() + "s");
         }
+        return List.copyOf(keys);
+    }
+
+    private static List<RateLimitProperties.Layer> layers(RateLimitProperties properties) {
+        List<RateLimitProperties.Layer> layers = new ArrayList<>(properties.getLayers().size() + 1);
+        RateLimitProperties.Layer primary = new RateLimitProperties.Layer();
+        primary.setLimit(properties.getLimit());
+        primary.setWindowSeconds(properties.getWindowSeconds());
+        layers.add(primary);
+        layers.addAll(properties.getLayers());
+        return List.copyOf(layers);
+    }
+
+    private static Object[] scriptArgs(List<RateLimitProperties.Layer> layers) {
+        Object[] args = new Object[layers.size() * 2];
+        for (int i = 0; i < layers.size(); i++) {
+            RateLimitProperties.Layer layer = layers.get(i);
+            long periodMicros = TimeUnit.SECONDS.toMicros(layer.getWindowSeconds());
+            args[i * 2] = String.valueOf(periodMicros / Math.max(layer.getLimit(), 1));
+            args[i * 2 + 1] = String.valueOf(periodMicros);
+        }
+        return args;
+    }
+
+    private static int toSeconds(long millis) {
+        return (int) ((millis + 999) / 1000);
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+
+    private static int toInt(Object value) {
+        return (int) toLong(value);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> createScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/rate_limit_gcra.lua")));
+        script.setResultType(List.class);
+        return script;
     }
 }
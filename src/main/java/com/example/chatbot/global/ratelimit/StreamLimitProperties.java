@@ -0,0 +1,30 @@
+package com.example.chatbot.global.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.stream-limit")
+public class StreamLimitProperties {
+
+    private boolean enabled = true;
+
+    // API Key(사용자)별 동시에 열 수 있는 최대 스트림 수 (전체 노드 합산)
+    private int maxConcurrentStreams = 5;
+
+    // 노드가 죽어도 퍼밋이 회수되도록 하는 임대 기간과 갱신 주기
+    private Duration leaseTtl = Duration.ofSeconds(30);
+    private Duration renewInterval = Duration.ofSeconds(10);
+
+    // 반납된 퍼밋을 노드에 남겨 두는 시간. 그 사이 같은 키의 요청은 Redis 호출 없이 재사용한다.
+    private Duration spareLinger = Duration.ofSeconds(2);
+
+    // Redis key prefix
+    private String keyPrefix = "stream_permits";
+}
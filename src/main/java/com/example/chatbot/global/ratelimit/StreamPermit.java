@@ -0,0 +1,32 @@
+package com.example.chatbot.global.ratelimit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 스트림 하나가 점유한 동시 실행 퍼밋. 완료/에러/타임아웃/연결 끊김 어느 경로에서 여러 번 호출해도 한 번만 반납된다.
+ */
+public class StreamPermit {
+
+    static final StreamPermit NONE = new StreamPermit(null, null, null);
+
+    private final StreamPermitService service;
+    private final Long userId;
+    // Redis에 임대된 퍼밋 ID, Redis 장애로 로컬에서만 허용한 경우 null
+    private final String leaseId;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    StreamPermit(StreamPermitService service, Long userId, String leaseId) {
+        this.service = service;
+        this.userId = userId;
+        this.leaseId = leaseId;
+    }
+
+    String getLeaseId() {
+        return leaseId;
+    }
+
+    public void release() {
+        if (service == null || !released.compareAndSet(false, true)) return;
+        service.release(userId, leaseId);
+    }
+}
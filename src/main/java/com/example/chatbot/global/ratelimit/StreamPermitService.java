@@ -0,0 +1,273 @@
+package com.example.chatbot.global.ratelimit;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * API Key(사용자)별 동시 스트림 수를 전체 노드에 걸쳐 제한한다.
+ * 퍼밋은 Redis ZSET에 만료 시각과 함께 임대되고, 노드가 살아 있는 동안 주기적으로 갱신된다.
+ * 반납된 퍼밋은 잠시 노드에 남겨 두어 같은 키의 다음 요청이 Redis 호출 없이 가져가도록 한다.
+ */
+@Slf4j
+@Service
+public class StreamPermitService {
+
+    // 퍼밋이 없는 사용자 상태를 정리하기 전 최소 유휴 시간
+    private static final long IDLE_EVICTION_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = createScript();
+
+    private final StringRedisTemplate redisTemplate;
+    private final StreamLimitProperties properties;
+    private final Map<Long, UserPermits> permits = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final Counter spareHits;
+    private final Counter redisGrants;
+    private final Counter localGrants;
+    private final Counter rejections;
+    private ScheduledExecutorService scheduler;
+    private long lastRenewedAt;
+
+    public StreamPermitService(StringRedisTemplate redisTemplate,
+                               StreamLimitProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.spareHits = Counter.builder("stream_permits.acquisitions").tag("result", "spare").register(meterRegistry);
+        this.redisGrants = Counter.builder("stream_permits.acquisitions").tag("result", "redis").register(meterRegistry);
+        this.localGrants = Counter.builder("stream_permits.acquisitions").tag("result", "local_only").register(meterRegistry);
+        this.rejections = Counter.builder("stream_permits.acquisitions").tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("stream_permits.active", activeStreams, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) return;
+
+        long tickMillis = Math.max(Math.min(properties.getSpareLinger().toMillis(), properties.getRenewInterval().toMillis()), 100);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stream-permit-heartbeat-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 퍼밋을 얻지 못하면 {@link ErrorCode#CONCURRENT_STREAM_LIMIT_EXCEEDED}를 던진다.
+     */
+    public StreamPermit acquire(Long userId) {
+        if (!properties.isEnabled()) return StreamPermit.NONE;
+
+        int limit = Math.max(properties.getMaxConcurrentStreams(), 1);
+        UserPermits user = permits.computeIfAbsent(userId, id -> new UserPermits());
+        user.touch();
+
+        // 이 노드가 들고 있는 여분 퍼밋이 있으면 Redis를 거치지 않는다.
+        Spare spare = user.spares.pollFirst();
+        if (spare != null) {
+            spareHits.increment();
+            return grant(userId, user, spare.leaseId);
+        }
+        if (user.active.get() >= limit) {
+            throw reject(userId, limit);
+        }
+
+        String leaseId = nodeId + ":" + sequence.incrementAndGet();
+        String key = key(userId);
+        long leaseMillis = properties.getLeaseTtl().toMillis();
+        Long granted;
+        try {
+            granted = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(key),
+                    leaseId, String.valueOf(System.currentTimeMillis()), String.valueOf(leaseMillis), String.valueOf(limit));
+        } catch (DataAccessException e) {
+            // Redis 장애 시에는 이 노드의 활성 스트림 수만으로 제한한다.
+            log.warn("스트림 퍼밋 임대 실패, 로컬 제한으로 진행: userId={}, error={}", userId, e.getMessage());
+            localGrants.increment();
+            return grant(userId, user, null);
+        }
+
+        if (granted == null || granted == 0) {
+            throw reject(userId, limit);
+        }
+        redisGrants.increment();
+        user.leased.add(leaseId);
+        return grant(userId, user, leaseId);
+    }
+
+    /**
+     * {@link StreamPermit#release()}에서 한 번만 호출된다.
+     */
+    void release(Long userId, String leaseId) {
+        activeStreams.decrementAndGet();
+        UserPermits user = permits.get(userId);
+        if (user == null) return;
+
+        user.active.decrementAndGet();
+        user.touch();
+        if (leaseId != null && user.leased.contains(leaseId)) {
+            user.spares.addLast(new Spare(leaseId, System.currentTimeMillis()));
+        }
+    }
+
+    private StreamPermit grant(Long userId, UserPermits user, String leaseId) {
+        user.active.incrementAndGet();
+        activeStreams.incrementAndGet();
+        return new StreamPermit(this, userId, leaseId);
+    }
+
+    private AppException reject(Long userId, int limit) {
+        rejections.increment();
+        log.warn("동시 스트림 제한 초과: userId={}, limit={}", userId, limit);
+        return new AppException(ErrorCode.CONCURRENT_STREAM_LIMIT_EXCEEDED);
+    }
+
+    /**
+     * 하트비트 스레드에서만 호출된다. 오래된 여분 퍼밋을 반납하고, 주기가 되면 남은 임대를 갱신한다.
+     */
+    void heartbeat() {
+        long now = System.currentTimeMillis();
+        long lingerMillis = properties.getSpareLinger().toMillis();
+        boolean renew = now - lastRenewedAt >= properties.getRenewInterval().toMillis();
+
+        Map<String, List<String>> expiredSpares = new HashMap<>();
+        Map<String, List<String>> renewals = new HashMap<>();
+        permits.forEach((userId, user) -> {
+            List<String> expired = new ArrayList<>();
+            Spare spare;
+            while ((spare = user.spares.peekFirst()) != null && now - spare.releasedAt >= lingerMillis) {
+                // 동시에 acquire가 가져갔다면 poll 결과가 달라지므로 그 퍼밋은 건드리지 않는다.
+                if (user.spares.remove(spare)) {
+                    user.leased.remove(spare.leaseId);
+                    expired.add(spare.leaseId);
+                }
+            }
+            if (!expired.isEmpty()) expiredSpares.put(key(userId), expired);
+            if (renew && !user.leased.isEmpty()) renewals.put(key(userId), new ArrayList<>(user.leased));
+        });
+        permits.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+
+        if (expiredSpares.isEmpty() && renewals.isEmpty()) {
+            if (renew) lastRenewedAt = now;
+            return;
+        }
+
+        long leaseMillis = properties.getLeaseTtl().toMillis();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    @SuppressWarnings("unchecked")
+                    RedisOperations<String, String> stringOps = (RedisOperations<String, String>) operations;
+                    expiredSpares.forEach((key, leaseIds) -> stringOps.opsForZSet().remove(key, leaseIds.toArray()));
+                    renewals.forEach((key, leaseIds) -> {
+                        // 만료되어 정리된 임대도 다시 등록해 Redis 재시작 후에도 점유가 반영되게 한다.
+                        for (String leaseId : leaseIds) {
+                            stringOps.opsForZSet().add(key, leaseId, now + leaseMillis);
+                        }
+                        stringOps.expire(key, leaseMillis * 2, TimeUnit.MILLISECONDS);
+                    });
+                    return null;
+                }
+            });
+            if (renew) lastRenewedAt = now;
+        } catch (RuntimeException e) {
+            log.warn("스트림 퍼밋 갱신 실패: users={}, error={}", Math.max(expiredSpares.size(), renewals.size()), e.getMessage());
+        }
+    }
+
+    private String key(Long userId) {
+        return properties.getKeyPrefix() + ":" + userId;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+
+        // 종료하는 노드의 임대는 만료를 기다리지 않고 바로 반납한다.
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                    @SuppressWarnings("unchecked")
+                    RedisOperations<String, String> stringOps = (RedisOperations<String, String>) operations;
+                    permits.forEach((userId, user) -> {
+                        if (!user.leased.isEmpty()) {
+                            stringOps.opsForZSet().remove(key(userId), user.leased.toArray());
+                        }
+                    });
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("스트림 퍼밋 반납 실패: error={}", e.getMessage());
+        }
+    }
+
+    private static RedisScript<Long> createScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/stream_permit_acquire.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private static final class UserPermits {
+
+        private final AtomicInteger active = new AtomicInteger();
+        // 이 노드가 Redis에 임대 중인 퍼밋 (사용 중 + 여분)
+        private final Set<String> leased = ConcurrentHashMap.newKeySet();
+        private final ConcurrentLinkedDeque<Spare> spares = new ConcurrentLinkedDeque<>();
+        private volatile long lastTouchedAt = System.currentTimeMillis();
+
+        void touch() {
+            lastTouchedAt = System.currentTimeMillis();
+        }
+
+        boolean isIdle(long now) {
+            return active.get() == 0 && leased.isEmpty() && now - lastTouchedAt >= IDLE_EVICTION_MILLIS;
+        }
+    }
+
+    private static final class Spare {
+
+        private final String leaseId;
+        private final long releasedAt;
+
+        Spare(String leaseId, long releasedAt) {
+            this.leaseId = leaseId;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.chatbot.repository;
+
+public interface ApiKeyView {
+
+    Long getId();
+
+    String getApiKey();
+}
@@ -1,12 +1,26 @@
 package com.example.chatbot.repository;
 
 import com.example.chatbot.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByApiKey(String apiKey);
+
+    @Query("SELECT u.id FROM User u WHERE u.apiKey = :apiKey")
+    Optional<Long> findIdByApiKey(@Param("apiKey") String apiKey);
+
+    @Query("SELECT u.id AS id, u.apiKey AS apiKey FROM User u WHERE u.id > :afterId AND u.apiKey IS NOT NULL ORDER BY u.id")
+    List<ApiKeyView> findApiKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.apiKey AS apiKey FROM User u WHERE u.updatedAt >= :since AND u.apiKey IS NOT NULL")
+    List<ApiKeyView> findApiKeysUpdatedSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,61 @@
+package com.example.chatbot.runner;
+
+import com.example.chatbot.config.OpenAiConfig;
+import com.example.chatbot.upstream.UpstreamEndpoint;
+import com.example.chatbot.upstream.UpstreamEndpoints;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 트래픽을 받기 전에 업스트림 커넥션을 미리 맺어 첫 요청들이 DNS 조회, TCP/TLS 핸드셰이크를 기다리지 않게 한다.
+ * 토큰을 쓰지 않는 모델 목록 조회(GET /v1/models)만 보내며, 실패해도 시작을 막지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openai.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OpenAiConnectionWarmer implements ApplicationRunner {
+
+    private final OpenAiConfig openAiConfig;
+    private final UpstreamEndpoints openAiEndpoints;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // 엔드포인트마다 풀이 따로 있으므로 각각 예열한다.
+        openAiEndpoints.getEndpoints().forEach(this::warmup);
+    }
+
+    private void warmup(UpstreamEndpoint endpoint) {
+        OpenAiConfig.Warmup warmup = openAiConfig.getWarmup();
+        long started = System.nanoTime();
+        try {
+            // 이벤트 루프, DNS 리졸버, TLS 구현을 미리 초기화한다.
+            endpoint.getHttpClient().warmup().block(warmup.getTimeout());
+
+            // 동시에 보내야 풀에 커넥션이 여러 개 생긴다. h2로 협상되면 한 커넥션에 다중화된다.
+            Long succeeded = Flux.range(0, Math.max(warmup.getConnections(), 1))
+                    .flatMap(i -> endpoint.getWebClient().get()
+                            .uri("/v1/models")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .onErrorResume(e -> {
+                                log.debug("업스트림 커넥션 예열 요청 실패: {}", e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .count()
+                    .block(warmup.getTimeout());
+
+            log.info("업스트림 커넥션 예열 완료: endpoint={}, requested={}, succeeded={}, elapsedMs={}",
+                    endpoint.getName(), warmup.getConnections(), succeeded, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("업스트림 커넥션 예열 실패, 첫 요청에서 연결합니다: endpoint={}, error={}",
+                    endpoint.getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.dto.openai.ChatCompletionResult;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedCompletion {
+
+    private String content;
+
+    // 업스트림이 usage를 돌려주지 않았으면 null
+    private Integer promptTokens;
+    private Integer completionTokens;
+
+    // 원래 업스트림 호출에 걸린 시간. 캐시 적중 시 절약한 시간으로 집계한다.
+    private long upstreamMillis;
+
+    public ChatCompletionResult toResult() {
+        return new ChatCompletionResult(content, promptTokens, completionTokens);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.chatbot.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 채팅 한 턴의 단계별 지연 지표. 히스토그램 버킷을 내보내 Prometheus에서 백분위를 계산할 수 있게 한다.
+ * 태그는 모델과 호출 종류(completion/stream)뿐이라 계열 수가 설정된 모델 수에 묶인다. 사용자 ID는 태그로 쓰지 않는다.
+ * 토큰마다 지표를 갱신하지 않는다. 업스트림 호출 하나가 끝날 때 한 번씩 기록한다.
+ */
+@Component
+public class ChatMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, UpstreamMeters> upstreamMeters = new ConcurrentHashMap<>();
+    private final Timer completionDbTime;
+    private final Timer streamDbTime;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    public ChatMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.completionDbTime = dbTimer("completion");
+        this.streamDbTime = dbTimer("stream");
+        Gauge.builder("chat.streams.active", activeStreams, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public UpstreamMeters upstream(String model) {
+        return upstreamMeters.computeIfAbsent(model, UpstreamMeters::new);
+    }
+
+    public Turn completionTurn() {
+        return new Turn(completionDbTime);
+    }
+
+    public Turn streamTurn() {
+        return new Turn(streamDbTime);
+    }
+
+    /**
+     * 열린 스트림 수를 하나 늘리고, 닫을 때 호출할 콜백을 돌려준다. 여러 번 호출해도 한 번만 줄인다.
+     */
+    public Runnable openStream() {
+        activeStreams.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) {
+                activeStreams.decrementAndGet();
+            }
+        };
+    }
+
+    private Timer dbTimer(String type) {
+        return Timer.builder("chat.turn.db")
+                .description("채팅 한 턴에서 DB 조회와 저장에 쓴 시간의 합")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    /**
+     * 모델 하나의 업스트림 지표.
+     */
+    public final class UpstreamMeters {
+
+        private final Timer timeToFirstToken;
+        private final Timer completionGeneration;
+        private final Timer streamGeneration;
+        private final DistributionSummary completionTokensPerSecond;
+        private final DistributionSummary streamTokensPerSecond;
+
+        private UpstreamMeters(String model) {
+            this.timeToFirstToken = Timer.builder("chat.upstream.time_to_first_token")
+                    .tag("model", model)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(50))
+                    .maximumExpectedValue(Duration.ofSeconds(60))
+                    .register(meterRegistry);
+            this.completionGeneration = generationTimer(model, "completion");
+            this.streamGeneration = generationTimer(model, "stream");
+            this.completionTokensPerSecond = tokensPerSecond(model, "completion");
+            this.streamTokensPerSecond = tokensPerSecond(model, "stream");
+        }
+
+        /**
+         * 비스트리밍 호출. 응답 전체가 한 번에 오므로 첫 토큰 시간은 기록하지 않는다.
+         * completionTokens를 모르면 생성 시간만 기록한다.
+         */
+        public void recordCompletion(long elapsedNanos, Integer completionTokens) {
+            completionGeneration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (completionTokens != null && completionTokens > 0 && elapsedNanos > 0) {
+                completionTokensPerSecond.record(completionTokens * 1e9 / elapsedNanos);
+            }
+        }
+
+        /**
+         * 스트리밍 호출 하나의 시간을 잰다. 구독 시점에 만든다.
+         */
+        public StreamTimer startStream() {
+            return new StreamTimer(this, System.nanoTime());
+        }
+
+        private Timer generationTimer(String model, String type) {
+            return Timer.builder("chat.upstream.generation")
+                    .tags("model", model, "type", type)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(50))
+                    .maximumExpectedValue(Duration.ofMinutes(2))
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary tokensPerSecond(String model, String type) {
+            return DistributionSummary.builder("chat.upstream.tokens_per_second")
+                    .tags("model", model, "type", type)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(1000.0)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 스트리밍 호출 하나의 첫 토큰 시간, 전체 생성 시간, 초당 토큰. 업스트림 신호는 순서대로 오므로 동기화하지 않는다.
+     * 토큰마다 하는 일은 카운터 증가뿐이다.
+     */
+    public static final class StreamTimer {
+
+        private final UpstreamMeters meters;
+        private final long started;
+        private long firstTokenAt;
+        private long tokens;
+
+        private StreamTimer(UpstreamMeters meters, long started) {
+            this.meters = meters;
+            this.started = started;
+        }
+
+        public void onToken() {
+            if (tokens++ == 0) {
+                firstTokenAt = System.nanoTime();
+                meters.timeToFirstToken.record(firstTokenAt - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * 정상 종료한 호출만 기록한다. 초당 토큰은 첫 토큰 이후 구간의 생성 속도다.
+         */
+        public void complete() {
+            long now = System.nanoTime();
+            meters.streamGeneration.record(now - started, TimeUnit.NANOSECONDS);
+            long decodeNanos = now - firstTokenAt;
+            if (tokens > 1 && decodeNanos > 0) {
+                meters.streamTokensPerSecond.record((tokens - 1) * 1e9 / decodeNanos);
+            }
+        }
+    }
+
+    /**
+     * 채팅 한 턴의 DB 시간을 모은다. 한 요청 스레드에서만 쓰고, 스트림의 비동기 저장 시간은 끝날 때 더한다.
+     */
+    public static final class Turn {
+
+        private final Timer timer;
+        private long dbNanos;
+
+        private Turn(Timer timer) {
+            this.timer = timer;
+        }
+
+        public <T> T db(Supplier<T> call) {
+            long started = System.nanoTime();
+            try {
+                return call.get();
+            } finally {
+                dbNanos += System.nanoTime() - started;
+            }
+        }
+
+        public void addDb(long nanos) {
+            dbNanos += nanos;
+        }
+
+        public void finish() {
+            timer.record(dbNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
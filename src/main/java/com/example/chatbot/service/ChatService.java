@@ -1,21 +1,26 @@
 package com.example.chatbot.service;
 
+import com.example.chatbot.dto.openai.ChatCompletionResult;
 import com.example.chatbot.dto.request.ChatCompletionRequest;
 import com.example.chatbot.dto.response.ChatCompletionResponse;
-import com.example.chatbot.dto.openai.OpenAiMessage;
 import com.example.chatbot.entity.Conversation;
 import com.example.chatbot.entity.Message;
 import com.example.chatbot.global.error.AppException;
 import com.example.chatbot.global.error.ErrorCode;
+import com.example.chatbot.global.quota.TokenQuotaService;
+import com.example.chatbot.global.quota.TokenReservation;
+import com.example.chatbot.global.ratelimit.StreamPermit;
+import com.example.chatbot.global.ratelimit.StreamPermitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -24,20 +29,66 @@ public class ChatService {
 
     private final ConversationContextService conversationContextService;
     private final OpenAiService openAiService;
+    private final TokenQuotaService tokenQuotaService;
+    private final TokenCounter tokenCounter;
+    private final StreamPermitService streamPermitService;
+    private final Scheduler streamEventScheduler;
+    private final Scheduler streamBlockingScheduler;
+    private final SseTokenWriter sseTokenWriter;
+    private final CompletionCache completionCache;
+    private final ChatMetrics chatMetrics;
 
-    @Transactional
+    /**
+     * 업스트림 호출은 수십 초까지 걸릴 수 있으므로 트랜잭션으로 감싸지 않는다.
+     * 조회와 저장은 각각 짧은 트랜잭션으로 끝나 호출 중에는 DB 커넥션을 잡고 있지 않는다.
+     * 새 대화와 사용자 메시지는 업스트림 응답을 받은 뒤 응답과 함께 저장한다. 실패한 턴은 아무것도 남기지 않는다.
+     */
     public ChatCompletionResponse createChatCompletion(ChatCompletionRequest request, Long userId) {
         Long conversationId = parseConversationId(request.getConversationId());
-        Conversation conversation = conversationContextService.getOrCreateConversation(conversationId, userId, request.getMessage());
-
-        conversationContextService.saveUserMessage(conversation, request.getMessage());
+        ChatMetrics.Turn turn = chatMetrics.completionTurn();
+        Conversation existing = turn.db(() -> findConversation(conversationId, userId, request.getMessage()));
+        // 저장된 윈도우로 토큰을 추정하고, 아직 저장하지 않은 새 메시지만 더해 다시 고른다. 컨텍스트는 한 번만 읽는다.
+        ContextWindow history = turn.db(() -> conversationContextService.buildContextWindow(conversationId));
+        ContextWindow contextWindow = conversationContextService.appendUserMessage(history, request.getMessage());
+        String cacheKey = completionCache.keyFor(userId, request.getCache(), contextWindow.getMessages());
+        CachedCompletion cached = cacheKey != null ? completionCache.get(cacheKey) : null;
+        if (cached == null) {
+            // 업스트림 서킷이 모두 열려 있으면 토큰을 예약하기 전에 503으로 바로 실패한다.
+            openAiService.ensureAvailable();
+        }
+        TokenReservation reservation = reserveTokens(history, userId, request.getMessage());
 
-        List<OpenAiMessage> openAiMessages =
-                conversationContextService.buildOpenAiContextMessages(conversation.getId());
+        ChatCompletionResult result;
+        try {
+            if (cached != null) {
+                result = cached.toResult();
+            } else {
+                long started = System.nanoTime();
+                result = openAiService.createChatCompletionResult(userId, contextWindow.getMessages());
+                if (cacheKey != null) {
+                    completionCache.put(cacheKey, result, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                }
+            }
+        } catch (RuntimeException e) {
+            tokenQuotaService.release(reservation);
+            throw e;
+        }
 
-        String assistantContent = openAiService.createChatCompletion(openAiMessages);
+        if (cached != null) {
+            // 캐시 적중은 업스트림 토큰을 쓰지 않았으므로 예약을 돌려준다.
+            tokenQuotaService.release(reservation);
+        } else {
+            tokenQuotaService.settle(reservation,
+                    result.getPromptTokens() != null ? result.getPromptTokens() : contextWindow.getPromptTokens(),
+                    result.getCompletionTokens() != null ? result.getCompletionTokens() : tokenCounter.count(result.getContent()));
+        }
 
-        Message assistantMessage = conversationContextService.saveAssistantMessage(conversation, assistantContent);
+        Conversation conversation = existing != null
+                ? existing
+                : turn.db(() -> conversationContextService.getOrCreateConversation(null, userId, request.getMessage()));
+        Message assistantMessage = turn.db(() ->
+                conversationContextService.saveTurn(conversation, request.getMessage(), result.getContent()));
+        turn.finish();
 
         return ChatCompletionResponse.builder()
                 .conversationId(String.valueOf(conversation.getId()))
@@ -50,55 +101,156 @@ public class ChatService {
                 .build();
     }
 
-    public SseEmitter createChatCompletionStream(ChatCompletionRequest request, Long userId) {
-        SseEmitter emitter = new SseEmitter(60000L); 
+    public SseFrameEmitter createChatCompletionStream(ChatCompletionRequest request, Long userId) {
+        SseFrameEmitter emitter = new SseFrameEmitter(60000L); 
         Long conversationId = parseConversationId(request.getConversationId());
-        Conversation conversation = conversationContextService.getOrCreateConversation(conversationId, userId, request.getMessage());
-
-        conversationContextService.saveUserMessage(conversation, request.getMessage());
+        StreamPermit permit = streamPermitService.acquire(userId);
 
-        List<OpenAiMessage> openAiMessages =
-                conversationContextService.buildOpenAiContextMessages(conversation.getId());
+        Conversation existing;
+        ContextWindow contextWindow;
+        String cacheKey;
+        CachedCompletion cached;
+        TokenReservation reservation = null;
+        ChatMetrics.Turn turn = chatMetrics.streamTurn();
+        try {
+            existing = turn.db(() -> findConversation(conversationId, userId, request.getMessage()));
+            ContextWindow history = turn.db(() -> conversationContextService.buildContextWindow(conversationId));
+            // 새 대화와 사용자 메시지는 스트림이 끝난 뒤 응답과 함께 저장한다.
+            contextWindow = conversationContextService.appendUserMessage(history, request.getMessage());
+            cacheKey = completionCache.keyFor(userId, request.getCache(), contextWindow.getMessages());
+            cached = cacheKey != null ? completionCache.get(cacheKey) : null;
+            if (cached == null) {
+                // 업스트림 서킷이 열려 있으면 토큰 예약이나 저장 없이, SSE를 열기 전에 503으로 바로 실패한다.
+                openAiService.ensureAvailable();
+            }
+            reservation = reserveTokens(history, userId, request.getMessage());
+        } catch (RuntimeException e) {
+            tokenQuotaService.release(reservation);
+            permit.release();
+            throw e;
+        }
 
-        StringBuilder gatheredContent = new StringBuilder();
+        TokenReservation streamReservation = reservation;
+        // 받은 토큰은 tokenStream이 잠금 안에서 모은다. 취소/에러 콜백은 다른 스레드에서 실행되므로 스냅샷으로만 읽는다.
+        SseTokenWriter.TokenStream tokenStream = sseTokenWriter.open(emitter);
+        // 캐시 적중은 업스트림 토큰을 쓰지 않았으므로 정산 대신 예약을 돌려준다.
+        Runnable settle = cached != null
+                ? () -> tokenQuotaService.release(streamReservation)
+                : () -> settleStream(streamReservation, contextWindow, tokenStream);
+        Flux<String> tokens = cached != null
+                ? completionCache.replay(cached)
+                : openAiService.createChatCompletionStream(userId, contextWindow.getMessages());
+        long started = System.nanoTime();
+        Runnable closeStream = chatMetrics.openStream();
 
-        openAiService.createChatCompletionStream(openAiMessages)
+        // SSE 전송과 저장은 블로킹이므로 가상 스레드 모드에서는 Netty 이벤트 루프 밖에서 처리한다.
+        Disposable subscription = tokens
+                .publishOn(streamEventScheduler)
+                .doOnCancel(settle)
                 .subscribe(
-                        content -> {
-                            if (content != null) {
-                                gatheredContent.append(content);
-                                try {
-                                    Object eventData = Collections.singletonMap("text", content);
-                                    emitter.send(SseEmitter.event()
-                                            .name("token")
-                                            .data(eventData));
-                                } catch (IOException e) {
-                                    log.error("SSE send failed", e);
-                                }
-                            }
-                        },
+                        tokenStream::append,
                         streamError -> {
                             log.error("Stream error", streamError);
+                            tokenStream.close();
                             emitter.completeWithError(streamError);
+                            permit.release();
+                            closeStream.run();
+                            settle.run();
                         },
                         () -> {
-                            try {
-                                emitter.send(SseEmitter.event().name("done").data("[DONE]"));
-                                emitter.complete();
-                                
-                                String fullContent = gatheredContent.toString();
-                                if (!fullContent.isEmpty()) {
-                                    conversationContextService.saveAssistantMessage(conversation, fullContent);
-                                }
-                            } catch (IOException e) {
-                                log.error("SSE complete failed", e);
+                            // 모아 둔 토큰을 먼저 보낸다. 저장은 저장 스레드가 맡고, done은 설정된 내구성 수준에 도달한 뒤 보낸다.
+                            // 새 대화 생성, done 전송과 정산은 블로킹이므로 저장 스레드가 아닌 별도 스케줄러에서 실행한다.
+                            tokenStream.finish();
+                            String fullContent = tokenStream.content();
+                            if (cached == null && cacheKey != null) {
+                                completionCache.put(cacheKey, new ChatCompletionResult(fullContent, null, null),
+                                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
                             }
+                            long saveStarted = System.nanoTime();
+                            streamBlockingScheduler.schedule(() -> saveStreamTurn(existing, userId, request.getMessage(), fullContent)
+                                    .whenCompleteAsync((ignored, saveError) -> {
+                                        try {
+                                            if (saveError != null) {
+                                                log.error("응답 메시지 저장 실패: conversationId={}", conversationId, saveError);
+                                                emitter.completeWithError(saveError);
+                                                return;
+                                            }
+                                            turn.addDb(System.nanoTime() - saveStarted);
+                                            turn.finish();
+                                            emitter.sendFrame(SseFrames.done());
+                                            emitter.complete();
+                                        } catch (IOException e) {
+                                            log.error("SSE complete failed", e);
+                                        } finally {
+                                            permit.release();
+                                            closeStream.run();
+                                            settle.run();
+                                        }
+                                    }, streamBlockingScheduler::schedule));
                         }
                 );
 
+        // 완료, 에러, 타임아웃, 클라이언트 연결 끊김 중 어느 경로로 끝나도 퍼밋이 반납되도록 한 번씩만 등록한다.
+        // 타임아웃과 연결 끊김에서는 업스트림 구독도 함께 끊는다.
+        emitter.onCompletion(() -> {
+            permit.release();
+            closeStream.run();
+        });
+        emitter.onTimeout(() -> {
+            permit.release();
+            closeStream.run();
+            subscription.dispose();
+            tokenStream.close();
+        });
+        emitter.onError(error -> {
+            permit.release();
+            closeStream.run();
+            subscription.dispose();
+            tokenStream.close();
+        });
+
         return emitter;
     }
 
+    /**
+     * 기존 대화면 소유권을 먼저 확인한다. 새 대화는 업스트림 응답을 받은 뒤에 만든다.
+     */
+    private Conversation findConversation(Long conversationId, Long userId, String message) {
+        if (conversationId == null) {
+            return null;
+        }
+        return conversationContextService.getOrCreateConversation(conversationId, userId, message);
+    }
+
+    /**
+     * 스트림이 끝난 뒤 이번 턴을 저장한다. 응답이 비어 있으면 사용자 메시지도 남기지 않는다.
+     */
+    private CompletableFuture<?> saveStreamTurn(Conversation existing, Long userId, String userContent, String assistantContent) {
+        if (assistantContent.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            Conversation conversation = existing != null
+                    ? existing
+                    : conversationContextService.getOrCreateConversation(null, userId, userContent);
+            return conversationContextService.saveTurnAsync(conversation, userContent, assistantContent);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 업스트림 가용성 확인 뒤, 아무것도 저장하기 전에 토큰을 예약해 한도를 넘는 요청은 바로 거절한다.
+     */
+    private TokenReservation reserveTokens(ContextWindow history, Long userId, String message) {
+        return tokenQuotaService.reserve(userId, conversationContextService.estimatePromptTokens(history, message));
+    }
+
+    private void settleStream(TokenReservation reservation, ContextWindow contextWindow, SseTokenWriter.TokenStream tokenStream) {
+        if (!reservation.isReserved()) return;
+        tokenQuotaService.settle(reservation, contextWindow.getPromptTokens(), tokenCounter.count(tokenStream.content()));
+    }
+
     private Long parseConversationId(String id) {
         if (id == null || id.isBlank()) {
             return null;
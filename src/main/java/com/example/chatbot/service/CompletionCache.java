@@ -0,0 +1,159 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.config.OpenAiConfig;
+import com.example.chatbot.dto.openai.ChatCompletionResult;
+import com.example.chatbot.dto.openai.OpenAiMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 모델과 정규화한 컨텍스트가 완전히 같은 요청의 응답을 저장해 업스트림 호출 없이 돌려준다.
+ * 로컬(L1)은 크기 기준으로 내보내고, Redis L2가 켜져 있으면 노드 간에 공유한다. 두 계층 모두 TTL을 따른다.
+ */
+@Slf4j
+@Component
+public class CompletionCache {
+
+    private static final String CACHE_NAME = "completion";
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int REPLAY_CHUNK_CHARS = 16;
+
+    private final CompletionCacheProperties properties;
+    private final OpenAiConfig openAiConfig;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedCompletion> localCache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter savedUpstreamMillis;
+
+    public CompletionCache(CompletionCacheProperties properties,
+                           OpenAiConfig openAiConfig,
+                           StringRedisTemplate redisTemplate,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.openAiConfig = openAiConfig;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeightBytes())
+                .weigher((String key, CachedCompletion completion) ->
+                        ENTRY_OVERHEAD_BYTES + completion.getContent().length() * 2)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, CACHE_NAME);
+        this.hits = Counter.builder("chat.completion_cache.gets").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("chat.completion_cache.gets").tag("result", "miss").register(meterRegistry);
+        this.savedUpstreamMillis = Counter.builder("chat.completion_cache.saved_upstream_time")
+                .baseUnit("milliseconds")
+                .description("캐시 적중으로 생략한 업스트림 호출 시간의 합")
+                .register(meterRegistry);
+        Gauge.builder("chat.completion_cache.hit_ratio", this, CompletionCache::hitRatio).register(meterRegistry);
+    }
+
+    /**
+     * 캐시할 수 있는 요청이면 키를, 꺼져 있거나 거부된 요청이면 null을 반환한다.
+     *
+     * @param requestCache 요청의 cache 값. false면 이 요청은 캐시를 읽지도 쓰지도 않는다.
+     */
+    public String keyFor(Long userId, Boolean requestCache, List<OpenAiMessage> messages) {
+        if (!properties.isEnabled() || Boolean.FALSE.equals(requestCache)) return null;
+        if (properties.getOptOutUserIds().contains(userId)) return null;
+        if (messages.isEmpty() || messages.size() > properties.getMaxContextMessages()) return null;
+
+        return CompletionKey.normalized(openAiConfig.getModel(), messages);
+    }
+
+    /**
+     * L1, L2 순서로 찾는다. L2에서 찾은 응답은 L1에도 넣는다.
+     */
+    public CachedCompletion get(String key) {
+        CachedCompletion completion = localCache.getIfPresent(key);
+        if (completion == null && isRedisEnabled()) {
+            completion = getFromRedis(key);
+            if (completion != null) {
+                localCache.put(key, completion);
+            }
+        }
+
+        if (completion == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        savedUpstreamMillis.increment(completion.getUpstreamMillis());
+        return completion;
+    }
+
+    public void put(String key, ChatCompletionResult result, long upstreamMillis) {
+        if (result.getContent() == null || result.getContent().isEmpty()) return;
+
+        CachedCompletion completion = new CachedCompletion(result.getContent(),
+                result.getPromptTokens(), result.getCompletionTokens(), upstreamMillis);
+        localCache.put(key, completion);
+        if (!isRedisEnabled()) return;
+
+        try {
+            redisTemplate.opsForValue().set(redisKey(key), objectMapper.writeValueAsString(completion), properties.getTtl());
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("응답 L2 캐시 저장 실패: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 저장된 응답을 스트리밍 엔드포인트에서 업스트림 스트림처럼 흘려보낸다.
+     */
+    public Flux<String> replay(CachedCompletion completion) {
+        String content = completion.getContent();
+        List<String> chunks = new ArrayList<>(content.length() / REPLAY_CHUNK_CHARS + 1);
+        int start = 0;
+        while (start < content.length()) {
+            int end = Math.min(start + REPLAY_CHUNK_CHARS, content.length());
+            if (end < content.length() && Character.isHighSurrogate(content.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(content.substring(start, end));
+            start = end;
+        }
+        return Flux.fromIterable(chunks);
+    }
+
+    private CachedCompletion getFromRedis(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(redisKey(key));
+            return value != null ? objectMapper.readValue(value, CachedCompletion.class) : null;
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("응답 L2 캐시 조회 실패: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private boolean isRedisEnabled() {
+        return properties.getRedis().isEnabled();
+    }
+
+    private String redisKey(String key) {
+        return properties.getRedis().getKeyPrefix() + ":" + key;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.chatbot.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.chat.completion-cache")
+public class CompletionCacheProperties {
+
+    // 모델과 컨텍스트가 완전히 같은 요청에 저장된 응답을 돌려준다. 기본은 꺼져 있다.
+    private boolean enabled = false;
+
+    // 컨텍스트 메시지 수가 이 값을 넘는 대화는 캐시하지 않는다. 같은 컨텍스트가 반복되는 것은 대부분 대화 초반이다.
+    private int maxContextMessages = 2;
+
+    // 로컬 캐시 최대 가중치 (응답 본문 기준 대략적인 바이트 수)
+    private long maxWeightBytes = 16L * 1024 * 1024;
+
+    private Duration ttl = Duration.ofHours(1);
+
+    // 캐시를 읽지도 쓰지도 않는 사용자
+    private Set<Long> optOutUserIds = new HashSet<>();
+
+    private Redis redis = new Redis();
+
+    @Getter
+    @Setter
+    public static class Redis {
+
+        // 여러 노드가 응답 캐시를 공유하기 위한 L2 캐시 사용 여부
+        private boolean enabled = false;
+
+        private String keyPrefix = "completion_cache";
+    }
+}
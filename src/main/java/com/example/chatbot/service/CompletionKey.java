@@ -0,0 +1,71 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.dto.openai.OpenAiMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 모델과 컨텍스트 메시지로 업스트림 요청을 식별하는 SHA-256 키.
+ */
+public final class CompletionKey {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private CompletionKey() {
+    }
+
+    /**
+     * 완전히 같은 요청만 같은 키가 된다.
+     */
+    public static String exact(String model, List<OpenAiMessage> messages) {
+        return hash(model, messages, false);
+    }
+
+    /**
+     * 공백 차이와 유니코드 정규화 형식 차이는 같은 요청으로 본다. 대소문자는 의미가 다를 수 있어 유지한다.
+     */
+    public static String normalized(String model, List<OpenAiMessage> messages) {
+        return hash(model, messages, true);
+    }
+
+    static String normalize(String content) {
+        if (content == null) return "";
+        String normalized = Normalizer.normalize(content, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(normalized.strip()).replaceAll(" ");
+    }
+
+    private static String hash(String model, List<OpenAiMessage> messages, boolean normalize) {
+        MessageDigest digest = sha256();
+        update(digest, model);
+        for (OpenAiMessage message : messages) {
+            update(digest, message.getRole());
+            update(digest, normalize ? normalize(message.getContent()) : message.getContent());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        // 필드 경계가 섞여 다른 입력이 같은 키가 되지 않도록 길이를 먼저 넣는다.
+        int length = bytes.length;
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.conversation.cache.ContextMessage;
+import com.example.chatbot.dto.openai.OpenAiMessage;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 업스트림에 보낼 프롬프트 메시지와 그 토큰 수 (응답 프라이밍 토큰 포함)
+ */
+@Getter
+@RequiredArgsConstructor
+public class ContextWindow {
+
+    private final List<OpenAiMessage> messages;
+    private final int promptTokens;
+
+    // 선택에 사용한 원본 메시지와 요약. 새 메시지를 더해 윈도우를 다시 고를 때 그대로 재사용한다.
+    @Getter(AccessLevel.PACKAGE)
+    private final List<ContextMessage> history;
+    @Getter(AccessLevel.PACKAGE)
+    private final ConversationSummary summary;
+}
@@ -1,5 +1,8 @@
 package com.example.chatbot.service;
 
+import com.example.chatbot.conversation.cache.ContextMessage;
+import com.example.chatbot.conversation.cache.ConversationContextCache;
+import com.example.chatbot.conversation.repository.ContextMessageView;
 import com.example.chatbot.conversation.repository.ConversationRepository;
 import com.example.chatbot.dto.openai.OpenAiMessage;
 import com.example.chatbot.conversation.repository.MessageRepository;
@@ -9,13 +12,20 @@ import com.example.chatbot.entity.User;
 import com.example.chatbot.global.error.AppException;
 import com.example.chatbot.global.error.ErrorCode;
 import com.example.chatbot.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -23,12 +33,26 @@ public class ConversationContextService {
 
     private static final int TITLE_MAX_LENGTH = 50;
     private static final int MIN_CONTEXT_SIZE = 1;
+    private static final int MIN_CONTEXT_TOKEN_BUDGET = 64;
+    // 예산을 넘는 오래된 메시지는 이 정도 여유가 있을 때만 잘라서 포함한다.
+    private static final int MIN_TRUNCATED_MESSAGE_TOKENS = 32;
+    private static final TypeReference<List<ContextMessage>> CONTEXT_MESSAGE_LIST = new TypeReference<>() {
+    };
 
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
-    @Value("${app.chat.context-size:10}")
+    private final ObjectMapper objectMapper;
+    private final ConversationContextCache contextCache;
+    private final TokenCounter tokenCounter;
+    private final ConversationSummaryService summaryService;
+    private final MessageWriteBehind messageWriteBehind;
+    @Value("${app.chat.context-size:50}")
     private int contextSize;
+    @Value("${app.chat.context-token-budget:4000}")
+    private int contextTokenBudget;
+    @Value("${app.chat.context-json-aggregation:false}")
+    private boolean contextJsonAggregation;
 
     @Transactional
     public Conversation getOrCreateConversation(Long conversationId, Long userId, String firstMessage) {
@@ -38,35 +62,210 @@ public class ConversationContextService {
             String title = firstMessage.length() > TITLE_MAX_LENGTH
                     ? firstMessage.substring(0, TITLE_MAX_LENGTH)
                     : firstMessage;
-            return conversationRepository.save(new Conversation(user, title));
+            Conversation conversation = conversationRepository.save(new Conversation(user, title));
+            contextCache.registerConversation(conversation.getId(), userId, true);
+            summaryService.registerNewConversation(conversation.getId());
+            return conversation;
         }
 
-        return conversationRepository.findByIdAndUser_Id(conversationId, userId)
+        // 소유권이 캐시되어 있으면 조회 없이 참조 프록시만 사용한다.
+        Long ownerId = contextCache.findOwner(conversationId);
+        if (ownerId != null) {
+            if (!ownerId.equals(userId)) {
+                throw new AppException(ErrorCode.CONVERSATION_NOT_FOUND);
+            }
+            return conversationRepository.getReferenceById(conversationId);
+        }
+
+        Conversation conversation = conversationRepository.findByIdAndUser_Id(conversationId, userId)
                 .orElseThrow(() -> new AppException(ErrorCode.CONVERSATION_NOT_FOUND));
+        contextCache.registerConversation(conversationId, userId, false);
+        return conversation;
     }
 
-    @Transactional
+    /**
+     * 커밋될 때까지 기다린 뒤 반환하므로 바로 이어지는 컨텍스트 조회에 이 메시지가 포함된다.
+     */
     public Message saveUserMessage(Conversation conversation, String content) {
-        return messageRepository.save(new Message(conversation, Message.Role.user, content));
+        return messageWriteBehind.await(saveMessage(conversation, Message.Role.user, content));
     }
 
-    @Transactional
-    public Message saveAssistantMessage(Conversation conversation, String content) {
-        return messageRepository.save(new Message(conversation, Message.Role.assistant, content));
+    /**
+     * 업스트림 응답을 받은 뒤 사용자 메시지와 응답을 함께 저장한다. 대기열 순서대로 저장되므로 사용자 메시지가 먼저 커밋된다.
+     * 업스트림이 실패하면 이 턴은 아무것도 남기지 않으므로 클라이언트가 재시도해도 사용자 메시지가 중복되지 않는다.
+     */
+    public Message saveTurn(Conversation conversation, String userContent, String assistantContent) {
+        CompletableFuture<Message> user = saveMessage(conversation, Message.Role.user, userContent);
+        CompletableFuture<Message> assistant = saveAfter(user, conversation, assistantContent);
+        try {
+            messageWriteBehind.await(user);
+        } catch (RuntimeException e) {
+            // 사용자 메시지 없이 응답만 남지 않도록, 아직 배치에 들어가지 않은 응답도 취소한다.
+            assistant.cancel(false);
+            throw e;
+        }
+        return messageWriteBehind.await(assistant);
+    }
+
+    /**
+     * 기다리지 않고 저장을 맡긴다. 반환값은 두 메시지가 설정된 내구성 수준(커밋 또는 대기열 등록)에 도달하면 완료된다.
+     * 스트림 종료처럼 업스트림 I/O 스레드에서 호출되는 경로에서 사용한다.
+     */
+    public CompletableFuture<?> saveTurnAsync(Conversation conversation, String userContent, String assistantContent) {
+        CompletableFuture<Message> user = saveMessage(conversation, Message.Role.user, userContent);
+        CompletableFuture<Message> assistant = saveAfter(user, conversation, assistantContent);
+        return CompletableFuture.allOf(messageWriteBehind.acknowledgement(user), messageWriteBehind.acknowledgement(assistant));
     }
 
-    @Transactional(readOnly = true)
     public List<OpenAiMessage> buildOpenAiContextMessages(Long conversationId) {
-        List<Message> messages = messageRepository.findByConversation_IdOrderByCreatedAtAsc(conversationId);
+        return buildContextWindow(conversationId).getMessages();
+    }
+
+    /**
+     * 새 대화면 conversationId는 null이고 빈 윈도우를 반환한다.
+     */
+    public ContextWindow buildContextWindow(Long conversationId) {
+        if (conversationId == null) {
+            return selectWithinTokenBudget(List.of(), ConversationSummary.EMPTY);
+        }
+
+        List<ContextMessage> contextMessages = contextCache.getContext(conversationId);
+        if (contextMessages == null) {
+            long version = contextCache.beginLoad(conversationId);
+            contextMessages = loadContextMessages(conversationId);
+            contextCache.putContext(conversationId, contextMessages, version);
+        }
+
+        return selectWithinTokenBudget(contextMessages, summaryService.getSummary(conversationId));
+    }
+
+    /**
+     * 저장 전에 만든 윈도우에 아직 저장하지 않은 사용자 메시지를 더해 다시 고른다. 캐시나 DB, 요약을 다시 읽지 않는다.
+     * 메시지는 업스트림 응답을 받은 뒤에 저장되므로 ID는 비어 있다.
+     */
+    public ContextWindow appendUserMessage(ContextWindow window, String content) {
+        List<ContextMessage> history = new ArrayList<>(window.getHistory().size() + 1);
+        history.addAll(window.getHistory());
+        history.add(new ContextMessage(null, Message.Role.user.name(), content, tokenCounter.count(content)));
+        int overflow = history.size() - Math.max(contextSize, MIN_CONTEXT_SIZE);
+        if (overflow > 0) {
+            history = history.subList(overflow, history.size());
+        }
+        return selectWithinTokenBudget(history, window.getSummary());
+    }
+
+    /**
+     * 아직 저장하지 않은 새 메시지를 포함했을 때의 프롬프트 토큰 수를 저장 전 윈도우로 추정한다.
+     * 예산 선택 결과를 넘지 않도록 토큰 예산으로 상한을 둔다.
+     */
+    public int estimatePromptTokens(ContextWindow window, String newMessage) {
+        int estimated = window.getPromptTokens() + tokenCounter.count(newMessage) + TokenCounter.TOKENS_PER_MESSAGE;
+        return Math.min(estimated, Math.max(contextTokenBudget, MIN_CONTEXT_TOKEN_BUDGET));
+    }
+
+    /**
+     * 사용자 메시지가 대기열에서 바로 거절되면 응답도 저장하지 않는다.
+     */
+    private CompletableFuture<Message> saveAfter(CompletableFuture<Message> user, Conversation conversation, String assistantContent) {
+        return user.isCompletedExceptionally()
+                ? user
+                : saveMessage(conversation, Message.Role.assistant, assistantContent);
+    }
+
+    private CompletableFuture<Message> saveMessage(Conversation conversation, Message.Role role, String content) {
+        Message message = new Message(conversation, role, content);
+        message.setTokenCount(tokenCounter.count(content));
+        Long conversationId = conversation.getId();
+        return messageWriteBehind.submit(message, saved -> runAfterCommit(() -> {
+            contextCache.append(conversationId,
+                    new ContextMessage(saved.getId(), role.name(), content, saved.getTokenCount()));
+            summaryService.recordMessage(conversationId);
+        }));
+    }
+
+    /**
+     * 호출자의 트랜잭션에 참여해 저장되었다면 그 트랜잭션이 롤백될 수 있으므로 캐시 반영을 커밋 이후로 미룬다.
+     */
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 요약이 있으면 시스템 메시지로 맨 앞에 두고, 최신 메시지부터 토큰 예산 안에 들어가는 만큼만 담는다.
+     * 가장 최근 메시지 하나가 예산을 넘으면 예산에 맞게 잘라서라도 포함한다.
+     */
+    private ContextWindow selectWithinTokenBudget(List<ContextMessage> contextMessages, ConversationSummary summary) {
+        int budget = Math.max(contextTokenBudget, MIN_CONTEXT_TOKEN_BUDGET);
+        int remaining = budget - TokenCounter.REPLY_PRIMING_TOKENS;
+        if (summary.hasSummary()) {
+            remaining -= summaryService.systemMessageTokens(summary);
+        }
+        ArrayDeque<OpenAiMessage> selected = new ArrayDeque<>();
+
+        for (int i = contextMessages.size() - 1; i >= 0 && remaining > 0; i--) {
+            ContextMessage message = contextMessages.get(i);
+            if (summary.covers(message.getId())) {
+                // 이미 요약에 반영된 메시지는 중복으로 넣지 않는다.
+                break;
+            }
+            int cost = tokenCountOf(message) + TokenCounter.TOKENS_PER_MESSAGE;
+            if (cost <= remaining) {
+                selected.addFirst(new OpenAiMessage(message.getRole(), message.getContent()));
+                remaining -= cost;
+                continue;
+            }
+
+            int available = remaining - TokenCounter.TOKENS_PER_MESSAGE;
+            if (selected.isEmpty() || available >= MIN_TRUNCATED_MESSAGE_TOKENS) {
+                String truncated = tokenCounter.truncate(message.getContent(), Math.max(available, 1));
+                selected.addFirst(new OpenAiMessage(message.getRole(), truncated));
+                remaining -= tokenCounter.count(truncated) + TokenCounter.TOKENS_PER_MESSAGE;
+            }
+            break;
+        }
+
+        if (summary.hasSummary()) {
+            selected.addFirst(summaryService.toSystemMessage(summary));
+        }
+        return new ContextWindow(new ArrayList<>(selected), budget - remaining, contextMessages, summary);
+    }
+
+    private int tokenCountOf(ContextMessage message) {
+        Integer tokenCount = message.getTokenCount();
+        return tokenCount != null ? tokenCount : tokenCounter.count(message.getContent());
+    }
+
+    private List<ContextMessage> loadContextMessages(Long conversationId) {
         int effectiveContextSize = Math.max(contextSize, MIN_CONTEXT_SIZE);
-        List<Message> contextMessages = messages.size() > effectiveContextSize
-                ? messages.subList(messages.size() - effectiveContextSize, messages.size())
-                : messages;
+        if (contextJsonAggregation) {
+            return readContextJson(messageRepository.findContextTailJson(conversationId, effectiveContextSize));
+        }
+
+        // 최신순으로 조회되므로 뒤에서부터 채워 시간순으로 되돌린다.
+        List<ContextMessageView> tail = messageRepository.findContextTail(conversationId, effectiveContextSize);
+        List<ContextMessage> contextMessages = new ArrayList<>(tail.size());
+        for (int i = tail.size() - 1; i >= 0; i--) {
+            ContextMessageView message = tail.get(i);
+            contextMessages.add(new ContextMessage(
+                    message.getId(), message.getRole(), message.getContent(), message.getTokenCount()));
+        }
+        return contextMessages;
+    }
 
-        List<OpenAiMessage> openAiMessages = new ArrayList<>();
-        for (Message message : contextMessages) {
-            openAiMessages.add(new OpenAiMessage(message.getRole().name(), message.getContent()));
+    private List<ContextMessage> readContextJson(String json) {
+        try {
+            return objectMapper.readValue(json, CONTEXT_MESSAGE_LIST);
+        } catch (JsonProcessingException e) {
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "대화 컨텍스트 JSON 파싱 실패: " + e.getOriginalMessage());
         }
-        return openAiMessages;
     }
 }
@@ -0,0 +1,23 @@
+package com.example.chatbot.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ConversationSummary {
+
+    public static final ConversationSummary EMPTY = new ConversationSummary(null, null, 0);
+
+    private final String summary;
+    private final Long summarizedUntilMessageId;
+    private final int tokenCount;
+
+    public boolean hasSummary() {
+        return summary != null && !summary.isBlank();
+    }
+
+    public boolean covers(Long messageId) {
+        return messageId != null && summarizedUntilMessageId != null && messageId <= summarizedUntilMessageId;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.chatbot.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.chat.summary")
+public class ConversationSummaryProperties {
+
+    private boolean enabled = true;
+
+    // 이 노드에서 메시지가 이만큼 쌓일 때마다 백그라운드 요약 갱신을 시도한다.
+    private int refreshEveryMessages = 10;
+
+    // 요약하지 않고 원문 그대로 컨텍스트에 남겨둘 최근 메시지 수
+    private int keepRecentMessages = 10;
+
+    // 새로 요약할 메시지가 이보다 적으면 갱신하지 않는다.
+    private int minMessagesToSummarize = 6;
+
+    // 한 번의 갱신에서 요약할 최대 메시지 수
+    private int maxMessagesPerRefresh = 60;
+
+    // 요약 입력으로 넣을 때 메시지당 최대 토큰 수
+    private int maxInputTokensPerMessage = 500;
+
+    // 저장할 요약의 최대 토큰 수
+    private int maxSummaryTokens = 600;
+
+    // 동시에 실행할 요약 작업 수와 대기열 크기
+    private int concurrency = 2;
+    private int queueCapacity = 100;
+
+    // 노드 간 중복 요약을 막는 Redis 락
+    private Duration lockTtl = Duration.ofMinutes(2);
+    private String lockKeyPrefix = "summary_lock";
+
+    // 요청 경로에서 요약을 다시 읽지 않도록 캐시하는 시간
+    private Duration cacheTtl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,246 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.conversation.repository.ContextMessageView;
+import com.example.chatbot.conversation.repository.ConversationRepository;
+import com.example.chatbot.conversation.repository.MessageRepository;
+import com.example.chatbot.dto.openai.OpenAiMessage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 컨텍스트 윈도우 밖으로 밀려나는 메시지를 대화별 누적 요약으로 유지한다.
+ * 요약 갱신은 전용 스레드에서만 실행되며, 요청 경로는 캐시된 요약을 읽기만 한다.
+ */
+@Slf4j
+@Service
+public class ConversationSummaryService {
+
+    private static final String SUMMARY_PREFIX = "이전 대화 요약:\n";
+    private static final String SUMMARY_INSTRUCTION = """
+            당신은 대화 기록을 요약하는 도우미입니다. 이전 요약과 새 대화 기록을 합쳐 하나의 요약으로 갱신하세요.
+            이후 대화를 이어가는 데 필요한 사실, 결정 사항, 사용자의 선호와 진행 중인 작업을 중심으로 간결하게 작성하고,
+            대화에 사용된 언어로 작성하세요. 요약 본문만 출력하세요.""";
+    private static final RedisScript<Long> UNLOCK_SCRIPT = createUnlockScript();
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final OpenAiService openAiService;
+    private final TokenCounter tokenCounter;
+    private final StringRedisTemplate redisTemplate;
+    private final ConversationSummaryProperties properties;
+    private final Cache<Long, ConversationSummary> summaryCache;
+    private final Cache<Long, AtomicInteger> unsummarizedCounts;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+    private final Counter refreshed;
+    private final Counter skipped;
+    private final Counter failed;
+
+    public ConversationSummaryService(ConversationRepository conversationRepository,
+                                      MessageRepository messageRepository,
+                                      OpenAiService openAiService,
+                                      TokenCounter tokenCounter,
+                                      StringRedisTemplate redisTemplate,
+                                      ConversationSummaryProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.conversationRepository = conversationRepository;
+        this.messageRepository = messageRepository;
+        this.openAiService = openAiService;
+        this.tokenCounter = tokenCounter;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.summaryCache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(properties.getCacheTtl())
+                .build();
+        this.unsummarizedCounts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(properties.getCacheTtl())
+                .build();
+
+        int concurrency = Math.max(properties.getConcurrency(), 1);
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1)),
+                new CustomizableThreadFactory("conversation-summary-"));
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.refreshed = Counter.builder("conversation.summary.refreshes").tag("result", "refreshed").register(meterRegistry);
+        this.skipped = Counter.builder("conversation.summary.refreshes").tag("result", "skipped").register(meterRegistry);
+        this.failed = Counter.builder("conversation.summary.refreshes").tag("result", "failed").register(meterRegistry);
+    }
+
+    /**
+     * 요청 경로에서 호출된다. 캐시에 없을 때만 DB에서 한 번 읽는다.
+     */
+    public ConversationSummary getSummary(Long conversationId) {
+        if (!properties.isEnabled()) return ConversationSummary.EMPTY;
+        return summaryCache.get(conversationId, this::loadSummary);
+    }
+
+    public void registerNewConversation(Long conversationId) {
+        summaryCache.put(conversationId, ConversationSummary.EMPTY);
+    }
+
+    public OpenAiMessage toSystemMessage(ConversationSummary summary) {
+        return new OpenAiMessage("system", SUMMARY_PREFIX + summary.getSummary());
+    }
+
+    public int systemMessageTokens(ConversationSummary summary) {
+        return summary.getTokenCount() + tokenCounter.count(SUMMARY_PREFIX) + TokenCounter.TOKENS_PER_MESSAGE;
+    }
+
+    /**
+     * 메시지가 저장될 때마다 호출된다. 일정 개수가 쌓이면 백그라운드 갱신을 예약하고 즉시 반환한다.
+     */
+    public void recordMessage(Long conversationId) {
+        if (!properties.isEnabled()) return;
+
+        AtomicInteger count = unsummarizedCounts.get(conversationId, id -> new AtomicInteger());
+        if (count.incrementAndGet() < properties.getRefreshEveryMessages()) return;
+
+        count.set(0);
+        scheduleRefresh(conversationId);
+    }
+
+    private void scheduleRefresh(Long conversationId) {
+        // 같은 대화에 대한 갱신이 이미 진행 중이면 합친다.
+        if (!inFlight.add(conversationId)) return;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh(conversationId);
+                } finally {
+                    inFlight.remove(conversationId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(conversationId);
+            skipped.increment();
+            log.warn("요약 작업 대기열이 가득 차 건너뜁니다: conversationId={}", conversationId);
+        }
+    }
+
+    private void refresh(Long conversationId) {
+        String lockKey = properties.getLockKeyPrefix() + ":" + conversationId;
+        String lockToken = UUID.randomUUID().toString();
+        if (!tryLock(lockKey, lockToken)) {
+            skipped.increment();
+            return;
+        }
+
+        try {
+            ConversationSummary current = loadSummary(conversationId);
+            long afterMessageId = current.getSummarizedUntilMessageId() != null ? current.getSummarizedUntilMessageId() : 0L;
+            int keepRecent = Math.max(properties.getKeepRecentMessages(), 0);
+            List<ContextMessageView> pending = messageRepository.findMessagesAfter(
+                    conversationId, afterMessageId, properties.getMaxMessagesPerRefresh() + keepRecent);
+
+            int summarizeCount = pending.size() - keepRecent;
+            if (summarizeCount < Math.max(properties.getMinMessagesToSummarize(), 1)) {
+                skipped.increment();
+                return;
+            }
+
+            List<ContextMessageView> toSummarize = pending.subList(0, summarizeCount);
+            String summary = tokenCounter.truncate(summarize(current, toSummarize), properties.getMaxSummaryTokens());
+            Long untilMessageId = toSummarize.get(toSummarize.size() - 1).getId();
+
+            if (conversationRepository.updateSummary(conversationId, summary, untilMessageId) > 0) {
+                summaryCache.put(conversationId,
+                        new ConversationSummary(summary, untilMessageId, tokenCounter.count(summary)));
+                refreshed.increment();
+                log.info("대화 요약 갱신: conversationId={}, summarizedMessages={}, untilMessageId={}",
+                        conversationId, toSummarize.size(), untilMessageId);
+            } else {
+                summaryCache.invalidate(conversationId);
+                skipped.increment();
+            }
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("대화 요약 갱신 실패: conversationId={}, error={}", conversationId, e.getMessage());
+        } finally {
+            unlock(lockKey, lockToken);
+        }
+    }
+
+    private String summarize(ConversationSummary current, List<ContextMessageView> messages) {
+        StringBuilder transcript = new StringBuilder();
+        if (current.hasSummary()) {
+            transcript.append("[이전 요약]\n").append(current.getSummary()).append("\n\n");
+        }
+        transcript.append("[새 대화 기록]\n");
+        for (ContextMessageView message : messages) {
+            transcript.append(message.getRole()).append(": ")
+                    .append(tokenCounter.truncate(message.getContent(), properties.getMaxInputTokensPerMessage()))
+                    .append('\n');
+        }
+
+        return openAiService.createChatCompletion(List.of(
+                new OpenAiMessage("system", SUMMARY_INSTRUCTION),
+                new OpenAiMessage("user", transcript.toString())));
+    }
+
+    private ConversationSummary loadSummary(Long conversationId) {
+        return conversationRepository.findSummaryById(conversationId)
+                .filter(view -> view.getSummary() != null)
+                .map(view -> new ConversationSummary(view.getSummary(), view.getSummarizedUntilMessageId(),
+                        tokenCounter.count(view.getSummary())))
+                .orElse(ConversationSummary.EMPTY);
+    }
+
+    private boolean tryLock(String lockKey, String lockToken) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, lockToken, properties.getLockTtl()));
+        } catch (DataAccessException e) {
+            // Redis 장애 시에는 노드 내 중복 제거만으로 진행한다.
+            log.debug("요약 락 획득 실패, 로컬 중복 제거로 진행: key={}, error={}", lockKey, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 요약이 락 TTL보다 오래 걸리면 다른 노드가 락을 다시 잡았을 수 있으므로 자신의 토큰일 때만 지운다.
+     */
+    private void unlock(String lockKey, String lockToken) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), lockToken);
+        } catch (DataAccessException e) {
+            log.debug("요약 락 해제 실패: key={}, error={}", lockKey, e.getMessage());
+        }
+    }
+
+    private static RedisScript<Long> createUnlockScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/summary_lock_release.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
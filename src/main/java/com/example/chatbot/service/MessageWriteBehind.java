@@ -0,0 +1,273 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.conversation.repository.MessageRepository;
+import com.example.chatbot.entity.Message;
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 여러 요청의 메시지 저장을 모아 한 트랜잭션(한 번의 커밋)으로 처리한다.
+ * 저장은 전용 스레드에서만 실행되며, 호출자는 커밋 시 완료되는 future로 결과를 받는다.
+ *
+ * 배치는 기다리지 않고 만든다. 이전 배치를 커밋하는 동안 쌓인 메시지가 다음 배치가 되므로
+ * 한가할 때는 메시지 하나씩 바로 저장되고, 바쁠수록 배치가 커진다.
+ *
+ * {@link #await}가 시간 초과로 포기한 메시지는 아직 배치에 들어가지 않았다면 저장하지 않는다.
+ * 클라이언트는 503을 받았는데 메시지만 남아 재시도 시 같은 턴이 중복되는 일을 막는다.
+ * 이미 커밋 중이었다면 그 커밋이 끝날 때까지 한 번 더 기다려 결과를 그대로 돌려준다.
+ */
+@Slf4j
+@Component
+public class MessageWriteBehind {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final MessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageWriteBehindProperties properties;
+    private final BlockingQueue<PendingWrite> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter abandoned;
+    private volatile boolean running;
+    private ExecutorService writer;
+
+    public MessageWriteBehind(MessageRepository messageRepository,
+                              PlatformTransactionManager transactionManager,
+                              MessageWriteBehindProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1));
+
+        Gauge.builder("chat.messages.write_behind.queue_depth", queue, BlockingQueue::size)
+                .description("커밋을 기다리는 메시지 수")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("chat.messages.write_behind.batch_size")
+                .description("한 트랜잭션으로 커밋한 메시지 수")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("chat.messages.write_behind.commit").register(meterRegistry);
+        this.rejected = Counter.builder("chat.messages.write_behind.failures").tag("reason", "rejected").register(meterRegistry);
+        this.failed = Counter.builder("chat.messages.write_behind.failures").tag("reason", "failed").register(meterRegistry);
+        this.abandoned = Counter.builder("chat.messages.write_behind.failures").tag("reason", "abandoned").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) return;
+
+        running = true;
+        writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("message-writer-"));
+        writer.execute(this::drainLoop);
+    }
+
+    /**
+     * 메시지를 저장 대기열에 넣는다. afterCommit은 커밋 직후 저장 스레드에서 대기열 순서대로 호출된다.
+     * 호출자가 이미 트랜잭션 안에 있으면 커밋되지 않은 행을 저장 스레드가 볼 수 없으므로 그 트랜잭션에서 바로 저장한다.
+     */
+    public CompletableFuture<Message> submit(Message message, Consumer<Message> afterCommit) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> messageRepository.save(message));
+                afterCommit.accept(message);
+                return CompletableFuture.completedFuture(message);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        PendingWrite write = new PendingWrite(message, afterCommit);
+        if (!queue.offer(write)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new AppException(ErrorCode.SERVICE_UNAVAILABLE, "메시지 저장 대기열이 가득 찼습니다."));
+        }
+        return write.future;
+    }
+
+    /**
+     * 커밋될 때까지 기다린다. 저장된 메시지를 바로 다시 읽거나 ID가 필요한 호출자가 사용한다.
+     * 시간 안에 커밋되지 않으면 대기열의 메시지를 취소하고 SERVICE_UNAVAILABLE을 던진다.
+     */
+    public Message await(CompletableFuture<Message> future) {
+        try {
+            try {
+                return future.get(properties.getCommitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (future.cancel(false)) {
+                    abandoned.increment();
+                    throw new AppException(ErrorCode.SERVICE_UNAVAILABLE, "메시지 저장이 지연되고 있습니다.");
+                }
+                // 저장 스레드가 이미 배치에 넣었다. 커밋 결과와 응답이 어긋나지 않도록 끝날 때까지 한 번 더 기다린다.
+                return future.get(properties.getCommitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            log.error("메시지 커밋이 끝나지 않았습니다. 응답 실패 후 저장될 수 있습니다: role={}", roleOf(future));
+            throw new AppException(ErrorCode.SERVICE_UNAVAILABLE, "메시지 저장이 지연되고 있습니다.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "메시지 저장 대기 중 중단되었습니다.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "메시지 저장 실패: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 설정된 내구성 수준에 따라 호출자가 기다려야 할 시점을 돌려준다.
+     * ENQUEUE면 대기열에 들어간 즉시 완료된 것으로 본다.
+     */
+    public CompletableFuture<?> acknowledgement(CompletableFuture<Message> future) {
+        if (properties.getDurability() == MessageWriteBehindProperties.Durability.ENQUEUE && !future.isCompletedExceptionally()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return future;
+    }
+
+    private void drainLoop() {
+        int maxBatchSize = Math.max(properties.getMaxBatchSize(), 1);
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                // 호출자가 기다리다 포기한 메시지는 저장하지 않는다.
+                batch.removeIf(write -> !write.claim());
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("메시지 저장 스레드 오류", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        batchSizes.record(batch.size());
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                for (PendingWrite write : batch) {
+                    messageRepository.save(write.message);
+                }
+            }));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // 메시지 하나 때문에 배치 전체가 실패하지 않도록 개별 트랜잭션으로 다시 저장한다.
+            log.warn("메시지 배치 저장 실패, 개별 저장으로 재시도: size={}, error={}", batch.size(), e.getMessage());
+            for (PendingWrite write : batch) {
+                write.message.setId(null);
+                flush(List.of(write));
+            }
+            return;
+        }
+
+        for (PendingWrite write : batch) {
+            try {
+                write.afterCommit.accept(write.message);
+            } catch (RuntimeException e) {
+                log.warn("메시지 저장 후처리 실패: messageId={}, error={}", write.message.getId(), e.getMessage());
+            }
+            write.future.complete(write.message);
+        }
+    }
+
+    private void fail(PendingWrite write, RuntimeException e) {
+        failed.increment();
+        log.error("메시지 저장 실패: role={}, error={}", write.message.getRole(), e.getMessage());
+        write.future.completeExceptionally(e);
+    }
+
+    private static Object roleOf(CompletableFuture<Message> future) {
+        return future instanceof PendingWrite.WriteFuture writeFuture ? writeFuture.message().getRole() : null;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (writer == null) return;
+        // 새 메시지는 호출 스레드에서 바로 저장하고, 남은 대기열은 저장 스레드가 비운 뒤 종료한다.
+        running = false;
+        writer.shutdown();
+        if (!writer.awaitTermination(properties.getCommitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("메시지 저장 대기열을 모두 비우지 못했습니다: remaining={}", queue.size());
+            writer.shutdownNow();
+        }
+    }
+
+    static final class PendingWrite {
+
+        private static final int PENDING = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Message message;
+        private final Consumer<Message> afterCommit;
+        private final WriteFuture future = new WriteFuture();
+        // 저장 스레드가 배치에 넣는 것(CLAIMED)과 호출자가 포기하는 것(CANCELLED) 중 먼저 일어난 쪽으로 한 번만 정해진다.
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private PendingWrite(Message message, Consumer<Message> afterCommit) {
+            this.message = message;
+            this.afterCommit = afterCommit;
+        }
+
+        private boolean claim() {
+            return state.compareAndSet(PENDING, CLAIMED);
+        }
+
+        /**
+         * 아직 배치에 들어가지 않았을 때만 취소된다.
+         */
+        final class WriteFuture extends CompletableFuture<Message> {
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return state.compareAndSet(PENDING, CANCELLED) && super.cancel(mayInterruptIfRunning);
+            }
+
+            private Message message() {
+                return message;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.chatbot.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.chat.write-behind")
+public class MessageWriteBehindProperties {
+
+    // false면 호출 스레드에서 메시지마다 바로 저장한다.
+    private boolean enabled = true;
+
+    private Durability durability = Durability.COMMIT;
+
+    // 한 트랜잭션으로 묶을 최대 메시지 수
+    private int maxBatchSize = 100;
+
+    // 저장 대기열 크기. 가득 차면 새 메시지는 바로 거절된다.
+    private int queueCapacity = 10_000;
+
+    // 호출자가 커밋을 기다리는 최대 시간
+    private Duration commitTimeout = Duration.ofSeconds(5);
+
+    public enum Durability {
+        // 스트림 종료(done) 이벤트도 응답 메시지가 커밋된 뒤에 보낸다.
+        COMMIT,
+        // 스트림 응답 메시지는 대기열에 넣는 즉시 done을 보낸다. 커밋 전에 노드가 죽으면 유실될 수 있다.
+        ENQUEUE
+    }
+}
@@ -1,117 +1,261 @@
 package com.example.chatbot.service;
 
 import com.example.chatbot.config.OpenAiConfig;
-import com.example.chatbot.dto.openai.ChatCompletionChunkResponse;
+import com.example.chatbot.dto.openai.ChatCompletionResult;
 import com.example.chatbot.dto.openai.ChatRequest;
 import com.example.chatbot.dto.openai.ChatResponse;
 import com.example.chatbot.dto.openai.OpenAiMessage;
 import com.example.chatbot.global.error.AppException;
 import com.example.chatbot.global.error.ErrorCode;
+import com.example.chatbot.global.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.chatbot.upstream.AdaptiveStreamTimeouts;
+import com.example.chatbot.upstream.Bulkhead;
+import com.example.chatbot.upstream.ChatStreamDecoder;
+import com.example.chatbot.upstream.HedgedCall;
+import com.example.chatbot.upstream.SingleFlight;
+import com.example.chatbot.upstream.UpstreamEndpoint;
+import com.example.chatbot.upstream.UpstreamEndpoints;
+import com.example.chatbot.upstream.UpstreamProperties;
+import com.example.chatbot.upstream.UpstreamUnavailableException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OpenAiService {
 
-    private final WebClient openAiWebClient;
+    private final UpstreamEndpoints openAiEndpoints;
     private final OpenAiConfig openAiConfig;
     private final ObjectMapper objectMapper;
+    private final UpstreamProperties upstreamProperties;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ChatMetrics chatMetrics;
+    private final SingleFlight<ChatCompletionResult> inFlightCompletions;
+    private final SingleFlight<String> inFlightStreams;
+    private final HedgedCall hedgedCompletions;
+    private final AdaptiveStreamTimeouts streamTimeouts;
+    private final Bulkhead completionBulkhead;
+    private final Bulkhead streamBulkhead;
 
+    public OpenAiService(UpstreamEndpoints openAiEndpoints,
+                         OpenAiConfig openAiConfig,
+                         ObjectMapper objectMapper,
+                         UpstreamProperties upstreamProperties,
+                         AdaptiveConcurrencyLimiter concurrencyLimiter,
+                         ChatMetrics chatMetrics,
+                         MeterRegistry meterRegistry) {
+        this.openAiEndpoints = openAiEndpoints;
+        this.openAiConfig = openAiConfig;
+        this.objectMapper = objectMapper;
+        this.upstreamProperties = upstreamProperties;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.chatMetrics = chatMetrics;
+        this.inFlightCompletions = new SingleFlight<>("completion", meterRegistry);
+        this.inFlightStreams = new SingleFlight<>("stream", meterRegistry);
+        this.hedgedCompletions = new HedgedCall("completion", upstreamProperties.getHedging(), meterRegistry);
+        this.streamTimeouts = new AdaptiveStreamTimeouts(upstreamProperties.getStreamTimeouts(), meterRegistry);
+        this.completionBulkhead = new Bulkhead("completion", upstreamProperties.getCompletionBulkhead(),
+                upstreamProperties.getFairScheduling(), meterRegistry);
+        this.streamBulkhead = new Bulkhead("stream", upstreamProperties.getStreamBulkhead(),
+                upstreamProperties.getFairScheduling(), meterRegistry);
+    }
+
+    /**
+     * 사용자 요청이 아닌 백그라운드 호출(대화 요약 등). 벌크헤드에서는 공용 대기열을 쓴다.
+     */
     public String createChatCompletion(List<OpenAiMessage> messages) {
+        return createChatCompletionResult(null, messages).getContent();
+    }
+
+    /**
+     * 모델의 서킷이 모든 엔드포인트에서 열려 있으면 UpstreamUnavailableException.
+     * 스트림은 응답을 연 뒤에는 상태 코드로 알릴 수 없으므로 열기 전에 확인한다.
+     */
+    public void ensureAvailable() {
+        openAiEndpoints.ensureAvailable(openAiConfig.getModel());
+    }
+
+    /**
+     * 모델과 컨텍스트가 같은 요청이 진행 중이면 새로 호출하지 않고 그 응답을 함께 받는다.
+     * 최근 지연 백분위 안에 응답이 없으면 예산 안에서 한 번 더 호출해 먼저 온 응답을 쓴다.
+     * 비스트리밍 전용 벌크헤드 자리를 얻은 요청만 진행한다. 자리를 기다리는 동안은 사용자별 대기열에 들어간다.
+     */
+    public ChatCompletionResult createChatCompletionResult(Long userId, List<OpenAiMessage> messages) {
         log.info("OpenAI API 호출: model={}, messages={}", openAiConfig.getModel(), messages.size());
 
         try {
+            ChatCompletionResult result = completionBulkhead.execute(userId, () -> shared(inFlightCompletions, messages,
+                            () -> hedgedCompletions.execute(() -> requestCompletion(messages)).flux()))
+                    .next()
+                    .block();
+            if (result == null) {
+                throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "OpenAI API 응답이 비어있습니다.");
+            }
+            return result;
+
+        } catch (WebClientResponseException e) {
+            log.error("OpenAI API 호출 에러: code={}, body={}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "OpenAI API 호출 실패: " + e.getMessage());
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("예상치 못한 에러: ", e);
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "OpenAI 서비스 에러: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 호출마다 엔드포인트를 고른다. 헤징으로 보낸 두 번째 호출은 다른 엔드포인트로 갈 수 있다.
+     */
+    private Mono<ChatCompletionResult> requestCompletion(List<OpenAiMessage> messages) {
+        return Mono.defer(() -> {
+            UpstreamEndpoint endpoint = openAiEndpoints.pick(openAiConfig.getModel());
+            UpstreamEndpoint.Call call = endpoint.begin(openAiConfig.getModel());
+            long started = System.nanoTime();
             ChatRequest request = ChatRequest.builder()
-                    .model(openAiConfig.getModel())
+                    .model(endpoint.modelFor(openAiConfig.getModel()))
                     .messages(messages)
                     .stream(false)
                     .build();
 
-            ChatResponse response = openAiWebClient.post()
+            return endpoint.getWebClient().post()
                     .uri("/v1/chat/completions")
                     .bodyValue(request)
                     .retrieve()
-                    .onStatus(HttpStatusCode::is4xxClientError, clientResponse ->
-                            clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> Mono.error(new AppException(
-                                            ErrorCode.INTERNAL_SERVER_ERROR,
-                                            "OpenAI API 클라이언트 에러: " + errorBody))))
-                    .onStatus(HttpStatusCode::is5xxServerError, clientResponse ->
-                            clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> Mono.error(new AppException(
-                                            ErrorCode.INTERNAL_SERVER_ERROR,
-                                            "OpenAI API 서버 에러: " + errorBody))))
+                    .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> {
+                        failCompletion(call, clientResponse.statusCode());
+                        return clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new AppException(
+                                        ErrorCode.INTERNAL_SERVER_ERROR,
+                                        "OpenAI API 클라이언트 에러: " + errorBody)));
+                    })
+                    .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> {
+                        failCompletion(call, clientResponse.statusCode());
+                        return clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new AppException(
+                                        ErrorCode.INTERNAL_SERVER_ERROR,
+                                        "OpenAI API 서버 에러: " + errorBody)));
+                    })
+                    .onStatus(HttpStatusCode::is2xxSuccessful, clientResponse -> {
+                        // 200 본문의 디코딩/검증 실패가 전송 실패로 기록되지 않도록 상태를 받은 시점을 남긴다.
+                        call.responded();
+                        return Mono.empty();
+                    })
                     .bodyToMono(ChatResponse.class)
-                    .block();
+                    .map(this::toResult)
+                    .doOnNext(result -> {
+                        call.succeed();
+                        long elapsed = System.nanoTime() - started;
+                        concurrencyLimiter.recordCompletionLatency(elapsed);
+                        chatMetrics.upstream(openAiConfig.getModel()).recordCompletion(elapsed, result.getCompletionTokens());
+                    })
+                    .doOnError(error -> {
+                        if (call.fail(error)) concurrencyLimiter.recordCompletionFailure();
+                    })
+                    .doFinally(signal -> call.end());
+        }).doOnError(UpstreamUnavailableException.class, e -> concurrencyLimiter.recordCompletionFailure());
+    }
 
-            validateResponse(response);
-            return response.getChoices().get(0).getMessage().getContent();
+    /**
+     * 429/5xx는 지연 표본이 없으므로 동시 처리 한도에 실패 신호로 넘긴다. 4xx는 요청 문제라 넘기지 않는다.
+     */
+    private void failCompletion(UpstreamEndpoint.Call call, HttpStatusCode status) {
+        if (call.fail(status)) concurrencyLimiter.recordCompletionFailure();
+    }
 
-        } catch (WebClientResponseException e) {
-            log.error("OpenAI API 호출 에러: code={}, body={}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "OpenAI API 호출 실패: " + e.getMessage());
-        } catch (AppException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("예상치 못한 에러: ", e);
-            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "OpenAI 서비스 에러: " + e.getMessage());
+    private ChatCompletionResult toResult(ChatResponse response) {
+        validateResponse(response);
+        String content = response.getChoices().get(0).getMessage().getContent();
+        ChatResponse.Usage usage = response.getUsage();
+        if (usage == null) {
+            return new ChatCompletionResult(content, null, null);
         }
+        return new ChatCompletionResult(content, usage.getPrompt_tokens(), usage.getCompletion_tokens());
     }
 
-    public Flux<String> createChatCompletionStream(List<OpenAiMessage> messages) {
+    public Flux<String> createChatCompletionStream(Long userId, List<OpenAiMessage> messages) {
         log.info("OpenAI API 스트리밍 호출: model={}, messages={}", openAiConfig.getModel(), messages.size());
 
-        ChatRequest request = ChatRequest.builder()
-                .model(openAiConfig.getModel())
-                .messages(messages)
-                .stream(true)
-                .build();
-
-        return openAiWebClient.post()
-                .uri("/v1/chat/completions")
-                .bodyValue(request)
-                .retrieve()
-                .onStatus(HttpStatusCode::isError, response -> response.bodyToMono(String.class)
-                        .flatMap(errorBody -> Mono.error(new AppException(
-                                ErrorCode.INTERNAL_SERVER_ERROR,
-                                "OpenAI API 에러: " + errorBody))))
-                .bodyToFlux(String.class)
-                .doOnNext(body -> log.debug("WebClient RAW BODY: '{}'", body))
-                .flatMap(responseBody -> Flux.fromArray(responseBody.split("\n")))
-                .map(line -> {
-                    if (line.startsWith("data:")) {
-                        return line.substring(5).trim();
-                    }
-                    return line.trim();
-                })
-                .filter(data -> !data.isEmpty() && !"[DONE]".equals(data))
-                .map(data -> {
-                    log.debug("SSE Data 파싱 시도: '{}'", data);
-                    try {
-                        ChatCompletionChunkResponse chunk =
-                                objectMapper.readValue(data, ChatCompletionChunkResponse.class);
-                        if (chunk.getChoices() != null && !chunk.getChoices().isEmpty()) {
-                            String content = chunk.getChoices().get(0).getDelta().getContent();
-                            return content != null ? content : "";
+        // 늦게 합류한 스트림은 이미 나온 토큰을 처음부터 받은 뒤 이어서 받는다.
+        return streamBulkhead.execute(userId, () -> shared(inFlightStreams, messages, () -> streamCompletion(messages)));
+    }
+
+    private Flux<String> streamCompletion(List<OpenAiMessage> messages) {
+        // 디코더는 버퍼 경계에 걸친 줄을 들고 있으므로 구독마다 새로 만든다.
+        return Flux.defer(() -> {
+            UpstreamEndpoint endpoint = openAiEndpoints.pick(openAiConfig.getModel());
+            UpstreamEndpoint.Call call = endpoint.begin(openAiConfig.getModel());
+            long started = System.nanoTime();
+            AtomicBoolean firstChunk = new AtomicBoolean(true);
+            ChatMetrics.StreamTimer timer = chatMetrics.upstream(openAiConfig.getModel()).startStream();
+            ChatRequest request = ChatRequest.builder()
+                    .model(endpoint.modelFor(openAiConfig.getModel()))
+                    .messages(messages)
+                    .stream(true)
+                    .build();
+
+            Flux<DataBuffer> body = endpoint.getWebClient().post()
+                    .uri("/v1/chat/completions")
+                    .bodyValue(request)
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, response -> {
+                        if (call.fail(response.statusCode())) concurrencyLimiter.recordStreamFailure();
+                        return response.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new AppException(
+                                        ErrorCode.INTERNAL_SERVER_ERROR,
+                                        "OpenAI API 에러: " + errorBody)));
+                    })
+                    .bodyToFlux(DataBuffer.class);
+
+            ChatStreamDecoder decoder = new ChatStreamDecoder(objectMapper.getFactory());
+            // 스트림은 첫 청크까지의 시간을 엔드포인트 지연과 동시 처리 한도의 표본으로 기록한다.
+            // 첫 청크 전 타임아웃과 429/5xx, 서킷 거절은 표본 대신 실패 신호로 넘긴다.
+            return streamTimeouts.apply(body)
+                    .doOnNext(buffer -> {
+                        call.succeed();
+                        if (firstChunk.compareAndSet(true, false)) {
+                            concurrencyLimiter.recordStreamLatency(System.nanoTime() - started);
                         }
-                        return "";
-                    } catch (Exception e) {
-                        log.error("JSON 파싱 에러: {}", data, e);
-                        return "";
-                    }
-                })
-                .filter(content -> !content.isEmpty());
+                    })
+                    .doOnError(error -> {
+                        if (call.fail(error)) concurrencyLimiter.recordStreamFailure();
+                    })
+                    .doFinally(signal -> call.end())
+                    .concatMapIterable(decoder::decode)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                    .doOnNext(token -> timer.onToken())
+                    .doOnComplete(() -> {
+                        timer.complete();
+                        logFinishReason(decoder);
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        }).doOnError(UpstreamUnavailableException.class, e -> concurrencyLimiter.recordStreamFailure());
+    }
+
+    private <T> Flux<T> shared(SingleFlight<T> inFlight, List<OpenAiMessage> messages, Supplier<Flux<T>> call) {
+        if (!upstreamProperties.getSingleFlight().isEnabled()) {
+            return call.get();
+        }
+        return inFlight.execute(CompletionKey.exact(openAiConfig.getModel(), messages), call);
+    }
+
+    private void logFinishReason(ChatStreamDecoder decoder) {
+        String finishReason = decoder.getFinishReason();
+        if (finishReason != null && !"stop".equals(finishReason)) {
+            log.warn("OpenAI 스트리밍 응답이 정상 종료되지 않았습니다: finishReason={}", finishReason);
+        }
     }
 
     private void validateResponse(ChatResponse response) {
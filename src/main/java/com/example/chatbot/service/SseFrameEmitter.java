@@ -0,0 +1,36 @@
+package com.example.chatbot.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+
+/**
+ * {@link SseFrames}로 미리 만든 SSE 프레임을 그대로 쓰는 text/event-stream 응답.
+ * SseEmitter는 send할 때마다 데이터를 data: 줄로 감싸므로, 완성된 프레임은 ResponseBodyEmitter로 바로 쓴다.
+ */
+public class SseFrameEmitter extends ResponseBodyEmitter {
+
+    public SseFrameEmitter(Long timeout) {
+        super(timeout);
+    }
+
+    @Override
+    protected void extendResponse(ServerHttpResponse outputMessage) {
+        super.extendResponse(outputMessage);
+
+        HttpHeaders headers = outputMessage.getHeaders();
+        if (headers.getContentType() == null) {
+            headers.setContentType(MediaType.TEXT_EVENT_STREAM);
+        }
+    }
+
+    /**
+     * 프레임 하나를 쓴다. byte[] 는 ByteArrayHttpMessageConverter가 복사 없이 쓴다.
+     */
+    public void sendFrame(byte[] frame) throws IOException {
+        send(frame, MediaType.TEXT_EVENT_STREAM);
+    }
+}
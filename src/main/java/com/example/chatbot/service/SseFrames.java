@@ -0,0 +1,39 @@
+package com.example.chatbot.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 클라이언트로 보내는 SSE 프레임을 UTF-8 바이트로 미리 만들어 둔다.
+ * SseEmitter.event() 는 이벤트마다 이름/데이터 조각을 나눠 쓰고 데이터는 Jackson으로 직렬화하지만,
+ * 여기서 만든 프레임은 {@link SseFrameEmitter}로 바이트 배열 하나씩 한 번에 쓰인다. 와이어 형식은 SseEmitter.event() 와 같다.
+ */
+public final class SseFrames {
+
+    private static final byte[] TOKEN_PREFIX = "event:token\ndata:{\"text\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOKEN_SUFFIX = "\"}\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DONE_FRAME = "event:done\ndata:[DONE]\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private SseFrames() {
+    }
+
+    /**
+     * event:token, data:{"text":"..."} 프레임
+     */
+    public static byte[] token(CharSequence text) {
+        byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(text.toString());
+        byte[] frame = new byte[TOKEN_PREFIX.length + quoted.length + TOKEN_SUFFIX.length];
+        System.arraycopy(TOKEN_PREFIX, 0, frame, 0, TOKEN_PREFIX.length);
+        System.arraycopy(quoted, 0, frame, TOKEN_PREFIX.length, quoted.length);
+        System.arraycopy(TOKEN_SUFFIX, 0, frame, TOKEN_PREFIX.length + quoted.length, TOKEN_SUFFIX.length);
+        return frame;
+    }
+
+    /**
+     * event:done, data:[DONE] 프레임. 쓰기 전용이므로 복사하지 않고 같은 배열을 돌려준다.
+     */
+    public static byte[] done() {
+        return DONE_FRAME;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.chatbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 업스트림 토큰을 모아 클라이언트 SSE 프레임으로 쓴다.
+ * 첫 토큰은 time-to-first-token을 지키기 위해 바로 보내고, 이후 토큰은 maxDelay 또는 maxBytes 중
+ * 먼저 닿는 조건에서 한 프레임으로 합쳐 보낸다. 토큰마다 직렬화, 쓰기, flush를 하지 않는다.
+ */
+@Slf4j
+@Component
+public class SseTokenWriter {
+
+    private final StreamCoalescingProperties properties;
+    private final Scheduler streamBlockingScheduler;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Counter tokens;
+    private final Counter frames;
+    private final Timer writes;
+
+    public SseTokenWriter(StreamCoalescingProperties properties,
+                          Scheduler streamBlockingScheduler,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.streamBlockingScheduler = streamBlockingScheduler;
+        // 타이머 스레드는 모든 스트림이 공유하므로 flush 시점만 알린다.
+        // 블로킹 쓰기는 streamBlockingScheduler에서 실행해 느린 클라이언트 하나가 다른 스트림의 flush를 늦추지 않게 한다.
+        this.timer = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("sse-coalesce-"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.tokens = Counter.builder("chat.stream.tokens").register(meterRegistry);
+        this.frames = Counter.builder("chat.stream.frames").register(meterRegistry);
+        // 프레임마다 한 번 기록한다. 느린 클라이언트 때문에 쓰기가 막히는지 본다.
+        this.writes = Timer.builder("chat.sse.write")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(meterRegistry);
+    }
+
+    public TokenStream open(SseFrameEmitter emitter) {
+        return new TokenStream(emitter);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * 스트림 하나의 토큰 버퍼. 업스트림 스레드와 타이머가 함께 접근하므로 잠금 안에서만 버퍼를 건드린다.
+     * 프레임은 잠금 안에서 꺼내고 전송은 잠금 밖에서 한다. 느린 클라이언트에 쓰기가 막혀도
+     * content()와 close()는 기다리지 않는다. 전송은 한 번에 하나만 하고(sending), 전송 중에 온 토큰은
+     * 버퍼에 모아 두었다가 전송을 마친 스레드가 이어서 보낸다.
+     * 가상 스레드에서 캐리어가 고정되지 않도록 synchronized 대신 ReentrantLock을 쓴다.
+     */
+    public class TokenStream {
+
+        private final SseFrameEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        // 전송 중인 프레임이 없어질 때 알린다. finish가 마지막 프레임 순서를 지키려고 기다린다.
+        private final Condition idle = lock.newCondition();
+        private final StringBuilder pending = new StringBuilder();
+        // 정산과 저장에 쓰는 전체 응답. 클라이언트가 끊긴 뒤에도 업스트림 토큰은 계속 모은다.
+        private final StringBuilder content = new StringBuilder();
+        private int pendingBytes;
+        private int pendingTokens;
+        private boolean firstSent;
+        private boolean sending;
+        private boolean closed;
+        private ScheduledFuture<?> scheduledFlush;
+
+        private TokenStream(SseFrameEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        public void append(String token) {
+            byte[] frame = null;
+            lock.lock();
+            try {
+                content.append(token);
+                if (closed) return;
+                pending.append(token);
+                pendingBytes += utf8Length(token);
+                pendingTokens++;
+
+                if (!firstSent || !properties.isEnabled() || pendingBytes >= properties.getMaxBytes()) {
+                    frame = takeFrameLocked();
+                } else if (scheduledFlush == null && !sending) {
+                    frame = scheduleFlush();
+                }
+            } finally {
+                lock.unlock();
+            }
+            send(frame);
+        }
+
+        /**
+         * 지금까지 받은 전체 응답. 취소나 타임아웃 콜백처럼 다른 스레드에서 읽어도 되도록 잠금 안에서 복사한다.
+         * 전송 중에도 잠금을 잡고 있지 않으므로 막히지 않는다.
+         */
+        public String content() {
+            lock.lock();
+            try {
+                return content.toString();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 남은 토큰을 보낸다. 이후 전송은 하지 않는다.
+         * 이 다음에 보내는 done 프레임이 토큰보다 앞서지 않도록 전송 중인 프레임이 끝날 때까지 기다린다.
+         */
+        public void finish() {
+            byte[] frame;
+            lock.lock();
+            try {
+                while (sending && !closed) {
+                    idle.awaitUninterruptibly();
+                }
+                if (closed) return;
+                frame = takeFrameLocked();
+                closeLocked();
+            } finally {
+                lock.unlock();
+            }
+            send(frame);
+        }
+
+        /**
+         * 에러나 연결 종료 시 호출한다. 남은 토큰은 버린다. 전송 중인 프레임을 기다리지 않는다.
+         */
+        public void close() {
+            lock.lock();
+            try {
+                closeLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private byte[] scheduleFlush() {
+            try {
+                scheduledFlush = timer.schedule(() -> streamBlockingScheduler.schedule(this::timedFlush),
+                        properties.getMaxDelay().toNanos(), TimeUnit.NANOSECONDS);
+                return null;
+            } catch (RejectedExecutionException e) {
+                // 종료 중이면 타이머 없이 바로 보낸다.
+                return takeFrameLocked();
+            }
+        }
+
+        private void timedFlush() {
+            byte[] frame = null;
+            lock.lock();
+            try {
+                scheduledFlush = null;
+                if (!closed) {
+                    frame = takeFrameLocked();
+                }
+            } finally {
+                lock.unlock();
+            }
+            send(frame);
+        }
+
+        /**
+         * 모인 토큰을 프레임으로 꺼내고 버퍼를 비운다. 이미 전송 중이면 null을 돌려주고
+         * 토큰은 전송 중인 스레드가 이어서 보낸다. 프레임을 돌려주면 호출자가 잠금 밖에서 send로 보내야 한다.
+         */
+        private byte[] takeFrameLocked() {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (sending || pendingTokens == 0) return null;
+
+            byte[] frame = SseFrames.token(pending);
+            tokens.increment(pendingTokens);
+            frames.increment();
+            pending.setLength(0);
+            pendingBytes = 0;
+            pendingTokens = 0;
+            firstSent = true;
+            sending = true;
+            return frame;
+        }
+
+        /**
+         * 잠금 밖에서 프레임을 보낸다. 보내는 동안 쌓인 토큰이 있으면 이어서 보낸다.
+         */
+        private void send(byte[] frame) {
+            while (frame != null) {
+                long started = System.nanoTime();
+                boolean sent = false;
+                try {
+                    emitter.sendFrame(frame);
+                    writes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    sent = true;
+                } catch (IOException | IllegalStateException e) {
+                    // 클라이언트가 끊긴 경우. 정리는 emitter 콜백에서 한다.
+                    log.debug("SSE 토큰 전송 실패: {}", e.getMessage());
+                }
+
+                lock.lock();
+                try {
+                    sending = false;
+                    if (!sent) {
+                        closeLocked();
+                    }
+                    frame = closed ? null : takeFrameLocked();
+                    if (frame == null) {
+                        idle.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void closeLocked() {
+            closed = true;
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            pending.setLength(0);
+            idle.signalAll();
+        }
+    }
+
+    static int utf8Length(String text) {
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // 서로게이트 쌍은 두 char가 합쳐 4바이트가 된다.
+                bytes += 1;
+            } else if (c >= 0x800) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.chatbot.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.chat.stream-coalescing")
+public class StreamCoalescingProperties {
+
+    // false면 업스트림 토큰마다 프레임 하나를 바로 보낸다.
+    private boolean enabled = true;
+
+    // 첫 토큰 이후 모인 토큰을 내보내기까지 기다리는 최대 시간
+    private Duration maxDelay = Duration.ofMillis(50);
+
+    // 모인 토큰의 UTF-8 크기가 이 값을 넘으면 시간과 무관하게 바로 내보낸다.
+    private int maxBytes = 1024;
+}
@@ -0,0 +1,45 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.config.OpenAiConfig;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 설정된 openai.model과 같은 BPE 인코딩으로 토큰 수를 로컬에서 계산한다 (네트워크 호출 없음).
+ */
+@Slf4j
+@Component
+public class TokenCounter {
+
+    // chat 포맷에서 메시지마다 붙는 role/구분자 토큰과 응답 시작 토큰
+    public static final int TOKENS_PER_MESSAGE = 3;
+    public static final int REPLY_PRIMING_TOKENS = 3;
+
+    private final Encoding encoding;
+
+    public TokenCounter(OpenAiConfig openAiConfig) {
+        EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+        this.encoding = registry.getEncodingForModel(openAiConfig.getModel())
+                .orElseGet(() -> {
+                    log.warn("모델에 맞는 토크나이저가 없어 o200k_base를 사용합니다: model={}", openAiConfig.getModel());
+                    return registry.getEncoding(EncodingType.O200K_BASE);
+                });
+    }
+
+    public int count(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        // 사용자 입력에 포함된 특수 토큰 문자열도 일반 텍스트로 취급한다.
+        return encoding.countTokensOrdinary(text);
+    }
+
+    public String truncate(String text, int maxTokens) {
+        if (text == null || text.isEmpty()) return text;
+        EncodingResult result = encoding.encodeOrdinary(text, Math.max(maxTokens, 0));
+        return result.isTruncated() ? encoding.decode(result.getTokens()) : text;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 스트림의 첫 바이트 대기(TTFB)와 청크 사이 유휴 시간을 최근 분포의 백분위 × 배수로 제한한다.
+ * 고정 응답 타임아웃과 달리 긴 답변도 청크가 계속 오는 동안은 끊지 않고, 멈춘 스트림은 평소 간격에 맞춰 빨리 끊는다.
+ */
+public class AdaptiveStreamTimeouts {
+
+    private final UpstreamProperties.StreamTimeouts properties;
+    private final RollingLatencyHistogram firstByteLatencies;
+    private final RollingLatencyHistogram idleGaps;
+    private final Counter firstByteTimeouts;
+    private final Counter idleTimeouts;
+
+    public AdaptiveStreamTimeouts(UpstreamProperties.StreamTimeouts properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.firstByteLatencies = new RollingLatencyHistogram(properties.getWindow(), 10);
+        this.idleGaps = new RollingLatencyHistogram(properties.getWindow(), 10);
+        this.firstByteTimeouts = Counter.builder("upstream.stream.timeouts").tag("phase", "first_byte")
+                .register(meterRegistry);
+        this.idleTimeouts = Counter.builder("upstream.stream.timeouts").tag("phase", "idle")
+                .register(meterRegistry);
+        Gauge.builder("upstream.stream.timeout", this, timeouts -> timeouts.firstByteTimeout().toMillis())
+                .tag("phase", "first_byte")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("upstream.stream.timeout", this, timeouts -> timeouts.idleTimeout().toMillis())
+                .tag("phase", "idle")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Flux<T> apply(Flux<T> body) {
+        if (!properties.isEnabled()) {
+            return body;
+        }
+        return Flux.defer(() -> {
+            Duration firstByte = firstByteTimeout();
+            Duration idle = idleTimeout();
+            long[] last = {System.nanoTime()};
+            boolean[] received = {false};
+
+            return body
+                    .doOnNext(item -> {
+                        long now = System.nanoTime();
+                        (received[0] ? idleGaps : firstByteLatencies).record(now - last[0]);
+                        received[0] = true;
+                        last[0] = now;
+                    })
+                    .timeout(Mono.delay(firstByte), item -> Mono.delay(idle))
+                    .onErrorMap(TimeoutException.class, e -> {
+                        (received[0] ? idleTimeouts : firstByteTimeouts).increment();
+                        return new AppException(ErrorCode.INTERNAL_SERVER_ERROR, received[0]
+                                ? "OpenAI 스트리밍 응답이 " + idle.toMillis() + "ms 동안 멈췄습니다."
+                                : "OpenAI 스트리밍 첫 응답이 " + firstByte.toMillis() + "ms 안에 오지 않았습니다.");
+                    });
+        });
+    }
+
+    Duration firstByteTimeout() {
+        return adaptive(firstByteLatencies, properties.getFirstByteMin(), properties.getFirstByteMax());
+    }
+
+    Duration idleTimeout() {
+        return adaptive(idleGaps, properties.getIdleMin(), properties.getIdleMax());
+    }
+
+    private Duration adaptive(RollingLatencyHistogram histogram, Duration min, Duration max) {
+        if (histogram.count() < properties.getMinSamples()) return max;
+        Duration percentile = histogram.percentile(properties.getPercentile());
+        if (percentile == null) return max;
+
+        long millis = (long) (percentile.toMillis() * properties.getMultiplier());
+        return Duration.ofMillis(Math.min(Math.max(millis, min.toMillis()), max.toMillis()));
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 동시 실행 수와 대기열 길이를 제한한다. 자리가 없으면 대기열에서 max-wait까지 기다리고,
+ * 대기열도 가득 찼거나 기다리다 시간이 지나면 바로 실패한다. 스트리밍과 비스트리밍이 서로 자리를 뺏지 않도록 따로 둔다.
+ * 대기열은 사용자별로 나뉘어 있고, 자리가 나면 {@link FairQueue}가 사용자와 등급을 번갈아 가며 다음 호출을 고른다.
+ * 그래서 한 사용자가 요청을 몰아 보내도 다른 사용자의 호출은 자기 차례에 자리를 받는다.
+ */
+public class Bulkhead {
+
+    // 사용자 없이 들어온 호출(요약 등 백그라운드 작업)이 쓰는 대기열
+    private static final String SYSTEM_KEY = "system";
+    private static final String DEFAULT_TIER = "default";
+
+    private final String name;
+    private final UpstreamProperties.Bulkhead properties;
+    private final UpstreamProperties.FairScheduling fairScheduling;
+    private final MeterRegistry meterRegistry;
+    private final FairQueue<Waiter> waiters = new FairQueue<>();
+    private final Map<String, QueueMeters> queueMeters = new HashMap<>();
+    private final Counter rejected;
+    private final Counter userRejected;
+    private final Counter timedOut;
+    private int active;
+    private long lastSweptAt = System.nanoTime();
+
+    public Bulkhead(String name, UpstreamProperties.Bulkhead properties, MeterRegistry meterRegistry) {
+        this(name, properties, new UpstreamProperties.FairScheduling(), meterRegistry);
+    }
+
+    public Bulkhead(String name, UpstreamProperties.Bulkhead properties,
+                    UpstreamProperties.FairScheduling fairScheduling, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.fairScheduling = fairScheduling;
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("upstream.bulkhead.rejected").tag("type", name).tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.userRejected = Counter.builder("upstream.bulkhead.rejected").tag("type", name)
+                .tag("reason", "user_queue_full")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("upstream.bulkhead.rejected").tag("type", name).tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("upstream.bulkhead.active", this, Bulkhead::activeCount).tag("type", name)
+                .register(meterRegistry);
+        Gauge.builder("upstream.bulkhead.queued", this, Bulkhead::queuedCount).tag("type", name)
+                .register(meterRegistry);
+    }
+
+    public <T> Flux<T> execute(Supplier<Flux<T>> call) {
+        return execute(null, call);
+    }
+
+    /**
+     * userId가 null이면 백그라운드 호출로 보고 기본 등급의 공용 대기열에 넣는다.
+     */
+    public <T> Flux<T> execute(Long userId, Supplier<Flux<T>> call) {
+        return acquire(userId).flatMapMany(permit -> Flux.defer(call).doFinally(signal -> permit.release()));
+    }
+
+    private Mono<Permit> acquire(Long userId) {
+        return Mono.create(sink -> {
+            // 공정 스케줄링을 끄면 모두 한 대기열에 넣어 도착 순서대로 꺼낸다.
+            UpstreamProperties.Tier tier = fairScheduling.isEnabled() ? tierOf(userId) : null;
+            String key = fairScheduling.isEnabled() ? keyOf(userId) : SYSTEM_KEY;
+            Waiter waiter;
+            synchronized (this) {
+                QueueMeters meters = queueMeters(key, tier);
+                if (active < properties.getMaxConcurrent()) {
+                    active++;
+                    meters.wait.record(0, TimeUnit.NANOSECONDS);
+                    sink.success(new Permit());
+                    return;
+                }
+                if (waiters.size() >= properties.getMaxQueue()) {
+                    rejected.increment();
+                    sink.error(busy("대기열이 가득 찼습니다."));
+                    return;
+                }
+                if (fairScheduling.isEnabled() && waiters.size(key) >= fairScheduling.getMaxQueuePerUser()) {
+                    userRejected.increment();
+                    sink.error(busy("사용자 대기열이 가득 찼습니다."));
+                    return;
+                }
+                waiter = new Waiter(sink, key, meters);
+                meters.queued++;
+                waiters.add(key, tier != null ? tier.getPriority() : 0, tier != null ? tier.getWeight() : 1, waiter);
+            }
+
+            Disposable timer = Schedulers.parallel().schedule(() -> {
+                if (waiter.abandon()) {
+                    timedOut.increment();
+                    sink.error(busy(properties.getMaxWait().toMillis() + "ms 안에 자리가 나지 않았습니다."));
+                }
+            }, properties.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+
+            sink.onCancel(() -> {
+                timer.dispose();
+                // 이미 자리를 넘겨받은 뒤 취소됐다면 자리를 돌려준다.
+                if (!waiter.abandon()) {
+                    waiter.permit.release();
+                }
+            });
+            sink.onDispose(timer);
+        });
+    }
+
+    private void releaseSlot() {
+        Waiter next;
+        synchronized (this) {
+            while ((next = waiters.poll()) != null) {
+                if (next.grant()) break;
+            }
+            if (next == null) {
+                active--;
+                return;
+            }
+            next.meters.queued--;
+            next.meters.wait.record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        // 자리는 그대로 다음 대기자에게 넘긴다.
+        next.sink.success(next.permit);
+    }
+
+    /**
+     * this 잠금 안에서 호출한다. 오래 쓰이지 않은 지표는 이때 함께 지운다.
+     * 사용자별 지표를 켜지 않으면 등급별로 모아 사용자 ID가 태그에 들어가지 않게 한다.
+     */
+    private QueueMeters queueMeters(String key, UpstreamProperties.Tier tier) {
+        long now = System.nanoTime();
+        long expiryNanos = fairScheduling.getUserMetricsExpiry().toNanos();
+        if (now - lastSweptAt >= expiryNanos) {
+            lastSweptAt = now;
+            Iterator<QueueMeters> iterator = queueMeters.values().iterator();
+            while (iterator.hasNext()) {
+                QueueMeters meters = iterator.next();
+                if (now - meters.lastUsedAt >= expiryNanos && meters.queued == 0) {
+                    meterRegistry.remove(meters.queuedGauge);
+                    meterRegistry.remove(meters.wait);
+                    iterator.remove();
+                }
+            }
+        }
+
+        String tierName = tier != null && tier.getName() != null ? tier.getName() : DEFAULT_TIER;
+        String user = fairScheduling.isPerUserMetrics() ? key : null;
+        QueueMeters meters = queueMeters.computeIfAbsent(user != null ? key : "tier:" + tierName,
+                k -> new QueueMeters(user, tierName));
+        meters.lastUsedAt = now;
+        return meters;
+    }
+
+    private UpstreamProperties.Tier tierOf(Long userId) {
+        if (userId == null) return null;
+        for (UpstreamProperties.Tier tier : fairScheduling.getTiers()) {
+            if (tier.getUserIds().contains(userId)) return tier;
+        }
+        return null;
+    }
+
+    private static String keyOf(Long userId) {
+        return userId != null ? String.valueOf(userId) : SYSTEM_KEY;
+    }
+
+    private synchronized int activeCount() {
+        return active;
+    }
+
+    private synchronized int queuedCount() {
+        return waiters.size();
+    }
+
+    private synchronized int queuedCount(QueueMeters meters) {
+        return meters.queued;
+    }
+
+    private AppException busy(String reason) {
+        return new AppException(ErrorCode.UPSTREAM_BUSY, "업스트림 " + name + " 호출이 몰려 있습니다: " + reason);
+    }
+
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                releaseSlot();
+            }
+        }
+    }
+
+    private final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final String key;
+        private final QueueMeters meters;
+        private final long enqueuedAt = System.nanoTime();
+        private final Permit permit = new Permit();
+        // 자리를 넘겨받거나(grant) 포기하거나(abandon) 둘 중 하나만 일어난다.
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Waiter(MonoSink<Permit> sink, String key, QueueMeters meters) {
+            this.sink = sink;
+            this.key = key;
+            this.meters = meters;
+        }
+
+        boolean grant() {
+            return settled.compareAndSet(false, true);
+        }
+
+        boolean abandon() {
+            if (!settled.compareAndSet(false, true)) return false;
+            synchronized (Bulkhead.this) {
+                waiters.remove(key, this);
+                meters.queued--;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 사용자(또는 등급)별 대기열 길이와 대기 시간. 대기 없이 바로 자리를 받은 호출은 0으로 기록한다.
+     */
+    private final class QueueMeters {
+
+        private final Gauge queuedGauge;
+        private final Timer wait;
+        // 아래 값은 Bulkhead 잠금으로 보호한다.
+        private int queued;
+        private long lastUsedAt;
+
+        private QueueMeters(String user, String tierName) {
+            Tags tags = Tags.of("type", name, "tier", tierName);
+            if (user != null) {
+                tags = tags.and("user", user);
+            }
+            this.queuedGauge = Gauge.builder("upstream.scheduler.queued", Bulkhead.this,
+                            bulkhead -> bulkhead.queuedCount(this))
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.wait = Timer.builder("upstream.scheduler.wait").tags(tags).register(meterRegistry);
+        }
+    }
+}
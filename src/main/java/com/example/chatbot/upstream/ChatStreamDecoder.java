@@ -0,0 +1,146 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenAI chat completion 스트림 응답을 토큰 문자열로 바꾼다. 스트림(구독) 하나에 인스턴스 하나를 쓴다.
+ * 이벤트 JSON은 객체 트리를 만들지 않고 스트리밍 파서로 choices[0].delta.content 와
+ * choices[0].finish_reason 만 읽고 나머지는 건너뛴다.
+ */
+@Slf4j
+public class ChatStreamDecoder implements SseEventFramer.EventHandler {
+
+    private static final byte[] DONE_MARKER = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+
+    private final JsonFactory jsonFactory;
+    private final SseEventFramer framer = new SseEventFramer();
+    private List<String> decoded = new ArrayList<>();
+
+    // 마지막으로 받은 finish_reason (stop, length, content_filter ...)
+    @Getter
+    private String finishReason;
+
+    // [DONE] 이벤트를 받았는지 여부. 이후 이벤트는 무시한다.
+    @Getter
+    private boolean done;
+
+    public ChatStreamDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * 버퍼 하나를 소비하고 그 안에서 완성된 토큰들을 반환한다. 버퍼는 항상 해제된다.
+     */
+    public List<String> decode(DataBuffer buffer) {
+        try {
+            framer.feed(buffer, this);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return drain();
+    }
+
+    /**
+     * 응답 본문이 끝났을 때 호출한다. 빈 줄 없이 끝난 마지막 이벤트의 토큰을 반환한다.
+     */
+    public List<String> finish() {
+        framer.finish(this);
+        return drain();
+    }
+
+    @Override
+    public void onEvent(byte[] data, int length) {
+        if (done) return;
+        if (isDoneMarker(data, length)) {
+            done = true;
+            return;
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(data, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("chunk is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                    // 첫 번째 choice만 필요하므로 나머지 본문은 읽지 않는다.
+                    String content = readFirstChoice(parser);
+                    if (content != null && !content.isEmpty()) {
+                        decoded.add(content);
+                    }
+                    return;
+                }
+                if ("error".equals(field)) {
+                    throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR,
+                            "OpenAI API 스트림 에러: " + new String(data, 0, length, StandardCharsets.UTF_8));
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            log.warn("SSE 이벤트 JSON 파싱 실패, 건너뜁니다: data={}, error={}",
+                    new String(data, 0, length, StandardCharsets.UTF_8), e.getMessage());
+        }
+    }
+
+    // 이벤트가 중간에 잘려 있으면 예외가 나므로 토큰은 choice를 끝까지 읽은 뒤에만 반영한다.
+    private String readFirstChoice(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("delta".equals(field) && value == JsonToken.START_OBJECT) {
+                content = readDeltaContent(parser);
+            } else if ("finish_reason".equals(field) && value == JsonToken.VALUE_STRING) {
+                finishReason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private String readDeltaContent(JsonParser parser) throws IOException {
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field) && value == JsonToken.VALUE_STRING) {
+                content = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private List<String> drain() {
+        if (decoded.isEmpty()) return List.of();
+        List<String> result = decoded;
+        decoded = new ArrayList<>();
+        return result;
+    }
+
+    private static boolean isDoneMarker(byte[] data, int length) {
+        if (length != DONE_MARKER.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (data[i] != DONE_MARKER[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 엔드포인트·모델 하나의 호출 결과를 최근 N건 창으로 보고, 실패율이나 느린 호출 비율이 임계치를 넘으면 연다.
+ * 열려 있는 동안은 호출하지 않고 바로 실패시킨다. open-duration이 지나면 반열림(half-open)으로 몇 건만 시험해
+ * 모두 성공하면 닫고, 하나라도 실패하면 다시 연다.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String endpoint;
+    private final String model;
+    private final UpstreamProperties.CircuitBreaker properties;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    // 아래 상태는 this로 보호한다.
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String endpoint, String model, UpstreamProperties.CircuitBreaker properties,
+                          MeterRegistry meterRegistry) {
+        this(endpoint, model, properties, meterRegistry, System::nanoTime);
+    }
+
+    CircuitBreaker(String endpoint, String model, UpstreamProperties.CircuitBreaker properties,
+                   MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.endpoint = endpoint;
+        this.model = model;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.outcomes = new byte[Math.max(properties.getWindowSize(), 1)];
+        Tags tags = Tags.of("endpoint", endpoint, "model", model);
+        this.rejected = Counter.builder("upstream.circuit_breaker.rejected").tags(tags).register(meterRegistry);
+        // 0: 닫힘, 1: 열림, 2: 반열림
+        Gauge.builder("upstream.circuit_breaker.state", this, breaker -> breaker.getState().ordinal())
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openElapsed()) {
+            transition(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    /**
+     * 자리를 차지하지 않고 호출을 받을 수 있는 상태인지만 본다. 엔드포인트 후보를 고를 때 쓴다.
+     */
+    public synchronized boolean allowsCalls() {
+        if (!properties.isEnabled()) return true;
+        State current = getState();
+        return current == State.CLOSED
+                || (current == State.HALF_OPEN && halfOpenPermits < properties.getHalfOpenCalls());
+    }
+
+    /**
+     * 지금 호출을 보내도 되는지. 허락하면 반열림 시험 호출 하나를 차지하므로 결과를 반드시 기록하거나 release해야 한다.
+     */
+    public synchronized boolean tryAcquire() {
+        if (!properties.isEnabled()) return true;
+        switch (getState()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermits < properties.getHalfOpenCalls()) {
+                    halfOpenPermits++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 결과 없이 끝난 호출(취소, 요청 자체의 문제)은 창에 넣지 않고 시험 호출 자리만 돌려준다.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onSuccess(long elapsedNanos) {
+        record(false, elapsedNanos >= properties.getSlowCallDuration().toNanos());
+    }
+
+    public synchronized void onFailure() {
+        record(true, false);
+    }
+
+    /**
+     * 다시 시도해도 될 때까지 남은 시간(초). 닫혀 있으면 0.
+     * 반열림에서 시험 호출 자리가 모두 찼다면 곧 결과가 나오므로 최소 1초 뒤에 다시 시도하게 한다.
+     */
+    public synchronized long retryAfterSeconds() {
+        State current = getState();
+        if (current == State.CLOSED) return 0;
+        if (current == State.HALF_OPEN) return 1;
+        long remaining = properties.getOpenDuration().toNanos() - (nanoClock.getAsLong() - openedAt);
+        return Math.max((remaining + 999_999_999L) / 1_000_000_000L, 1);
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (!properties.isEnabled()) return;
+        if (state == State.HALF_OPEN) {
+            // 시험 호출이 느려도 실패로 본다. 아직 회복되지 않은 것이다.
+            if (failure || slow) {
+                open("half-open 시험 호출 실패");
+            } else if (++halfOpenSuccesses >= properties.getHalfOpenCalls()) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) return;
+
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[next];
+            if ((evicted & 1) != 0) failures--;
+            if ((evicted & 2) != 0) slowCalls--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = (byte) ((failure ? 1 : 0) | (slow ? 2 : 0));
+        next = (next + 1) % outcomes.length;
+        if (failure) failures++;
+        if (slow) slowCalls++;
+
+        if (recorded < properties.getMinimumCalls()) return;
+        double failureRate = (double) failures / recorded;
+        double slowCallRate = (double) slowCalls / recorded;
+        if (failureRate >= properties.getFailureRateThreshold()) {
+            open(String.format("실패율 %.0f%%", failureRate * 100));
+        } else if (slowCallRate >= properties.getSlowCallRateThreshold()) {
+            open(String.format("느린 호출 비율 %.0f%%", slowCallRate * 100));
+        }
+    }
+
+    private void open(String reason) {
+        openedAt = nanoClock.getAsLong();
+        log.warn("업스트림 서킷 열림: endpoint={}, model={}, reason={}, openFor={}",
+                endpoint, model, reason, properties.getOpenDuration());
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (to != State.OPEN) {
+            // 반열림과 닫힘은 새 창에서 다시 센다.
+            recorded = 0;
+            next = 0;
+            failures = 0;
+            slowCalls = 0;
+            log.info("업스트림 서킷 상태 변경: endpoint={}, model={}, {} -> {}", endpoint, model, from, to);
+        }
+        Counter.builder("upstream.circuit_breaker.transitions")
+                .tags("endpoint", endpoint, "model", model, "from", from.name(), "to", to.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private boolean openElapsed() {
+        return nanoClock.getAsLong() - openedAt >= properties.getOpenDuration().toNanos();
+    }
+}
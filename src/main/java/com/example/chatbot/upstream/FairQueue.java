@@ -0,0 +1,91 @@
+package com.example.chatbot.upstream;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 키(사용자)별 대기열을 deficit round robin으로 꺼낸다. 호출 하나의 비용을 1로 보고,
+ * 차례가 온 키는 가중치만큼 연달아 꺼낼 수 있다. 우선순위가 높은 등급에 대기가 있으면 그 등급부터 꺼낸다.
+ * 동기화하지 않으므로 쓰는 쪽의 잠금 안에서만 호출한다.
+ */
+class FairQueue<E> {
+
+    // 우선순위 내림차순
+    private final TreeMap<Integer, ArrayDeque<Flow<E>>> levels = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<String, Flow<E>> flows = new HashMap<>();
+    private int size;
+
+    void add(String key, int priority, int weight, E element) {
+        Flow<E> flow = flows.get(key);
+        if (flow == null) {
+            flow = new Flow<>(key, priority, Math.max(weight, 1));
+            flows.put(key, flow);
+            levels.computeIfAbsent(priority, p -> new ArrayDeque<>()).addLast(flow);
+        }
+        flow.queue.addLast(element);
+        size++;
+    }
+
+    E poll() {
+        for (ArrayDeque<Flow<E>> active : levels.values()) {
+            Flow<E> flow = active.peekFirst();
+            if (flow == null) continue;
+
+            // 새 차례가 시작되면 가중치만큼 적립한다.
+            if (flow.deficit < 1) {
+                flow.deficit += flow.weight;
+            }
+            E element = flow.queue.pollFirst();
+            flow.deficit--;
+            size--;
+            if (flow.queue.isEmpty()) {
+                active.pollFirst();
+                flows.remove(flow.key);
+            } else if (flow.deficit < 1) {
+                active.pollFirst();
+                active.addLast(flow);
+            }
+            return element;
+        }
+        return null;
+    }
+
+    boolean remove(String key, E element) {
+        Flow<E> flow = flows.get(key);
+        if (flow == null || !flow.queue.remove(element)) return false;
+
+        size--;
+        if (flow.queue.isEmpty()) {
+            levels.get(flow.priority).remove(flow);
+            flows.remove(key);
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int size(String key) {
+        Flow<E> flow = flows.get(key);
+        return flow != null ? flow.queue.size() : 0;
+    }
+
+    private static final class Flow<E> {
+
+        private final String key;
+        private final int priority;
+        private final int weight;
+        private final ArrayDeque<E> queue = new ArrayDeque<>();
+        private int deficit;
+
+        private Flow(String key, int priority, int weight) {
+            this.key = key;
+            this.priority = priority;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 호출이 최근 지연 백분위 안에 끝나지 않으면 같은 호출을 한 번 더 보내고 먼저 도착한 결과를 쓴다. 진 쪽은 취소한다.
+ * 두 번째 호출은 예산 안에서만 보낸다: 호출마다 maxRatio만큼 적립하고 두 번째 호출마다 1씩 쓴다.
+ * 첫 호출이 먼저 실패하면 기다리지 않고 실패를 그대로 돌려준다. 재시도가 아니라 꼬리 지연을 줄이기 위한 장치다.
+ * 반대로 두 번째 호출이 실패하면(보낼 엔드포인트가 없는 경우 포함) 무시하고 첫 호출을 계속 기다린다.
+ */
+public class HedgedCall {
+
+    // 한가할 때 쌓아 둘 수 있는 두 번째 호출 수. 몰릴 때 잠깐 넘치는 정도만 허용한다.
+    private static final double MAX_CREDITS = 10;
+
+    private final UpstreamProperties.Hedging properties;
+    private final RollingLatencyHistogram latencies;
+    private final Counter hedges;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+    private double credits;
+
+    public HedgedCall(String name, UpstreamProperties.Hedging properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.latencies = new RollingLatencyHistogram(properties.getWindow(), 6);
+        this.hedges = Counter.builder("upstream.hedge.requests").tag("type", name).register(meterRegistry);
+        this.hedgeWins = Counter.builder("upstream.hedge.wins").tag("type", name).register(meterRegistry);
+        this.budgetExhausted = Counter.builder("upstream.hedge.budget_exhausted").tag("type", name)
+                .register(meterRegistry);
+        Gauge.builder("upstream.hedge.delay", this, call -> {
+                    Duration delay = call.hedgeDelay();
+                    return delay != null ? delay.toMillis() : 0;
+                })
+                .tag("type", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return timed(call);
+        }
+        Duration delay = hedgeDelay();
+        deposit();
+        if (delay == null) {
+            return timed(call);
+        }
+
+        Mono<T> hedge = Mono.delay(delay)
+                .flatMap(tick -> {
+                    if (!tryWithdraw()) {
+                        budgetExhausted.increment();
+                        return Mono.never();
+                    }
+                    hedges.increment();
+                    return timed(call)
+                            .doOnNext(result -> hedgeWins.increment())
+                            .onErrorResume(e -> Mono.never());
+                });
+        // 먼저 온 신호(값 또는 에러)를 따르고 다른 쪽은 취소한다. 예산이 없으면 never이므로 첫 호출만 기다린다.
+        return Mono.firstWithSignal(timed(call), hedge);
+    }
+
+    /**
+     * 두 번째 호출을 보내기까지 기다릴 시간. 표본이 부족하면 null.
+     */
+    Duration hedgeDelay() {
+        if (latencies.count() < properties.getMinSamples()) return null;
+        Duration percentile = latencies.percentile(properties.getPercentile());
+        if (percentile == null) return null;
+        return percentile.compareTo(properties.getMinDelay()) < 0 ? properties.getMinDelay() : percentile;
+    }
+
+    RollingLatencyHistogram latencies() {
+        return latencies;
+    }
+
+    // 성공한 호출만 기록한다. 취소된 쪽은 끝난 시간을 모르므로 빠진다.
+    private <T> Mono<T> timed(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return call.get().doOnNext(result -> latencies.record(System.nanoTime() - started));
+        });
+    }
+
+    private synchronized void deposit() {
+        credits = Math.min(credits + properties.getMaxRatio(), MAX_CREDITS);
+    }
+
+    private synchronized boolean tryWithdraw() {
+        if (credits < 1) return false;
+        credits -= 1;
+        return true;
+    }
+}
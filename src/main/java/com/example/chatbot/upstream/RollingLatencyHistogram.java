@@ -0,0 +1,132 @@
+package com.example.chatbot.upstream;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 최근 구간의 지연 시간 분포. 구간을 여러 칸으로 나눠 돌려 쓰고, 오래된 칸은 다시 쓸 때 비운다.
+ * 버킷 경계는 100µs부터 10%씩 커지므로 백분위는 최대 10% 오차의 상한값으로 나온다.
+ */
+public class RollingLatencyHistogram {
+
+    private static final long MIN_BOUND_NANOS = 100_000L;
+    private static final long MAX_BOUND_NANOS = Duration.ofMinutes(30).toNanos();
+    private static final double GROWTH = 1.1;
+    private static final long[] UPPER_BOUNDS = upperBounds();
+
+    private final Slot[] slots;
+    private final long slotNanos;
+    private final LongSupplier nanoClock;
+
+    public RollingLatencyHistogram(Duration window, int slotCount) {
+        this(window, slotCount, System::nanoTime);
+    }
+
+    RollingLatencyHistogram(Duration window, int slotCount, LongSupplier nanoClock) {
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+        this.slotNanos = Math.max(window.toNanos() / slotCount, 1);
+        this.nanoClock = nanoClock;
+    }
+
+    public void record(long nanos) {
+        currentSlot().counts.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * 구간 안의 표본 수
+     */
+    public long count() {
+        long epoch = epoch();
+        long count = 0;
+        for (Slot slot : slots) {
+            if (isLive(slot, epoch)) {
+                for (int i = 0; i < slot.counts.length(); i++) {
+                    count += slot.counts.get(i);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 구간 안의 q 백분위 (0 &lt; q ≤ 1). 표본이 없으면 null.
+     */
+    public Duration percentile(double q) {
+        long epoch = epoch();
+        long[] merged = new long[UPPER_BOUNDS.length];
+        long total = 0;
+        for (Slot slot : slots) {
+            if (!isLive(slot, epoch)) continue;
+            for (int i = 0; i < merged.length; i++) {
+                long c = slot.counts.get(i);
+                merged[i] += c;
+                total += c;
+            }
+        }
+        if (total == 0) return null;
+
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < merged.length; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(UPPER_BOUNDS[i]);
+            }
+        }
+        return Duration.ofNanos(UPPER_BOUNDS[UPPER_BOUNDS.length - 1]);
+    }
+
+    private Slot currentSlot() {
+        long epoch = epoch();
+        Slot slot = slots[(int) Math.floorMod(epoch, (long) slots.length)];
+        if (slot.epoch != epoch) {
+            synchronized (slot) {
+                if (slot.epoch != epoch) {
+                    // 비우는 사이 다른 스레드가 올린 표본 몇 개는 사라질 수 있다. 추정치이므로 감수한다.
+                    for (int i = 0; i < slot.counts.length(); i++) {
+                        slot.counts.set(i, 0);
+                    }
+                    slot.epoch = epoch;
+                }
+            }
+        }
+        return slot;
+    }
+
+    private boolean isLive(Slot slot, long epoch) {
+        return slot.epoch > epoch - slots.length;
+    }
+
+    private long epoch() {
+        return Math.floorDiv(nanoClock.getAsLong(), slotNanos);
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos <= MIN_BOUND_NANOS) return 0;
+        int bucket = (int) Math.ceil(Math.log((double) nanos / MIN_BOUND_NANOS) / Math.log(GROWTH));
+        bucket = Math.min(bucket, UPPER_BOUNDS.length - 1);
+        // 부동소수 오차로 경계값이 한 칸 밀리는 경우를 보정한다.
+        while (bucket > 0 && UPPER_BOUNDS[bucket - 1] >= nanos) bucket--;
+        while (bucket < UPPER_BOUNDS.length - 1 && UPPER_BOUNDS[bucket] < nanos) bucket++;
+        return bucket;
+    }
+
+    private static long[] upperBounds() {
+        int size = (int) Math.ceil(Math.log((double) MAX_BOUND_NANOS / MIN_BOUND_NANOS) / Math.log(GROWTH)) + 1;
+        long[] bounds = new long[size];
+        for (int i = 0; i < size; i++) {
+            bounds[i] = (long) Math.ceil(MIN_BOUND_NANOS * Math.pow(GROWTH, i));
+        }
+        return bounds;
+    }
+
+    private static final class Slot {
+
+        private volatile long epoch = Long.MIN_VALUE;
+        private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키로 진행 중인 업스트림 호출이 있으면 새로 호출하지 않고 그 결과를 함께 받는다.
+ * 늦게 합류한 구독자는 이미 나온 요소를 처음부터 다시 받은 뒤 이어지는 요소를 받는다.
+ * 구독자 수를 세어 마지막 구독자가 떠날 때만 업스트림 호출을 취소한다.
+ */
+public class SingleFlight<T> {
+
+    private final Map<String, Flux<T>> inFlight = new ConcurrentHashMap<>();
+    private final Counter started;
+    private final Counter joined;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.started = Counter.builder("upstream.single_flight.calls")
+                .tag("type", name).tag("role", "leader")
+                .register(meterRegistry);
+        this.joined = Counter.builder("upstream.single_flight.calls")
+                .tag("type", name).tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("upstream.single_flight.in_flight", inFlight, Map::size)
+                .tag("type", name)
+                .register(meterRegistry);
+    }
+
+    public Flux<T> execute(String key, Supplier<Flux<T>> call) {
+        Flux<T> existing = inFlight.get(key);
+        if (existing != null) {
+            joined.increment();
+            return existing;
+        }
+
+        // 만들기만 하고 구독하지 않으므로 경쟁에서 져서 버려져도 비용이 없다.
+        Flux<T> created = share(key, call);
+        existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            joined.increment();
+            return existing;
+        }
+        started.increment();
+        return created;
+    }
+
+    private Flux<T> share(String key, Supplier<Flux<T>> call) {
+        AtomicReference<Flux<T>> self = new AtomicReference<>();
+        Flux<T> shared = Flux.defer(call)
+                // 완료, 에러, 마지막 구독자 이탈 중 어느 경우든 이후 요청은 새로 호출한다.
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .replay()
+                .refCount(1);
+        self.set(shared);
+        return shared;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.chatbot.upstream;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * 네트워크 버퍼 경계와 무관하게 SSE 이벤트를 잘라 내는 증분 파서. 스트림 하나에 인스턴스 하나를 쓴다.
+ * 줄 끝은 LF, CR, CRLF를 모두 인식하고, 여러 줄의 data 필드는 LF로 이어 붙여 이벤트 하나로 넘긴다.
+ * data 외의 필드(event, id, retry)와 주석(':'로 시작하는 줄)은 무시한다.
+ *
+ * 줄이나 이벤트마다 문자열을 만들지 않고 내부 바이트 배열을 재사용한다.
+ * 핸들러에 넘기는 배열은 핸들러가 반환할 때까지만 유효하다.
+ */
+public class SseEventFramer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte[] DATA_FIELD = {'d', 'a', 't', 'a'};
+
+    private byte[] chunk = new byte[INITIAL_CAPACITY];
+    private byte[] line = new byte[INITIAL_CAPACITY];
+    private int lineLength;
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int dataLength;
+    private boolean hasData;
+    private boolean lastWasCarriageReturn;
+
+    @FunctionalInterface
+    public interface EventHandler {
+        void onEvent(byte[] data, int length);
+    }
+
+    /**
+     * 버퍼의 읽을 수 있는 바이트를 모두 소비한다. 버퍼 해제는 호출자 책임이다.
+     * 다이렉트 버퍼는 Jackson이 직접 읽을 수 없으므로 재사용 배열로 한 번에 복사한 뒤 훑는다.
+     */
+    public void feed(DataBuffer buffer, EventHandler handler) {
+        int readable = buffer.readableByteCount();
+        if (chunk.length < readable) {
+            chunk = new byte[Math.max(readable, chunk.length * 2)];
+        }
+        buffer.read(chunk, 0, readable);
+        feed(chunk, 0, readable, handler);
+    }
+
+    public void feed(byte[] bytes, int offset, int length, EventHandler handler) {
+        int end = offset + length;
+        int lineStart = offset;
+        for (int i = offset; i < end; i++) {
+            byte b = bytes[i];
+            if (b != '\n' && b != '\r') continue;
+
+            if (b == '\n' && lastWasCarriageReturn && i == lineStart && lineLength == 0) {
+                // CRLF의 LF. 줄은 앞의 CR에서 이미 끝났다.
+                lastWasCarriageReturn = false;
+                lineStart = i + 1;
+                continue;
+            }
+            appendLine(bytes, lineStart, i - lineStart);
+            processLine(handler);
+            lastWasCarriageReturn = b == '\r';
+            lineStart = i + 1;
+        }
+        if (lineStart < end) {
+            lastWasCarriageReturn = false;
+            appendLine(bytes, lineStart, end - lineStart);
+        }
+    }
+
+    /**
+     * 스트림이 끝났을 때 호출한다. 빈 줄 없이 끝난 마지막 이벤트도 넘긴다.
+     */
+    public void finish(EventHandler handler) {
+        if (lineLength > 0) {
+            processLine(handler);
+        }
+        dispatch(handler);
+    }
+
+    private void processLine(EventHandler handler) {
+        int length = lineLength;
+        lineLength = 0;
+        if (length == 0) {
+            dispatch(handler);
+            return;
+        }
+        if (line[0] == ':') return;
+
+        int colon = indexOf(line, length, (byte) ':');
+        int fieldLength = colon < 0 ? length : colon;
+        if (!isDataField(fieldLength)) return;
+
+        int valueStart = colon < 0 ? length : colon + 1;
+        if (valueStart < length && line[valueStart] == ' ') {
+            valueStart++;
+        }
+        int valueLength = length - valueStart;
+        data = ensureCapacity(data, dataLength + valueLength + 1);
+        if (hasData) {
+            data[dataLength++] = '\n';
+        }
+        System.arraycopy(line, valueStart, data, dataLength, valueLength);
+        dataLength += valueLength;
+        hasData = true;
+    }
+
+    private void dispatch(EventHandler handler) {
+        if (!hasData) return;
+        int length = dataLength;
+        hasData = false;
+        dataLength = 0;
+        handler.onEvent(data, length);
+    }
+
+    private boolean isDataField(int fieldLength) {
+        if (fieldLength != DATA_FIELD.length) return false;
+        for (int i = 0; i < DATA_FIELD.length; i++) {
+            if (line[i] != DATA_FIELD[i]) return false;
+        }
+        return true;
+    }
+
+    private void appendLine(byte[] source, int offset, int length) {
+        if (length == 0) return;
+        line = ensureCapacity(line, lineLength + length);
+        System.arraycopy(source, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private static byte[] ensureCapacity(byte[] array, int required) {
+        return array.length >= required ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+    }
+
+    private static int indexOf(byte[] array, int length, byte target) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == target) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * OpenAI 호환 엔드포인트 하나. 자기 키와 커넥션 풀을 가지며, 라우팅에 쓰는 지연/부하 상태를 들고 있다.
+ * 지연은 peak EWMA로 추적한다: 느린 표본은 바로 반영하고 빠른 표본은 시간 상수에 따라 천천히 반영한다.
+ * 서킷 브레이커는 모델마다 따로 둔다. 한 모델(배포)만 망가진 경우 다른 모델 호출은 막지 않는다.
+ */
+public class UpstreamEndpoint {
+
+    private static final double MIN_SLOW_START_WEIGHT = 0.1;
+
+    @Getter
+    private final String name;
+    @Getter
+    private final WebClient webClient;
+    @Getter
+    private final HttpClient httpClient;
+    private final Map<String, String> models;
+    private final UpstreamProperties.LoadBalancing properties;
+    private final UpstreamProperties.CircuitBreaker circuitBreakerProperties;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Timer latency;
+    private final Counter ejections;
+
+    // 아래 상태는 this로 보호한다.
+    private double ewmaNanos;
+    private long lastSampleAt;
+    private boolean sampled;
+    private long ejectedUntil = Long.MIN_VALUE;
+    private int consecutiveEjections;
+
+    public UpstreamEndpoint(String name, Map<String, String> models, WebClient webClient, HttpClient httpClient,
+                            UpstreamProperties properties, MeterRegistry meterRegistry) {
+        this(name, models, webClient, httpClient, properties, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamEndpoint(String name, Map<String, String> models, WebClient webClient, HttpClient httpClient,
+                     UpstreamProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.models = models;
+        this.webClient = webClient;
+        this.httpClient = httpClient;
+        this.properties = properties.getLoadBalancing();
+        this.circuitBreakerProperties = properties.getCircuitBreaker();
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.latency = Timer.builder("upstream.endpoint.latency").tag("endpoint", name).register(meterRegistry);
+        this.ejections = Counter.builder("upstream.endpoint.ejections").tag("endpoint", name).register(meterRegistry);
+        Gauge.builder("upstream.endpoint.outstanding", outstanding, AtomicInteger::get)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("upstream.endpoint.ewma", this, endpoint -> endpoint.ewmaMillis())
+                .tag("endpoint", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("upstream.endpoint.available", this, endpoint -> endpoint.isAvailable() ? 1 : 0)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이 엔드포인트에서 쓸 모델 이름. 매핑이 없으면 요청한 이름을 그대로 쓴다.
+     */
+    public String modelFor(String model) {
+        return models.getOrDefault(model, model);
+    }
+
+    /**
+     * 이 엔드포인트에서 쓰는 모델(매핑 후 이름)의 서킷 브레이커
+     */
+    public CircuitBreaker circuitBreaker(String model) {
+        return circuitBreakers.computeIfAbsent(model, key ->
+                new CircuitBreaker(name, key, circuitBreakerProperties, meterRegistry, nanoClock));
+    }
+
+    /**
+     * 서킷이 막고 있으면 호출하지 않고 바로 실패한다. model은 매핑 전 이름이다.
+     */
+    public Call begin(String model) {
+        CircuitBreaker circuitBreaker = circuitBreaker(modelFor(model));
+        if (!circuitBreaker.tryAcquire()) {
+            throw new UpstreamUnavailableException(model, circuitBreaker.retryAfterSeconds());
+        }
+        outstanding.incrementAndGet();
+        return new Call(circuitBreaker, nanoClock.getAsLong());
+    }
+
+    public synchronized boolean isAvailable() {
+        return nanoClock.getAsLong() >= ejectedUntil;
+    }
+
+    /**
+     * 낮을수록 좋다. 예상 지연 × (진행 중 요청 + 1)을 slow-start 가중치로 나눈다.
+     */
+    synchronized double score() {
+        // 표본이 없는 엔드포인트도 진행 중 요청 수로 비교되도록 1ms를 바닥으로 둔다.
+        double expected = Math.max(ewmaNanos, TimeUnit.MILLISECONDS.toNanos(1));
+        return expected * (outstanding.get() + 1) / slowStartWeight();
+    }
+
+    synchronized long ejectedUntil() {
+        return ejectedUntil;
+    }
+
+    private synchronized double ewmaMillis() {
+        return ewmaNanos / 1_000_000.0;
+    }
+
+    private synchronized void recordSuccess(long elapsedNanos) {
+        long now = nanoClock.getAsLong();
+        if (!sampled || elapsedNanos > ewmaNanos) {
+            ewmaNanos = elapsedNanos;
+        } else {
+            // 마지막 표본 이후 오래 지났을수록 새 표본의 비중이 커진다.
+            double weight = Math.exp(-(double) Math.max(now - lastSampleAt, 0) / Math.max(properties.getEwmaDecay().toNanos(), 1));
+            ewmaNanos = ewmaNanos * weight + elapsedNanos * (1 - weight);
+        }
+        sampled = true;
+        lastSampleAt = now;
+        consecutiveEjections = 0;
+    }
+
+    private synchronized void eject() {
+        long now = nanoClock.getAsLong();
+        // 이미 빠져 있는 동안 끝난 요청의 실패로 시간을 다시 늘리지 않는다.
+        if (now < ejectedUntil) return;
+        consecutiveEjections = Math.min(consecutiveEjections + 1, 20);
+        long duration = Math.min(properties.getEjectionDuration().toNanos() << (consecutiveEjections - 1),
+                properties.getMaxEjectionDuration().toNanos());
+        if (duration < 0) duration = properties.getMaxEjectionDuration().toNanos();
+        ejectedUntil = now + duration;
+        ejections.increment();
+    }
+
+    private double slowStartWeight() {
+        long sinceRecovery = nanoClock.getAsLong() - ejectedUntil;
+        long slowStart = properties.getSlowStart().toNanos();
+        if (ejectedUntil == Long.MIN_VALUE || slowStart <= 0 || sinceRecovery >= slowStart) return 1;
+        return Math.max(MIN_SLOW_START_WEIGHT, (double) Math.max(sinceRecovery, 0) / slowStart);
+    }
+
+    private void count(String outcome) {
+        Counter.builder("upstream.endpoint.requests")
+                .tag("endpoint", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 요청 하나의 결과 기록. 성공/실패는 처음 한 번만 반영하고, end()는 구독이 끝날 때 한 번 부른다.
+     */
+    public final class Call {
+
+        private final CircuitBreaker circuitBreaker;
+        private final long started;
+        private boolean settled;
+        private boolean responded;
+
+        private Call(CircuitBreaker circuitBreaker, long started) {
+            this.circuitBreaker = circuitBreaker;
+            this.started = started;
+        }
+
+        /**
+         * 비스트리밍은 응답 전체, 스트리밍은 첫 청크까지의 시간을 지연으로 기록한다.
+         */
+        public synchronized void succeed() {
+            if (settled) return;
+            settled = true;
+            long elapsed = nanoClock.getAsLong() - started;
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+            recordSuccess(elapsed);
+            circuitBreaker.onSuccess(elapsed);
+            count("success");
+        }
+
+        /**
+         * 엔드포인트 실패(429, 5xx)로 기록했으면 true. 호출자는 이를 동시 처리 한도의 실패 신호로 쓴다.
+         */
+        public synchronized boolean fail(HttpStatusCode status) {
+            if (settled) return false;
+            settled = true;
+            if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                count("throttled");
+                eject();
+                circuitBreaker.onFailure();
+                return true;
+            } else if (status.is5xxServerError()) {
+                count("server_error");
+                eject();
+                circuitBreaker.onFailure();
+                return true;
+            }
+            // 요청 자체의 문제이므로 엔드포인트 상태에 반영하지 않는다.
+            count("client_error");
+            circuitBreaker.release();
+            return false;
+        }
+
+        /**
+         * 2xx 상태를 받았다. 이후 본문 디코딩이나 응답 검증에서 실패해도 엔드포인트 장애로 보지 않는다.
+         */
+        public synchronized void responded() {
+            responded = true;
+        }
+
+        /**
+         * 응답 상태를 받기 전의 실패(연결 실패, 첫 바이트 타임아웃 등)는 엔드포인트 문제로 보고 뺀다.
+         * 2xx를 받은 뒤 본문이 잘못된 경우는 invalid_response로만 세고 엔드포인트와 서킷에는 반영하지 않는다.
+         * 엔드포인트 실패로 기록했으면 true.
+         */
+        public synchronized boolean fail(Throwable error) {
+            if (settled) return false;
+            settled = true;
+            if (responded) {
+                count("invalid_response");
+                circuitBreaker.release();
+                return false;
+            }
+            count("transport_error");
+            eject();
+            circuitBreaker.onFailure();
+            return true;
+        }
+
+        public void end() {
+            outstanding.decrementAndGet();
+            synchronized (this) {
+                // 결과 없이 취소된 호출(헤징에서 진 쪽, 클라이언트 이탈)
+                if (!settled) {
+                    settled = true;
+                    circuitBreaker.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.chatbot.upstream;
+
+import lombok.Getter;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 설정된 업스트림 엔드포인트 목록과 라우팅.
+ * 빠진 엔드포인트를 제외하고 임의로 둘을 골라 점수(지연 EWMA × 진행 중 요청)가 낮은 쪽을 쓴다 (power of two choices).
+ * 모두 빠져 있으면 가장 먼저 복귀할 엔드포인트로 보낸다. 요청을 아예 거절하는 것보다 낫다.
+ * 반면 서킷이 열린 엔드포인트는 후보에서 빼고, 남는 엔드포인트가 없으면 바로 실패한다.
+ */
+public class UpstreamEndpoints {
+
+    @Getter
+    private final List<UpstreamEndpoint> endpoints;
+    private final List<ConnectionProvider> connectionProviders;
+
+    public UpstreamEndpoints(List<UpstreamEndpoint> endpoints, List<ConnectionProvider> connectionProviders) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("업스트림 엔드포인트가 하나 이상 필요합니다.");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.connectionProviders = List.copyOf(connectionProviders);
+    }
+
+    /**
+     * 이 모델의 서킷이 호출을 받는 엔드포인트 중에서 고른다. 하나도 없으면 바로 실패한다.
+     */
+    public UpstreamEndpoint pick(String model) {
+        List<UpstreamEndpoint> permitted = permitted(model);
+        if (permitted.size() == 1) {
+            return permitted.get(0);
+        }
+
+        List<UpstreamEndpoint> available = new ArrayList<>(permitted.size());
+        for (UpstreamEndpoint endpoint : permitted) {
+            if (endpoint.isAvailable()) {
+                available.add(endpoint);
+            }
+        }
+        if (available.isEmpty()) {
+            return soonestRecovering(permitted);
+        }
+        if (available.size() == 1) {
+            return available.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) second++;
+        UpstreamEndpoint a = available.get(first);
+        UpstreamEndpoint b = available.get(second);
+        return a.score() <= b.score() ? a : b;
+    }
+
+    /**
+     * 이 모델을 보낼 수 있는 엔드포인트가 없으면 UpstreamUnavailableException.
+     */
+    public void ensureAvailable(String model) {
+        permitted(model);
+    }
+
+    public void dispose() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    private List<UpstreamEndpoint> permitted(String model) {
+        List<UpstreamEndpoint> permitted = new ArrayList<>(endpoints.size());
+        long retryAfterSeconds = Long.MAX_VALUE;
+        for (UpstreamEndpoint endpoint : endpoints) {
+            CircuitBreaker circuitBreaker = endpoint.circuitBreaker(endpoint.modelFor(model));
+            if (circuitBreaker.allowsCalls()) {
+                permitted.add(endpoint);
+            } else {
+                retryAfterSeconds = Math.min(retryAfterSeconds, circuitBreaker.retryAfterSeconds());
+            }
+        }
+        if (permitted.isEmpty()) {
+            throw new UpstreamUnavailableException(model, retryAfterSeconds);
+        }
+        return permitted;
+    }
+
+    private UpstreamEndpoint soonestRecovering(List<UpstreamEndpoint> candidates) {
+        UpstreamEndpoint soonest = candidates.get(0);
+        for (UpstreamEndpoint endpoint : candidates) {
+            if (endpoint.ejectedUntil() < soonest.ejectedUntil()) {
+                soonest = endpoint;
+            }
+        }
+        return soonest;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.chatbot.upstream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.upstream")
+public class UpstreamProperties {
+
+    private SingleFlight singleFlight = new SingleFlight();
+
+    private Hedging hedging = new Hedging();
+
+    private StreamTimeouts streamTimeouts = new StreamTimeouts();
+
+    private LoadBalancing loadBalancing = new LoadBalancing();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    // 비스트리밍 호출은 요청 스레드를 잡고 기다리므로 대기열을 짧게 둔다.
+    private Bulkhead completionBulkhead = new Bulkhead(200, 100, Duration.ofSeconds(2));
+
+    private Bulkhead streamBulkhead = new Bulkhead(300, 50, Duration.ofSeconds(1));
+
+    private FairScheduling fairScheduling = new FairScheduling();
+
+    @Getter
+    @Setter
+    public static class SingleFlight {
+
+        // 모델과 컨텍스트가 같은 동시 요청이 업스트림 호출 하나를 함께 쓴다.
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Hedging {
+
+        // 비스트리밍 호출이 최근 지연 백분위 안에 끝나지 않으면 두 번째 호출을 보내 먼저 끝난 응답을 쓴다.
+        private boolean enabled = true;
+
+        private double percentile = 0.95;
+
+        // 전체 호출 대비 두 번째 호출 비율의 상한. 두 번째 호출도 토큰을 쓰므로 비용 상한이 된다.
+        private double maxRatio = 0.05;
+
+        // 백분위가 이보다 짧아도 이만큼은 기다린다.
+        private Duration minDelay = Duration.ofMillis(200);
+
+        // 구간 안의 표본이 이보다 적으면 백분위를 믿을 수 없으므로 헤징하지 않는다.
+        private int minSamples = 50;
+
+        private Duration window = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class StreamTimeouts {
+
+        // 스트림의 첫 바이트 대기와 청크 사이 유휴 시간을 최근 지연 분포에 맞춰 제한한다.
+        private boolean enabled = true;
+
+        private double percentile = 0.99;
+
+        // 백분위에 곱하는 여유 배수
+        private double multiplier = 3.0;
+
+        private int minSamples = 50;
+
+        private Duration window = Duration.ofMinutes(5);
+
+        // 표본이 부족할 때는 최댓값을 쓴다.
+        private Duration firstByteMin = Duration.ofSeconds(5);
+        private Duration firstByteMax = Duration.ofSeconds(60);
+        private Duration idleMin = Duration.ofSeconds(2);
+        private Duration idleMax = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class LoadBalancing {
+
+        // 지연 EWMA가 최근 표본을 반영하는 시간 상수. 짧을수록 혼잡 변화에 빨리 반응한다.
+        private Duration ewmaDecay = Duration.ofSeconds(10);
+
+        // 429, 5xx, 연결 실패 시 엔드포인트를 빼 두는 시간. 연속으로 빠질 때마다 두 배로 늘린다.
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+        private Duration maxEjectionDuration = Duration.ofMinutes(5);
+
+        // 복귀한 엔드포인트의 가중치를 이 시간에 걸쳐 0.1에서 1까지 올린다.
+        private Duration slowStart = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        // 엔드포인트·모델별로 최근 호출의 실패율이나 느린 호출 비율이 높으면 호출을 멈추고 바로 실패시킨다.
+        private boolean enabled = true;
+
+        // 최근 몇 건의 결과로 비율을 계산할지
+        private int windowSize = 50;
+
+        // 창에 이보다 적게 쌓였으면 열지 않는다.
+        private int minimumCalls = 20;
+
+        private double failureRateThreshold = 0.5;
+
+        // 이보다 오래 걸린 호출은 성공해도 느린 호출로 센다. 스트림은 첫 청크까지의 시간 기준이다.
+        private Duration slowCallDuration = Duration.ofSeconds(30);
+        private double slowCallRateThreshold = 0.8;
+
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        // 반열림 상태에서 보내 볼 시험 호출 수. 모두 성공하면 닫는다.
+        private int halfOpenCalls = 5;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bulkhead {
+
+        private int maxConcurrent;
+        private int maxQueue;
+        private Duration maxWait;
+    }
+
+    @Getter
+    @Setter
+    public static class FairScheduling {
+
+        // 벌크헤드 대기열을 사용자별로 나눠 번갈아 꺼낸다. 끄면 도착 순서대로 꺼낸다.
+        private boolean enabled = true;
+
+        // 사용자 한 명이 대기열에 올릴 수 있는 호출 수. 한 사용자가 대기열 전체를 채우지 못하게 한다.
+        private int maxQueuePerUser = 10;
+
+        // 대기 지표에 사용자 태그를 붙인다. 사용자 수만큼 계열이 늘어나므로 기본은 등급별로만 모은다.
+        private boolean perUserMetrics = false;
+
+        // 이 시간 동안 호출이 없던 사용자의 대기 지표는 지운다.
+        private Duration userMetricsExpiry = Duration.ofMinutes(5);
+
+        // 등급에 없는 사용자는 우선순위 0, 가중치 1
+        private List<Tier> tiers = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Tier {
+
+        private String name;
+
+        // 높은 등급에 대기가 있으면 먼저 자리를 받는다.
+        private int priority;
+
+        // 같은 등급 안에서 차례마다 받는 자리 수
+        private int weight = 1;
+
+        private Set<Long> userIds = new HashSet<>();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import lombok.Getter;
+
+@Getter
+public class UpstreamUnavailableException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public UpstreamUnavailableException(String model, long retryAfterSeconds) {
+        super(ErrorCode.UPSTREAM_UNAVAILABLE, String.format("%s (model=%s, %d초 후 재시도)",
+                ErrorCode.UPSTREAM_UNAVAILABLE.getMessage(), model, retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,53 @@
+-- GCRA 기반 다중 한도 판정. 모든 한도를 만족할 때만 상태를 갱신한다.
+-- KEYS[i]: 한도별 상태 키 (다음 요청이 허용되는 이론상 시각, 마이크로초)
+-- ARGV[2i-1]: 요청 간 간격(period / limit, 마이크로초), ARGV[2i]: 허용 버스트 폭(period, 마이크로초)
+-- 반환: { 허용 여부, 기준 한도의 인덱스, 남은 횟수, 회복까지 남은 시간(ms), 재시도까지 남은 시간(ms) }
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local allowed = 1
+local selected = 1
+local selected_remaining = -1
+local selected_reset = 0
+local retry_after = 0
+local new_tats = {}
+
+for i = 1, #KEYS do
+    local interval = tonumber(ARGV[2 * i - 1])
+    local tolerance = tonumber(ARGV[2 * i])
+
+    local tat = now
+    local stored = redis.call('GET', KEYS[i])
+    if stored then
+        tat = math.max(tonumber(stored), now)
+    end
+
+    local new_tat = tat + interval
+    local excess = new_tat - now - tolerance
+    new_tats[i] = new_tat
+
+    if excess > 0 then
+        if allowed == 1 or excess > retry_after then
+            selected = i
+            selected_remaining = 0
+            selected_reset = tat - now
+        end
+        allowed = 0
+        retry_after = math.max(retry_after, excess)
+    elseif allowed == 1 then
+        local remaining = math.floor((tolerance - (new_tat - now)) / interval)
+        if selected_remaining < 0 or remaining < selected_remaining then
+            selected = i
+            selected_remaining = remaining
+            selected_reset = new_tat - now
+        end
+    end
+end
+
+if allowed == 1 then
+    for i = 1, #KEYS do
+        redis.call('SET', KEYS[i], string.format('%d', new_tats[i]), 'PX', math.ceil((new_tats[i] - now) / 1000))
+    end
+end
+
+return { allowed, selected - 1, selected_remaining, math.ceil(selected_reset / 1000), math.ceil(retry_after / 1000) }
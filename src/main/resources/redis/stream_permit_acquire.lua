@@ -0,0 +1,14 @@
+-- 만료된 임대를 정리한 뒤 남은 자리가 있으면 퍼밋을 임대한다.
+-- KEYS[1]: 사용자별 퍼밋 ZSET (member: 퍼밋 ID, score: 임대 만료 시각 ms)
+-- ARGV: 퍼밋 ID, 현재 시각(ms), 임대 기간(ms), 최대 동시 스트림 수
+local now = tonumber(ARGV[2])
+local lease = tonumber(ARGV[3])
+
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[4]) then
+    return 0
+end
+
+redis.call('ZADD', KEYS[1], now + lease, ARGV[1])
+redis.call('PEXPIRE', KEYS[1], lease * 2)
+return 1
@@ -0,0 +1,8 @@
+-- 요약 락을 획득한 노드만 해제한다. TTL이 지나 다른 노드가 다시 잡은 락은 지우지 않는다.
+-- KEYS[1]: 락 키
+-- ARGV[1]: 락 획득 시 저장한 토큰
+-- 반환: 삭제했으면 1, 아니면 0
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,17 @@
+-- 윈도우 내 프롬프트/응답 토큰을 함께 예약한다. 어느 한쪽이라도 한도를 넘으면 아무것도 예약하지 않는다.
+-- KEYS[1]: 사용자/윈도우 해시 키
+-- ARGV: 프롬프트 예약량, 응답 예약량, 프롬프트 한도, 응답 한도, TTL(초)
+-- 반환: { 예약 여부, 예약 후(또는 현재) 프롬프트 사용량, 응답 사용량 }
+local prompt = tonumber(redis.call('HGET', KEYS[1], 'prompt')) or 0
+local completion = tonumber(redis.call('HGET', KEYS[1], 'completion')) or 0
+local prompt_request = tonumber(ARGV[1])
+local completion_request = tonumber(ARGV[2])
+
+if prompt + prompt_request > tonumber(ARGV[3]) or completion + completion_request > tonumber(ARGV[4]) then
+    return { 0, prompt, completion }
+end
+
+prompt = redis.call('HINCRBY', KEYS[1], 'prompt', prompt_request)
+completion = redis.call('HINCRBY', KEYS[1], 'completion', completion_request)
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[5]))
+return { 1, prompt, completion }
@@ -33,6 +33,15 @@ CREATE TABLE IF NOT EXISTS messages (
     CONSTRAINT fk_messages_conversation FOREIGN KEY (conversation_id) REFERENCES conversations(id) ON DELETE CASCADE
 );;
 
+-- 대화 요약 컬럼 (기존 테이블 호환)
+ALTER TABLE conversations ADD COLUMN IF NOT EXISTS summary TEXT;;
+ALTER TABLE conversations ADD COLUMN IF NOT EXISTS summarized_until_message_id BIGINT;;
+
+-- 메시지별 토큰 수 컬럼 (기존 테이블 호환)
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS token_count INTEGER;;
+
 -- 인덱스 추가
 CREATE INDEX IF NOT EXISTS idx_conversations_user_id_updated_at ON conversations(user_id, updated_at DESC);;
-CREATE INDEX IF NOT EXISTS idx_messages_conversation_id_created_at ON messages(conversation_id, created_at ASC);;
+-- (conversation_id, created_at) 단일 인덱스는 아래 keyset 인덱스의 접두어라 중복이므로 제거한다.
+DROP INDEX IF EXISTS idx_messages_conversation_id_created_at;;
+CREATE INDEX IF NOT EXISTS idx_messages_conversation_id_created_at_id ON messages(conversation_id, created_at, id);;
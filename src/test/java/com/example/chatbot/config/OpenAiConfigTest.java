@@ -0,0 +1,89 @@
+package com.example.chatbot.config;
+
+import com.example.chatbot.upstream.UpstreamEndpoint;
+import com.example.chatbot.upstream.UpstreamEndpoints;
+import com.example.chatbot.upstream.UpstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClientConfig;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiConfigTest {
+
+    private final OpenAiConfig config = new OpenAiConfig();
+    private UpstreamEndpoints endpoints;
+
+    @AfterEach
+    void tearDown() {
+        if (endpoints != null) {
+            endpoints.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("h2는 https 엔드포인트에만 켜고 평문 http 엔드포인트는 HTTP/1.1로 연결한다")
+    void enablesHttp2OnlyForHttps() {
+        config.setApiKey("key");
+        config.setEndpoints(List.of(endpoint("tls", "https://api.example.com"), endpoint("plain", "http://localhost:8089")));
+
+        List<UpstreamEndpoint> resolved = build().getEndpoints();
+
+        assertThat(configuration(resolved.get(0)).protocols())
+                .containsExactlyInAnyOrder(HttpProtocol.H2, HttpProtocol.HTTP11);
+        assertThat(configuration(resolved.get(1)).protocols()).containsExactly(HttpProtocol.HTTP11);
+    }
+
+    @Test
+    @DisplayName("http2를 끄면 https 엔드포인트도 HTTP/1.1로 연결한다")
+    void http2CanBeDisabled() {
+        config.setHttp2(false);
+        config.setBaseUrl("https://api.example.com");
+        config.setApiKey("key");
+
+        UpstreamEndpoint endpoint = build().getEndpoints().get(0);
+
+        assertThat(endpoint.getName()).isEqualTo("default");
+        assertThat(configuration(endpoint).protocols()).containsExactly(HttpProtocol.HTTP11);
+    }
+
+    @Test
+    @DisplayName("엔드포인트마다 설정한 풀 크기와 응답 타임아웃으로 커넥션 풀을 따로 만든다")
+    void appliesPoolSettingsPerEndpoint() {
+        config.setApiKey("key");
+        config.setResponseTimeoutMs(1234);
+        config.getPool().setMaxConnections(7);
+        config.setEndpoints(List.of(endpoint("a", "http://localhost:8089"), endpoint("b", "http://localhost:8090")));
+
+        List<UpstreamEndpoint> resolved = build().getEndpoints();
+
+        HttpClientConfig first = configuration(resolved.get(0));
+        HttpClientConfig second = configuration(resolved.get(1));
+        assertThat(first.connectionProvider().maxConnections()).isEqualTo(7);
+        assertThat(first.connectionProvider()).isNotSameAs(second.connectionProvider());
+        assertThat(first.responseTimeout()).isEqualTo(Duration.ofMillis(1234));
+    }
+
+    private UpstreamEndpoints build() {
+        endpoints = config.openAiEndpoints(WebClient.builder(), new UpstreamProperties(), new SimpleMeterRegistry());
+        return endpoints;
+    }
+
+    private static HttpClientConfig configuration(UpstreamEndpoint endpoint) {
+        return endpoint.getHttpClient().configuration();
+    }
+
+    private static OpenAiConfig.Endpoint endpoint(String name, String baseUrl) {
+        OpenAiConfig.Endpoint endpoint = new OpenAiConfig.Endpoint();
+        endpoint.setName(name);
+        endpoint.setBaseUrl(baseUrl);
+        return endpoint;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.chatbot.global;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.chatbot.global.auth.ApiKeyAuthFilter;
+import com.example.chatbot.global.auth.ApiKeyCache;
+import com.example.chatbot.global.auth.ApiKeyCacheProperties;
+import com.example.chatbot.global.auth.ValidApiKeyIndex;
+import com.example.chatbot.global.config.HttpLoggingFilter;
+import com.example.chatbot.global.ratelimit.LocalFirstRateLimiter;
+import com.example.chatbot.global.ratelimit.PreAuthLimiter;
+import com.example.chatbot.global.ratelimit.RateLimitFilter;
+import com.example.chatbot.global.ratelimit.RateLimitProperties;
+import com.example.chatbot.global.ratelimit.RateLimitResponseFactory;
+import com.example.chatbot.global.ratelimit.RedisRateLimitService;
+import com.example.chatbot.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * HttpLoggingFilter -> ApiKeyAuthFilter -> RateLimitFilter 를 지나는 요청 하나가 할당하는 바이트 수를 잰다.
+ * 예산을 넘으면 빌드가 실패한다. 요청마다 다이제스트/포맷터/UUID를 만들던 이전 구현은 수십 KB를 할당했다.
+ */
+class FilterChainAllocationTest {
+
+    // Mock 요청/응답 객체의 헤더 처리 비용까지 포함한 값이다.
+    private static final long BYTES_PER_REQUEST_BUDGET = 4096;
+    private static final int WARMUP_REQUESTS = 1_000;
+    private static final int MEASURED_REQUESTS = 2_000;
+
+    private final Logger appLogger = (Logger) LoggerFactory.getLogger("com.example.chatbot");
+    private Level originalLevel;
+    private ReusableFilterChain chain;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        // 로그 출력 비용은 appender 설정에 달려 있으므로 측정에서 제외한다.
+        originalLevel = appLogger.getLevel();
+        appLogger.setLevel(Level.WARN);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByApiKey(anyString())).thenReturn(Optional.of(1L));
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ApiKeyCacheProperties cacheProperties = new ApiKeyCacheProperties();
+        cacheProperties.setPubsubEnabled(false);
+        ValidApiKeyIndex validKeyIndex = new ValidApiKeyIndex(userRepository, cacheProperties, meterRegistry);
+        ApiKeyCache apiKeyCache = new ApiKeyCache(userRepository, validKeyIndex, cacheProperties, meterRegistry);
+
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setMode(RateLimitProperties.Mode.LOCAL_FIRST);
+        rateLimitProperties.setLimit(WARMUP_REQUESTS + MEASURED_REQUESTS + 1_000);
+        PreAuthLimiter preAuthLimiter = new PreAuthLimiter(rateLimitProperties, meterRegistry);
+
+        chain = new ReusableFilterChain(
+                new HttpLoggingFilter(),
+                new ApiKeyAuthFilter(apiKeyCache, preAuthLimiter, objectMapper, meterRegistry),
+                new RateLimitFilter(
+                        new RedisRateLimitService(redisTemplate, rateLimitProperties),
+                        new LocalFirstRateLimiter(redisTemplate, rateLimitProperties, meterRegistry),
+                        rateLimitProperties, objectMapper, new RateLimitResponseFactory(), meterRegistry));
+
+        request = new MockHttpServletRequest("POST", "/api/v1/chat");
+        request.addHeader("X-API-Key", "test-key");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void restoreLogLevel() {
+        appLogger.setLevel(originalLevel);
+    }
+
+    @Test
+    @DisplayName("인증과 rate limit 필터 체인은 요청당 할당량 예산을 넘지 않는다")
+    void filterChainStaysWithinAllocationBudget() throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            chain.run(request, response);
+        }
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.completed).isEqualTo(WARMUP_REQUESTS);
+
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            chain.run(request, response);
+        }
+        long bytesPerRequest = (threadMXBean.getCurrentThreadAllocatedBytes() - before) / MEASURED_REQUESTS;
+
+        assertThat(chain.completed).isEqualTo(WARMUP_REQUESTS + MEASURED_REQUESTS);
+        assertThat(bytesPerRequest)
+                .as("요청당 할당 바이트")
+                .isLessThanOrEqualTo(BYTES_PER_REQUEST_BUDGET);
+    }
+
+    // MockFilterChain은 한 번만 쓸 수 있어 측정 중 할당이 생기지 않도록 재사용 가능한 체인을 둔다.
+    private static final class ReusableFilterChain implements FilterChain {
+
+        private final Filter[] filters;
+        private int position;
+        private int completed;
+
+        private ReusableFilterChain(Filter... filters) {
+            this.filters = filters;
+        }
+
+        void run(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            position = 0;
+            doFilter(request, response);
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            if (position < filters.length) {
+                filters[position++].doFilter(request, response, this);
+            } else {
+                completed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.chatbot.global.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiKeyBloomFilterTest {
+
+    @Test
+    @DisplayName("등록한 키는 항상 포함되고, 등록하지 않은 키의 오탐률은 설정값 근처에 머문다")
+    void hasNoFalseNegativesAndBoundedFalsePositives() {
+        int keys = 10_000;
+        ApiKeyBloomFilter filter = ApiKeyBloomFilter.create(keys, 0.01);
+        for (int i = 0; i < keys; i++) {
+            filter.put(ApiKeyHasher.sha256Hex("valid-" + i));
+        }
+
+        for (int i = 0; i < keys; i++) {
+            assertThat(filter.mightContain(ApiKeyHasher.sha256Hex("valid-" + i))).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < keys; i++) {
+            if (filter.mightContain(ApiKeyHasher.sha256Hex("garbage-" + i))) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(keys * 3 / 100);
+    }
+}
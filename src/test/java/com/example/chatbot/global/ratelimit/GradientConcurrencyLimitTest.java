@@ -0,0 +1,106 @@
+package com.example.chatbot.global.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long BASELINE = Duration.ofMillis(100).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyProperties properties = new AdaptiveConcurrencyProperties();
+    private GradientConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        properties.setInitialLimit(20);
+        properties.setMinLimit(5);
+        properties.setMaxLimit(100);
+        limit = new GradientConcurrencyLimit("completion", properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("한도만큼 자리가 차면 바로 거절하고, 반납하면 다시 받는다")
+    void rejectsBeyondLimit() {
+        fill(20);
+
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("chat.concurrency.rejected").counter().count()).isEqualTo(1);
+
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("지연이 그대로인 채로 한도가 차 있으면 한도를 늘린다")
+    void growsWhileLatencyIsSteady() {
+        fill(20);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASELINE);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    @DisplayName("지연이 장기 평균보다 크게 늘면 한도를 줄이되 최소 한도 아래로는 내리지 않는다")
+    void shrinksWhenLatencyRises() {
+        fill(20);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASELINE);
+        }
+        int grown = limit.getLimit();
+
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(BASELINE * 4);
+        }
+        assertThat(limit.getLimit()).isLessThan(grown);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(BASELINE * 4);
+        }
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("진행 중 요청이 한도의 절반도 안 되면 한도를 움직이지 않는다")
+    void ignoresSamplesWhileUnderused() {
+        fill(5);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASELINE);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("모든 호출이 실패하면 지연 표본이 없어도 한도를 최소 한도까지 줄인다")
+    void shrinksWhenEveryCallFails() {
+        fill(20);
+        for (int i = 0; i < 20; i++) {
+            limit.release();
+            limit.onDrop();
+        }
+        int shrunk = limit.getLimit();
+        assertThat(shrunk).isLessThan(20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onDrop();
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+        fill(5);
+        assertThat(limit.tryAcquire()).isFalse();
+    }
+
+    private void fill(int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+    }
+}
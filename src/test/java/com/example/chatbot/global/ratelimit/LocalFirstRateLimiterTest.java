@@ -0,0 +1,80 @@
+package com.example.chatbot.global.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LocalFirstRateLimiterTest {
+
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private LocalFirstRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMode(RateLimitProperties.Mode.LOCAL_FIRST);
+        properties.setLimit(3);
+        properties.setWindowSeconds(60);
+        properties.getLocalFirst().setShards(1);
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new LocalFirstRateLimiter(redisTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("요청 경로에서는 Redis를 호출하지 않고 로컬 버킷으로 판정한다")
+    void decidesLocallyWithoutRedis() {
+        for (int i = 0; i < 3; i++) {
+            limiter.checkRateLimit("key:a");
+        }
+
+        assertThatThrownBy(() -> limiter.checkRateLimit("key:a"))
+                .isInstanceOf(RateLimitException.class)
+                .satisfies(e -> assertThat(((RateLimitException) e).getRetryAfterSeconds()).isPositive());
+        assertThatCode(() -> limiter.checkRateLimit("key:b")).doesNotThrowAnyException();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("다른 노드가 소비한 양은 동기화 후 로컬 버킷에서도 차감된다")
+    void appliesRemoteConsumptionAfterSync() {
+        limiter.checkRateLimit("key:a");
+        // INCRBY 결과, EXPIRE 결과, 샤드 합계(이 노드 1 + 다른 노드 2)
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(1L, true, "3"));
+
+        limiter.synchronize();
+
+        assertThatThrownBy(() -> limiter.checkRateLimit("key:a")).isInstanceOf(RateLimitException.class);
+    }
+
+    @Test
+    @DisplayName("Redis 장애 시에도 요청을 실패시키지 않고 로컬 한도로 계속 판정한다")
+    void degradesToLocalOnlyWhenRedisIsDown() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        limiter.checkRateLimit("key:a");
+        limiter.synchronize();
+        limiter.checkRateLimit("key:a");
+        limiter.checkRateLimit("key:a");
+
+        assertThatThrownBy(() -> limiter.checkRateLimit("key:a")).isInstanceOf(RateLimitException.class);
+        assertThat(meterRegistry.get("rate_limit.local.degraded").gauge().value()).isEqualTo(1.0);
+    }
+}
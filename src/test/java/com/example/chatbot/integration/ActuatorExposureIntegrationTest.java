@@ -0,0 +1,46 @@
+package com.example.chatbot.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * 지표 엔드포인트는 관리 포트에서만 열리고, 공개 API 포트에서는 익명으로 읽을 수 없는지 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+@Testcontainers
+class ActuatorExposureIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    @DisplayName("공개 API 포트에서는 metrics와 prometheus를 익명으로 읽을 수 없다")
+    void metricsAreNotExposedOnApiPort() {
+        webTestClient.get().uri("/actuator/prometheus").exchange().expectStatus().is4xxClientError();
+        webTestClient.get().uri("/actuator/metrics").exchange().expectStatus().is4xxClientError();
+    }
+
+    @Test
+    @DisplayName("관리 포트에서는 health, metrics, prometheus를 읽을 수 있다")
+    void metricsAreExposedOnManagementPort() {
+        WebTestClient management = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + managementPort)
+                .build();
+
+        management.get().uri("/actuator/health").exchange().expectStatus().isOk();
+        management.get().uri("/actuator/metrics").exchange().expectStatus().isOk();
+        management.get().uri("/actuator/prometheus").exchange().expectStatus().isOk();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.global.ratelimit.AdaptiveConcurrencyLimiter;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 동시 처리 한도를 1로 고정하고, 스트림이 열려 있는 동안 다음 채팅 요청이 대기 없이 503으로 거절되는지 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30000")
+@ActiveProfiles("test")
+@Testcontainers
+class AdaptiveConcurrencyIntegrationTest extends IntegrationTestSupport {
+
+    private static MockWebServer mockBackEnd;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // 스트림 본문을 늦게 보내 첫 요청이 자리를 잡고 있게 한다.
+                return new MockResponse()
+                        .setHeader("Content-Type", "text/event-stream")
+                        .setBodyDelay(500, TimeUnit.MILLISECONDS)
+                        .setBody("data: {\"choices\":[{\"delta\":{\"content\":\"Hello\"}}]}\n\ndata: [DONE]\n\n");
+            }
+        });
+        mockBackEnd.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        mockBackEnd.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", () -> String.format("http://localhost:%d", mockBackEnd.getPort()));
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("app.rate-limit.enabled", () -> "false");
+        registry.add("app.adaptive-concurrency.initial-limit", () -> "1");
+        registry.add("app.adaptive-concurrency.min-limit", () -> "1");
+        registry.add("app.adaptive-concurrency.max-limit", () -> "1");
+    }
+
+    @Test
+    @DisplayName("한도를 넘은 요청은 503과 Retry-After로 바로 거절되고, 스트림이 끝나면 자리가 돌아온다")
+    void rejectsOverLimitAndReleasesWhenStreamEnds() {
+        Mono<List<String>> first = stream()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .collectList()
+                .cache();
+        first.subscribe();
+        await().atMost(Duration.ofSeconds(5)).until(() -> mockBackEnd.getRequestCount() == 1);
+
+        stream()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody()
+                .jsonPath("$.error.code").isEqualTo("CONCURRENCY_LIMIT_EXCEEDED");
+        assertThat(mockBackEnd.getRequestCount()).isEqualTo(1);
+
+        assertThat(first.block(Duration.ofSeconds(10))).isNotEmpty();
+        await().atMost(Duration.ofSeconds(5)).until(() -> limiter.getStreams().getInFlight() == 0);
+
+        stream().expectStatus().isOk();
+    }
+
+    private WebTestClient.ResponseSpec stream() {
+        return webTestClient.post()
+                .uri("/api/chat/completions/stream")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"안녕\"}")
+                .exchange();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.global.auth.ApiKeyCache;
+import com.example.chatbot.global.auth.ApiKeyCacheProperties;
+import com.example.chatbot.global.auth.ApiKeyHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class ApiKeyCacheIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private ApiKeyCache apiKeyCache;
+
+    @Autowired
+    private ApiKeyCacheProperties properties;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.auth.key-cache.pubsub-enabled", () -> "true");
+    }
+
+    @Test
+    @DisplayName("같은 키와 존재하지 않는 키는 TTL 동안 DB를 다시 조회하지 않는다")
+    void repeatedLookupsAreServedFromCache() {
+        double before = databaseLookups();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(apiKeyCache.resolveUserId("test-key")).isEqualTo(1L);
+            assertThat(apiKeyCache.resolveUserId("missing-key")).isNull();
+        }
+
+        assertThat(databaseLookups() - before).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("다른 노드에서 발행한 무효화 메시지를 받으면 폐기된 키를 거부한다")
+    void revokedKeyIsEvictedByPubSub() throws InterruptedException {
+        // 다른 테스트가 캐시에 남긴 키와 겹치지 않도록 이 테스트만 쓰는 사용자를 만든다.
+        jdbcTemplate.update(
+                "INSERT INTO users (id, api_key, created_at, updated_at) VALUES (2, 'revocable-key', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        assertThat(apiKeyCache.resolveUserId("revocable-key")).isEqualTo(2L);
+
+        jdbcTemplate.update("UPDATE users SET api_key = 'rotated-key' WHERE id = 2");
+        redisTemplate.convertAndSend(properties.getInvalidationChannel(), ApiKeyHasher.sha256Hex("revocable-key"));
+
+        Long userId = 2L;
+        for (int attempt = 0; attempt < 50 && userId != null; attempt++) {
+            Thread.sleep(100);
+            userId = apiKeyCache.resolveUserId("revocable-key");
+        }
+
+        assertThat(userId).isNull();
+        assertThat(apiKeyCache.resolveUserId("rotated-key")).isEqualTo(2L);
+    }
+
+    private double databaseLookups() {
+        return meterRegistry.get("auth.api_key.lookups").tag("source", "database").functionCounter().count();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.chatbot.integration;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 업스트림이 느릴 때(기본 2초) 노드 하나가 동시에 처리하는 비스트리밍 채팅 수를 잰다.
+ * 하위 클래스가 스레드 모드만 바꿔 같은 부하를 건다. 실행: ./gradlew loadTest
+ *
+ * 두 모드 모두 요청 스레드 풀 크기를 같게 두고, 동시 요청 수는 그보다 크게 건다.
+ * 플랫폼 스레드 모드는 풀 크기에서 막히고, 가상 스레드 모드는 같은 업스트림 지연에서 풀 크기를 넘어서야 한다.
+ *
+ * 조정: -Dloadtest.concurrency=400 -Dloadtest.upstream-delay-ms=2000 -Dloadtest.platform-threads=200
+ */
+@Tag("load")
+abstract class ChatConcurrencyLoadTestSupport extends IntegrationTestSupport {
+
+    // 애플리케이션 로그는 WARN으로 낮추므로 결과는 별도 로거로 남긴다.
+    private static final Logger report = LoggerFactory.getLogger("loadtest");
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 400);
+    private static final long UPSTREAM_DELAY_MILLIS = Long.getLong("loadtest.upstream-delay-ms", 2000);
+    static final int PLATFORM_THREADS = Integer.getInteger("loadtest.platform-threads", 200);
+    private static final String COMPLETION_BODY = """
+            {"choices":[{"message":{"role":"assistant","content":"ok"}}],
+             "usage":{"prompt_tokens":10,"completion_tokens":1}}""";
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+    private static MockWebServer upstream;
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = new MockWebServer();
+        upstream.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(UPSTREAM_DELAY_MILLIS);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(COMPLETION_BODY);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() throws IOException {
+        upstream.shutdown();
+    }
+
+    static void configureLoadProperties(DynamicPropertyRegistry registry, boolean virtualThreads) {
+        registry.add("spring.threads.virtual.enabled", () -> String.valueOf(virtualThreads));
+        registry.add("server.tomcat.threads.max", () -> String.valueOf(PLATFORM_THREADS));
+        registry.add("openai.base-url", () -> "http://localhost:" + upstream.getPort());
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("app.rate-limit.enabled", () -> "false");
+        registry.add("app.adaptive-concurrency.enabled", () -> "false");
+        registry.add("app.token-quota.enabled", () -> "false");
+        registry.add("app.chat.summary.enabled", () -> "false");
+        // 모든 요청이 같은 메시지를 보내므로 업스트림 호출을 합치면 동시 처리량을 잴 수 없다.
+        registry.add("app.upstream.single-flight.enabled", () -> "false");
+        // 스레드 모드별 한계를 재는 테스트이므로 벌크헤드가 먼저 막지 않게 한다.
+        registry.add("app.upstream.completion-bulkhead.max-concurrent", () -> "100000");
+        registry.add("logging.level.com.example.chatbot", () -> "WARN");
+    }
+
+    abstract String mode();
+
+    /**
+     * 모드별로 기대하는 동시 처리 수와 성공 수를 검증한다.
+     */
+    abstract void assertConcurrency(int peakConcurrentChats, long succeeded, int concurrency);
+
+    @Test
+    void measureConcurrentNonStreamingChats() {
+        // 풀 크기보다 많이 걸어야 두 모드의 차이가 드러난다.
+        assertThat(CONCURRENCY).isGreaterThan(PLATFORM_THREADS);
+        peakInFlight.set(0);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/chat/completions"))
+                .header("X-API-Key", "test-key")
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"hello\"}"))
+                .build();
+
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+            CompletableFuture.allOf(responses.stream()
+                    .map(future -> future.exceptionally(e -> null))
+                    .toArray(CompletableFuture[]::new)).join();
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        long succeeded = responses.stream()
+                .map(CompletableFuture::join)
+                .filter(response -> response != null && response.statusCode() == 200)
+                .count();
+
+        report.info("mode={} concurrency={} platformThreads={} upstreamDelayMs={} peakConcurrentChats={} "
+                        + "succeeded={} failed={} elapsedMs={} throughput={}/s",
+                mode(), CONCURRENCY, PLATFORM_THREADS, UPSTREAM_DELAY_MILLIS, peakInFlight.get(),
+                succeeded, CONCURRENCY - succeeded, elapsedMillis,
+                String.format("%.1f", succeeded * 1000.0 / Math.max(elapsedMillis, 1)));
+
+        assertConcurrency(peakInFlight.get(), succeeded, CONCURRENCY);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.chatbot.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30000")
+@ActiveProfiles("test")
+@Testcontainers
+class CompletionCacheIntegrationTest extends IntegrationTestSupport {
+
+    private static MockWebServer mockBackEnd;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                Thread.sleep(50);
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"무엇을 도와드릴까요?\"}}],"
+                                + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":5}}");
+            }
+        });
+        mockBackEnd.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        mockBackEnd.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", () -> String.format("http://localhost:%d", mockBackEnd.getPort()));
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("app.chat.completion-cache.enabled", () -> "true");
+        registry.add("app.chat.completion-cache.redis.enabled", () -> "true");
+    }
+
+    @Test
+    @DisplayName("같은 첫 메시지는 공백 차이가 있어도 업스트림을 한 번만 호출한다")
+    void identicalFirstMessageIsServedFromCache() {
+        int before = mockBackEnd.getRequestCount();
+        double savedBefore = savedUpstreamMillis();
+
+        String first = complete("{\"message\":\"무엇을 할 수 있나요?\"}");
+        String second = complete("{\"message\":\"  무엇을   할 수 있나요? \"}");
+
+        assertThat(mockBackEnd.getRequestCount() - before).isEqualTo(1);
+        assertThat(first).contains("무엇을 도와드릴까요?");
+        assertThat(second).contains("무엇을 도와드릴까요?");
+        assertThat(messageRepository.findAll()).hasSize(4);
+        assertThat(savedUpstreamMillis() - savedBefore).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("cache=false 요청은 캐시를 읽지 않는다")
+    void optedOutRequestBypassesCache() {
+        int before = mockBackEnd.getRequestCount();
+
+        complete("{\"message\":\"캐시 제외\"}");
+        complete("{\"message\":\"캐시 제외\",\"cache\":false}");
+
+        assertThat(mockBackEnd.getRequestCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("캐시된 응답은 스트리밍 엔드포인트에서 합성 스트림으로 재생된다")
+    void cachedCompletionIsReplayedAsStream() {
+        int before = mockBackEnd.getRequestCount();
+        complete("{\"message\":\"온보딩\"}");
+
+        List<String> events = webTestClient.post()
+                .uri("/api/chat/completions/stream")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"온보딩\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(mockBackEnd.getRequestCount() - before).isEqualTo(1);
+        assertThat(events).isNotNull();
+        assertThat(String.join("", events)).contains("[DONE]");
+        assertThat(messageRepository.findAll())
+                .filteredOn(message -> message.getContent().equals("무엇을 도와드릴까요?"))
+                .hasSize(2);
+    }
+
+    private String complete(String body) {
+        return webTestClient.post()
+                .uri("/api/chat/completions")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private double savedUpstreamMillis() {
+        return meterRegistry.get("chat.completion_cache.saved_upstream_time").counter().count();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.chatbot.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 업스트림 응답을 기다리는 동안 요청이 DB 커넥션을 잡고 있지 않은지 확인한다.
+ * 업스트림 목 서버가 요청을 받은 시점의 Hikari 활성 커넥션 수를 기록한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30000")
+@ActiveProfiles("test")
+@Testcontainers
+class ConnectionHoldIntegrationTest extends IntegrationTestSupport {
+
+    private static final String FAILING_MESSAGE = "upstream-fails";
+    private static final List<Integer> activeConnectionsDuringUpstream = new CopyOnWriteArrayList<>();
+    private static MockWebServer mockBackEnd;
+    private static HikariDataSource hikariDataSource;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // 커넥션을 잡은 스레드가 있다면 이 대기 동안 계속 활성 상태로 남는다.
+                Thread.sleep(200);
+                activeConnectionsDuringUpstream.add(hikariDataSource.getHikariPoolMXBean().getActiveConnections());
+                return upstreamResponse(request.getBody().readUtf8());
+            }
+        });
+        mockBackEnd.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        mockBackEnd.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", () -> String.format("http://localhost:%d", mockBackEnd.getPort()));
+        registry.add("openai.api-key", () -> "test-openai-key");
+    }
+
+    @BeforeEach
+    void captureDataSource() {
+        hikariDataSource = dataSource;
+        activeConnectionsDuringUpstream.clear();
+    }
+
+    @Test
+    @DisplayName("비스트리밍 채팅은 업스트림 호출 중에 DB 커넥션을 잡고 있지 않다")
+    void completionReleasesConnectionDuringUpstreamCall() {
+        webTestClient.post()
+                .uri("/api/chat/completions")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"안녕\"}")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(activeConnectionsDuringUpstream).containsExactly(0);
+        assertThat(messageRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("스트리밍 채팅도 업스트림 응답을 기다리는 동안 DB 커넥션을 잡고 있지 않다")
+    void streamReleasesConnectionDuringUpstreamCall() {
+        webTestClient.post()
+                .uri("/api/chat/completions/stream")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"안녕\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(activeConnectionsDuringUpstream).containsExactly(0);
+    }
+
+    @Test
+    @DisplayName("업스트림이 실패하면 사용자 메시지와 새 대화를 남기지 않는다")
+    void failedUpstreamLeavesNoUserTurn() {
+        webTestClient.post()
+                .uri("/api/chat/completions")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"" + FAILING_MESSAGE + "\"}")
+                .exchange()
+                .expectStatus().is5xxServerError();
+
+        webTestClient.post()
+                .uri("/api/chat/completions/stream")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"" + FAILING_MESSAGE + "\"}")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseBody()
+                .onErrorComplete()
+                .collectList()
+                .block();
+
+        assertThat(messageRepository.findAll()).isEmpty();
+        assertThat(conversationRepository.findAll()).isEmpty();
+    }
+
+    private static MockResponse upstreamResponse(String body) {
+        if (body.contains(FAILING_MESSAGE)) {
+            // 4xx는 엔드포인트 배제나 서킷에 반영되지 않으므로 다른 테스트에 영향을 주지 않는다.
+            return new MockResponse()
+                    .setResponseCode(400)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"error\":{\"message\":\"bad request\"}}");
+        }
+        if (body.contains("\"stream\":true")) {
+            return new MockResponse()
+                    .setHeader("Content-Type", "text/event-stream")
+                    .setBody("data: {\"choices\":[{\"delta\":{\"content\":\"Hello\"}}]}\n\ndata: [DONE]\n\n");
+        }
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Hello\"}}],"
+                        + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":1}}");
+    }
+}
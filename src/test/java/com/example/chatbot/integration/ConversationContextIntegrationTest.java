@@ -0,0 +1,210 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.conversation.cache.ContextMessage;
+import com.example.chatbot.conversation.cache.ConversationContextCache;
+import com.example.chatbot.dto.openai.OpenAiMessage;
+import com.example.chatbot.entity.Conversation;
+import com.example.chatbot.service.ConversationContextService;
+import com.example.chatbot.service.TokenCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class ConversationContextIntegrationTest extends IntegrationTestSupport {
+
+    private static final int CONTEXT_SIZE = 10;
+    private static final int TOKEN_BUDGET = 300;
+
+    @Autowired
+    private ConversationContextService conversationContextService;
+
+    @Autowired
+    private TokenCounter tokenCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConversationContextCache contextCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.chat.context-size", () -> String.valueOf(CONTEXT_SIZE));
+        registry.add("app.chat.context-token-budget", () -> String.valueOf(TOKEN_BUDGET));
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @Test
+    @DisplayName("컨텍스트 조회 비용은 대화 길이와 무관하게 일정하다")
+    void contextCostStaysFlatAsHistoryGrows() throws Exception {
+        Long shortConversationId = createConversationWithMessages(20);
+        Long longConversationId = createConversationWithMessages(5000);
+        jdbcTemplate.execute("ANALYZE messages");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<OpenAiMessage> shortContext = conversationContextService.buildOpenAiContextMessages(shortConversationId);
+        long shortStatements = statistics.getPrepareStatementCount();
+        long shortEntityLoads = statistics.getEntityLoadCount();
+
+        statistics.clear();
+        List<OpenAiMessage> longContext = conversationContextService.buildOpenAiContextMessages(longConversationId);
+        long longStatements = statistics.getPrepareStatementCount();
+        long longEntityLoads = statistics.getEntityLoadCount();
+
+        assertThat(shortContext).hasSize(CONTEXT_SIZE);
+        assertThat(longContext).hasSize(CONTEXT_SIZE);
+        assertThat(longContext.get(0).getContent()).isEqualTo("message-4991");
+        assertThat(longContext.get(CONTEXT_SIZE - 1).getContent()).isEqualTo("message-5000");
+
+        assertThat(longStatements).isEqualTo(shortStatements);
+        assertThat(shortEntityLoads).isZero();
+        assertThat(longEntityLoads).isZero();
+
+        // 실행 계획상 어떤 노드도 컨텍스트 크기보다 많은 행을 읽지 않아야 한다.
+        assertThat(maxActualRows(longConversationId)).isLessThanOrEqualTo(CONTEXT_SIZE);
+    }
+
+    @Test
+    @DisplayName("Postgres JSON 집계 결과는 프로젝션 조회 결과와 동일하다")
+    void jsonAggregationMatchesProjection() throws Exception {
+        Long conversationId = createConversationWithMessages(50);
+
+        List<OpenAiMessage> projected = conversationContextService.buildOpenAiContextMessages(conversationId);
+        JsonNode aggregated = objectMapper.readTree(messageRepository.findContextTailJson(conversationId, CONTEXT_SIZE));
+
+        assertThat(aggregated).hasSize(projected.size());
+        for (int i = 0; i < projected.size(); i++) {
+            assertThat(aggregated.get(i).get("role").asText()).isEqualTo(projected.get(i).getRole());
+            assertThat(aggregated.get(i).get("content").asText()).isEqualTo(projected.get(i).getContent());
+        }
+    }
+
+    @Test
+    @DisplayName("캐시된 대화는 업스트림 호출 전까지 DB를 조회하지 않는다")
+    void warmConversationNeedsNoDatabaseReads() {
+        Conversation created = conversationContextService.getOrCreateConversation(null, 1L, "first");
+        conversationContextService.saveTurn(created, "first", "answer");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Conversation conversation = conversationContextService.getOrCreateConversation(created.getId(), 1L, "second");
+        List<OpenAiMessage> context = conversationContextService.buildOpenAiContextMessages(conversation.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(context).extracting(OpenAiMessage::getContent).containsExactly("first", "answer");
+    }
+
+    @Test
+    @DisplayName("토큰 예산을 넘는 메시지는 예산에 맞게 잘리고 토큰 수가 저장된다")
+    void oversizedMessageIsTruncatedToTokenBudget() {
+        String pastedLog = "ERROR connection reset by peer at line 42\n".repeat(500);
+        Conversation conversation = conversationContextService.getOrCreateConversation(null, 1L, "log");
+        conversationContextService.saveUserMessage(conversation, "short question");
+        conversationContextService.saveUserMessage(conversation, pastedLog);
+
+        List<OpenAiMessage> context = conversationContextService.buildOpenAiContextMessages(conversation.getId());
+
+        assertThat(context).hasSize(1);
+        assertThat(tokenCounter.count(context.get(0).getContent())).isLessThanOrEqualTo(TOKEN_BUDGET);
+        assertThat(pastedLog).startsWith(context.get(0).getContent());
+        assertThat(messageRepository.findByConversation_IdOrderByCreatedAtAsc(conversation.getId()))
+                .allSatisfy(message -> assertThat(message.getTokenCount())
+                        .isEqualTo(tokenCounter.count(message.getContent())));
+    }
+
+    @Test
+    @DisplayName("롤백된 트랜잭션에서 저장한 메시지는 캐시에 남지 않는다")
+    void rolledBackMessageNeverReachesCache() {
+        Conversation conversation = conversationContextService.getOrCreateConversation(null, 1L, "first");
+        conversationContextService.saveUserMessage(conversation, "first");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            conversationContextService.saveUserMessage(conversation, "rolled back");
+            status.setRollbackOnly();
+        });
+
+        List<OpenAiMessage> context = conversationContextService.buildOpenAiContextMessages(conversation.getId());
+        assertThat(context).extracting(OpenAiMessage::getContent).containsExactly("first");
+    }
+
+    @Test
+    @DisplayName("적재 중 메시지가 추가되면 오래된 스냅샷으로 캐시를 덮어쓰지 않는다")
+    void staleSnapshotDoesNotOverwriteConcurrentAppend() {
+        Long conversationId = createConversationWithMessages(2);
+        contextCache.registerConversation(conversationId, 1L, false);
+
+        long version = contextCache.beginLoad(conversationId);
+        List<ContextMessage> snapshot = List.of(
+                new ContextMessage(1L, "user", "message-1", null),
+                new ContextMessage(2L, "assistant", "message-2", null));
+        contextCache.append(conversationId, new ContextMessage(3L, "user", "message-3", null));
+        contextCache.putContext(conversationId, snapshot, version);
+
+        assertThat(contextCache.getContext(conversationId)).isNull();
+
+        contextCache.putContext(conversationId, snapshot, contextCache.beginLoad(conversationId));
+        assertThat(contextCache.getContext(conversationId)).hasSize(2);
+    }
+
+    private Long createConversationWithMessages(int messageCount) {
+        Long conversationId = jdbcTemplate.queryForObject(
+                "INSERT INTO conversations (user_id, title, created_at, updated_at) "
+                        + "VALUES (1, 'history', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) RETURNING id",
+                Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO messages (conversation_id, role, content, created_at)
+                SELECT ?, CAST(CASE WHEN g % 2 = 1 THEN 'user' ELSE 'assistant' END AS message_role),
+                       'message-' || g, TIMESTAMP '2024-01-01 00:00:00' + g * INTERVAL '1 second'
+                FROM generate_series(1, ?) AS g
+                """, conversationId, messageCount);
+        return conversationId;
+    }
+
+    private long maxActualRows(Long conversationId) throws Exception {
+        String plan = jdbcTemplate.queryForObject("""
+                EXPLAIN (ANALYZE, FORMAT JSON)
+                SELECT m.id, m.role, m.content
+                FROM messages m
+                WHERE m.conversation_id = %d
+                ORDER BY m.created_at DESC, m.id DESC
+                LIMIT %d
+                """.formatted(conversationId, CONTEXT_SIZE), String.class);
+        return maxActualRows(objectMapper.readTree(plan).get(0).get("Plan"));
+    }
+
+    private long maxActualRows(JsonNode node) {
+        long max = node.path("Actual Rows").asLong();
+        for (JsonNode child : node.path("Plans")) {
+            max = Math.max(max, maxActualRows(child));
+        }
+        return max;
+    }
+}
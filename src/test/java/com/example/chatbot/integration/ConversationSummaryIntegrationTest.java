@@ -0,0 +1,182 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.conversation.repository.ConversationSummaryView;
+import com.example.chatbot.dto.openai.OpenAiMessage;
+import com.example.chatbot.entity.Conversation;
+import com.example.chatbot.entity.Message;
+import com.example.chatbot.service.ConversationContextService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class ConversationSummaryIntegrationTest extends IntegrationTestSupport {
+
+    private static final int REFRESH_EVERY = 4;
+    private static final int KEEP_RECENT = 2;
+    private static final String SUMMARY = "사용자는 배포 일정을 묻고 있다.";
+    private static final String LOCK_KEY_PREFIX = "summary_lock_test";
+
+    private static MockWebServer mockBackEnd;
+
+    @Autowired
+    private ConversationContextService conversationContextService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // 요약이 진행 중인 동안 다음 트리거가 들어오도록 응답을 늦춘다.
+                Thread.sleep(500);
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + SUMMARY + "\"}}]}");
+            }
+        });
+        mockBackEnd.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        mockBackEnd.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", () -> String.format("http://localhost:%d", mockBackEnd.getPort()));
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("app.chat.summary.refresh-every-messages", () -> String.valueOf(REFRESH_EVERY));
+        registry.add("app.chat.summary.keep-recent-messages", () -> String.valueOf(KEEP_RECENT));
+        registry.add("app.chat.summary.min-messages-to-summarize", () -> "2");
+        registry.add("app.chat.summary.lock-key-prefix", () -> LOCK_KEY_PREFIX);
+    }
+
+    @Test
+    @DisplayName("메시지가 기준 개수만큼 쌓여야 요약하고, 요약 기준점은 최근 메시지를 남기고 앞으로 이동한다")
+    void refreshesAtThresholdAndAdvancesWatermark() throws Exception {
+        Conversation conversation = conversationContextService.getOrCreateConversation(null, 1L, "first");
+        int before = mockBackEnd.getRequestCount();
+
+        List<Message> saved = new ArrayList<>();
+        for (int i = 1; i < REFRESH_EVERY; i++) {
+            saved.add(conversationContextService.saveUserMessage(conversation, "message-" + i));
+        }
+        Thread.sleep(300);
+        assertThat(mockBackEnd.getRequestCount()).isEqualTo(before);
+        assertThat(summaryOf(conversation).getSummary()).isNull();
+
+        saved.add(conversationContextService.saveUserMessage(conversation, "message-" + REFRESH_EVERY));
+        Long firstWatermark = saved.get(REFRESH_EVERY - KEEP_RECENT - 1).getId();
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(summaryOf(conversation).getSummarizedUntilMessageId()).isEqualTo(firstWatermark));
+        assertThat(summaryOf(conversation).getSummary()).isEqualTo(SUMMARY);
+
+        for (int i = 1; i <= REFRESH_EVERY; i++) {
+            saved.add(conversationContextService.saveUserMessage(conversation, "more-" + i));
+        }
+        Long secondWatermark = saved.get(saved.size() - KEEP_RECENT - 1).getId();
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(summaryOf(conversation).getSummarizedUntilMessageId()).isEqualTo(secondWatermark));
+        assertThat(secondWatermark).isGreaterThan(firstWatermark);
+    }
+
+    @Test
+    @DisplayName("요약 중에 들어온 트리거는 합쳐지고, 다른 노드가 락을 잡고 있으면 건너뛴다")
+    void concurrentTriggersAreDeduplicated() throws Exception {
+        Conversation conversation = conversationContextService.getOrCreateConversation(null, 1L, "first");
+        int before = mockBackEnd.getRequestCount();
+
+        int writers = REFRESH_EVERY * 3;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                String content = "message-" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return conversationContextService.saveUserMessage(conversation, content);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(summaryOf(conversation).getSummary()).isEqualTo(SUMMARY));
+        Thread.sleep(300);
+        assertThat(mockBackEnd.getRequestCount() - before).isEqualTo(1);
+
+        // 다른 노드가 같은 대화의 락을 잡고 있으면 이 노드는 요약하지 않고, 그 락도 건드리지 않는다.
+        String lockKey = LOCK_KEY_PREFIX + ":" + conversation.getId();
+        redisTemplate.opsForValue().set(lockKey, "other-node", Duration.ofMinutes(1));
+        int beforeLocked = mockBackEnd.getRequestCount();
+        for (int i = 0; i < REFRESH_EVERY; i++) {
+            conversationContextService.saveUserMessage(conversation, "locked-" + i);
+        }
+        Thread.sleep(300);
+        assertThat(mockBackEnd.getRequestCount()).isEqualTo(beforeLocked);
+        assertThat(redisTemplate.opsForValue().get(lockKey)).isEqualTo("other-node");
+        redisTemplate.delete(lockKey);
+    }
+
+    @Test
+    @DisplayName("요약이 있으면 컨텍스트 맨 앞에 시스템 메시지로 붙고, 요약된 메시지는 다시 포함하지 않는다")
+    void summaryIsPrependedToContextWindow() {
+        Conversation conversation = conversationContextService.getOrCreateConversation(null, 1L, "first");
+        for (int i = 1; i <= REFRESH_EVERY; i++) {
+            conversationContextService.saveUserMessage(conversation, "message-" + i);
+        }
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(summaryOf(conversation).getSummary()).isEqualTo(SUMMARY));
+
+        List<OpenAiMessage> context = conversationContextService.buildOpenAiContextMessages(conversation.getId());
+
+        assertThat(context).hasSize(KEEP_RECENT + 1);
+        assertThat(context.get(0).getRole()).isEqualTo("system");
+        assertThat(context.get(0).getContent()).endsWith(SUMMARY);
+        assertThat(context.subList(1, context.size()))
+                .extracting(OpenAiMessage::getContent)
+                .containsExactly("message-3", "message-4");
+    }
+
+    private ConversationSummaryView summaryOf(Conversation conversation) {
+        return conversationRepository.findSummaryById(conversation.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.upstream.CircuitBreaker;
+import com.example.chatbot.upstream.UpstreamEndpoints;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 200으로 왔지만 본문이 잘못된 응답(content: null)은 엔드포인트 장애로 기록하지 않는지 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30000")
+@ActiveProfiles("test")
+@Testcontainers
+class InvalidUpstreamResponseIntegrationTest extends IntegrationTestSupport {
+
+    private static final String NULL_CONTENT = "null-content";
+    private static final int INVALID_CALLS = 3;
+
+    private static MockWebServer mockBackEnd;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UpstreamEndpoints openAiEndpoints;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        mockBackEnd = new MockWebServer();
+        mockBackEnd.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String content = request.getBody().readUtf8().contains(NULL_CONTENT) ? "null" : "\"응답\"";
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":" + content + "}}]}");
+            }
+        });
+        mockBackEnd.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        mockBackEnd.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", () -> String.format("http://localhost:%d", mockBackEnd.getPort()));
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("app.rate-limit.enabled", () -> "false");
+        // 잘못된 응답이 실패로 기록된다면 이 정도 호출로 서킷이 열린다.
+        registry.add("app.upstream.circuit-breaker.minimum-calls", () -> "2");
+    }
+
+    @Test
+    @DisplayName("200 응답의 content가 null이면 요청은 실패하지만 엔드포인트를 빼거나 서킷을 열지 않는다")
+    void invalidBodyDoesNotEjectEndpointOrTripBreaker() {
+        for (int i = 0; i < INVALID_CALLS; i++) {
+            webTestClient.post()
+                    .uri("/api/chat/completions")
+                    .header("X-API-Key", "test-key")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"message\":\"" + NULL_CONTENT + " " + i + "\"}")
+                    .exchange()
+                    .expectStatus().is5xxServerError();
+        }
+
+        assertThat(outcome("invalid_response")).isEqualTo(INVALID_CALLS);
+        assertThat(outcome("transport_error")).isZero();
+        assertThat(meterRegistry.get("upstream.endpoint.ejections").tag("endpoint", "default").counter().count())
+                .isZero();
+        assertThat(openAiEndpoints.getEndpoints().get(0).circuitBreaker("gpt-4o-mini").getState())
+                .isEqualTo(CircuitBreaker.State.CLOSED);
+
+        webTestClient.post()
+                .uri("/api/chat/completions")
+                .header("X-API-Key", "test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"message\":\"안녕\"}")
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(outcome("success")).isEqualTo(1);
+    }
+
+    private double outcome(String outcome) {
+        Counter counter = meterRegistry.find("upstream.endpoint.requests")
+                .tag("endpoint", "default")
+                .tag("outcome", outcome)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
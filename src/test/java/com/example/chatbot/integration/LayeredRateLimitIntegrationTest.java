@@ -0,0 +1,70 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.global.ratelimit.RateLimitDecision;
+import com.example.chatbot.global.ratelimit.RateLimitException;
+import com.example.chatbot.global.ratelimit.RedisRateLimitService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class LayeredRateLimitIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private RedisRateLimitService rateLimitService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.rate-limit.enabled", () -> "true");
+        registry.add("app.rate-limit.limit", () -> "10");
+        registry.add("app.rate-limit.window-seconds", () -> "60");
+        registry.add("app.rate-limit.layers[0].limit", () -> "2");
+        registry.add("app.rate-limit.layers[0].window-seconds", () -> "1");
+    }
+
+    @Test
+    @DisplayName("여러 한도를 한 번에 평가하고 가장 빡빡한 한도 기준으로 결과를 돌려준다")
+    void burstLayerRejectsBeforeSustainedLimit() {
+        String identifier = "key:layered-" + System.nanoTime();
+
+        RateLimitDecision first = rateLimitService.checkRateLimit(identifier);
+        RateLimitDecision second = rateLimitService.checkRateLimit(identifier);
+
+        assertThat(first.getLimit()).isEqualTo(2);
+        assertThat(first.getRemaining()).isEqualTo(1);
+        assertThat(second.getRemaining()).isZero();
+        assertThatThrownBy(() -> rateLimitService.checkRateLimit(identifier))
+                .isInstanceOf(RateLimitException.class)
+                .satisfies(e -> assertThat(((RateLimitException) e).getWindowSeconds()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("거부된 요청은 어떤 한도도 소비하지 않는다")
+    void rejectedRequestDoesNotConsumeOtherLayers() {
+        String identifier = "key:layered-" + System.nanoTime();
+        rateLimitService.checkRateLimit(identifier);
+        rateLimitService.checkRateLimit(identifier);
+        String sustainedKey = "rate_limit:{" + identifier + "}:60s";
+        String before = redisTemplate.opsForValue().get(sustainedKey);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> rateLimitService.checkRateLimit(identifier)).isInstanceOf(RateLimitException.class);
+        }
+
+        assertThat(redisTemplate.opsForValue().get(sustainedKey)).isEqualTo(before);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.dto.openai.OpenAiMessage;
+import com.example.chatbot.entity.Conversation;
+import com.example.chatbot.entity.Message;
+import com.example.chatbot.service.ConversationContextService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class MessageWriteBehindIntegrationTest extends IntegrationTestSupport {
+
+    private static final int WRITERS = 32;
+    private static final int MESSAGES_PER_WRITER = 20;
+
+    @Autowired
+    private ConversationContextService conversationContextService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("저장이 끝난 메시지는 바로 이어지는 컨텍스트 조회에 포함된다")
+    void savedMessageIsVisibleToNextRead() {
+        Conversation conversation = conversationContextService.getOrCreateConversation(null, 1L, "hello");
+
+        Message saved = conversationContextService.saveUserMessage(conversation, "hello");
+        List<OpenAiMessage> context = conversationContextService.buildOpenAiContextMessages(conversation.getId());
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getCreatedAt()).isNotNull();
+        assertThat(context).extracting(OpenAiMessage::getContent).containsExactly("hello");
+        assertThat(messageRepository.findById(saved.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("동시에 들어온 메시지는 여러 건씩 한 트랜잭션으로 커밋된다")
+    void concurrentSavesAreGroupCommitted() throws Exception {
+        List<Conversation> conversations = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            conversations.add(conversationContextService.getOrCreateConversation(null, 1L, "conversation-" + i));
+        }
+        DistributionSummary batchSizes = meterRegistry.get("chat.messages.write_behind.batch_size").summary();
+        long batchesBefore = batchSizes.count();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Conversation conversation : conversations) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < MESSAGES_PER_WRITER; i++) {
+                        conversationContextService.saveUserMessage(conversation, "message-" + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = WRITERS * MESSAGES_PER_WRITER;
+        assertThat(messageRepository.count()).isEqualTo(total);
+        // 커밋 수가 메시지 수보다 적어야 묶어서 커밋한 것이다.
+        assertThat(batchSizes.count() - batchesBefore).isLessThan(total);
+        assertThat(batchSizes.max()).isGreaterThan(1);
+        assertThat(meterRegistry.get("chat.messages.write_behind.queue_depth").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.runner.OpenAiConnectionWarmer;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 예열을 켜고 엔드포인트 세 개(정상, 500 응답, 연결 불가)로 띄워, 예열이 엔드포인트마다 GET /v1/models만 보내고
+ * 실패해도 시작을 막지 않는지 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Testcontainers
+class OpenAiConnectionWarmerIntegrationTest extends IntegrationTestSupport {
+
+    private static final int CONNECTIONS = 3;
+
+    private static final List<String> warmRequests = new CopyOnWriteArrayList<>();
+    private static final List<String> failingRequests = new CopyOnWriteArrayList<>();
+    private static MockWebServer warm;
+    private static MockWebServer failing;
+    private static int unreachablePort;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        warm = new MockWebServer();
+        warm.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                warmRequests.add(request.getMethod() + " " + request.getPath() + " " + request.getHeader("Authorization"));
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"object\":\"list\",\"data\":[]}");
+            }
+        });
+        warm.start();
+
+        failing = new MockWebServer();
+        failing.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                failingRequests.add(request.getMethod() + " " + request.getPath());
+                return new MockResponse().setResponseCode(500).setBody("{\"error\":\"down\"}");
+            }
+        });
+        failing.start();
+
+        // 포트를 잡았다가 바로 닫아 연결이 거절되는 주소를 만든다.
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unreachablePort = socket.getLocalPort();
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        warm.shutdown();
+        failing.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("openai.warmup.enabled", () -> "true");
+        registry.add("openai.warmup.connections", () -> String.valueOf(CONNECTIONS));
+        registry.add("openai.warmup.timeout", () -> "5s");
+        registry.add("openai.endpoints[0].name", () -> "warm");
+        registry.add("openai.endpoints[0].base-url", () -> String.format("http://localhost:%d", warm.getPort()));
+        registry.add("openai.endpoints[1].name", () -> "failing");
+        registry.add("openai.endpoints[1].base-url", () -> String.format("http://localhost:%d", failing.getPort()));
+        registry.add("openai.endpoints[2].name", () -> "unreachable");
+        registry.add("openai.endpoints[2].base-url", () -> String.format("http://localhost:%d", unreachablePort));
+    }
+
+    @Test
+    @DisplayName("예열은 엔드포인트마다 GET /v1/models만 보내고 채팅 완성 요청은 보내지 않는다")
+    void warmsEveryEndpointWithModelListOnly() {
+        assertThat(warmRequests)
+                .hasSize(CONNECTIONS)
+                .allMatch(request -> request.equals("GET /v1/models Bearer test-openai-key"));
+        assertThat(failingRequests)
+                .hasSize(CONNECTIONS)
+                .allMatch(request -> request.equals("GET /v1/models"));
+        assertThat(warmRequests).noneMatch(request -> request.contains("/v1/chat/completions"));
+        assertThat(failingRequests).noneMatch(request -> request.contains("/v1/chat/completions"));
+    }
+
+    @Test
+    @DisplayName("예열 요청이 5xx나 연결 실패로 끝나도 애플리케이션은 시작된다")
+    void startsDespiteWarmupFailures() {
+        assertThat(applicationContext.isRunning()).isTrue();
+        assertThat(applicationContext.getBean(OpenAiConnectionWarmer.class)).isNotNull();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.chatbot.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Testcontainers
+class PlatformThreadChatLoadTest extends ChatConcurrencyLoadTestSupport {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        configureLoadProperties(registry, false);
+    }
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+
+    @Override
+    void assertConcurrency(int peakConcurrentChats, long succeeded, int concurrency) {
+        // 요청 스레드가 업스트림 응답을 기다리며 묶이므로 풀 크기를 넘지 못하고, 나머지는 대기열에서 기다렸다 처리된다.
+        assertThat(peakConcurrentChats).isLessThanOrEqualTo(PLATFORM_THREADS);
+        assertThat(succeeded).isEqualTo(concurrency);
+    }
+}
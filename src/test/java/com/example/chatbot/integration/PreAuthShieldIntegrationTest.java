@@ -0,0 +1,149 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.global.auth.ApiKeyCache;
+import com.example.chatbot.global.auth.ApiKeyHasher;
+import com.example.chatbot.global.auth.ValidApiKeyIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30000")
+@ActiveProfiles("test")
+@Testcontainers
+class PreAuthShieldIntegrationTest extends IntegrationTestSupport {
+
+    private static final int PRE_AUTH_LIMIT = 5;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ValidApiKeyIndex validApiKeyIndex;
+
+    @Autowired
+    private ApiKeyCache apiKeyCache;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.rate-limit.enabled", () -> "false");
+        registry.add("app.rate-limit.pre-auth.limit", () -> String.valueOf(PRE_AUTH_LIMIT));
+        registry.add("app.auth.key-cache.bloom-filter.enabled", () -> "true");
+        registry.add("app.auth.key-cache.bloom-filter.refresh-interval", () -> "100ms");
+    }
+
+    @Test
+    @DisplayName("잘못된 키는 DB 조회 없이 거절되고, 실패가 쌓인 IP는 429로 차단된다")
+    void invalidKeysAreShedWithoutDatabaseLookups() throws InterruptedException {
+        awaitIndexed("test-key");
+        double lookupsBefore = databaseLookups();
+
+        for (int i = 0; i < PRE_AUTH_LIMIT; i++) {
+            webTestClient.get().uri("/api/conversations")
+                    .header("X-API-Key", "garbage-" + i)
+                    .exchange()
+                    .expectStatus().isUnauthorized();
+        }
+        webTestClient.get().uri("/api/conversations")
+                .header("X-API-Key", "garbage-next")
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists("Retry-After");
+        webTestClient.get().uri("/api/conversations")
+                .exchange()
+                .expectStatus().isEqualTo(429);
+
+        assertThat(databaseLookups()).isEqualTo(lookupsBefore);
+
+        // 이미 인증되어 캐시된 키는 차단된 IP에서도 통과한다.
+        webTestClient.get().uri("/api/conversations")
+                .header("X-API-Key", "test-key")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("신뢰하는 프록시 뒤의 클라이언트는 X-Forwarded-For IP별로 따로 제한된다")
+    void clientsBehindProxyAreThrottledByForwardedAddress() throws InterruptedException {
+        awaitIndexed("test-key");
+        String abusive = "203.0.113.10";
+        String other = "203.0.113.20";
+
+        for (int i = 0; i < PRE_AUTH_LIMIT; i++) {
+            webTestClient.get().uri("/api/conversations")
+                    .header("X-Forwarded-For", abusive)
+                    .header("X-API-Key", "garbage-" + i)
+                    .exchange()
+                    .expectStatus().isUnauthorized();
+        }
+        webTestClient.get().uri("/api/conversations")
+                .header("X-Forwarded-For", abusive)
+                .header("X-API-Key", "garbage-next")
+                .exchange()
+                .expectStatus().isEqualTo(429);
+
+        // 같은 프록시(루프백)를 거쳐 온 다른 클라이언트는 차단되지 않는다.
+        webTestClient.get().uri("/api/conversations")
+                .header("X-Forwarded-For", other)
+                .header("X-API-Key", "garbage-other")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        webTestClient.get().uri("/api/conversations")
+                .header("X-Forwarded-For", other)
+                .header("X-API-Key", "test-key")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("DB에서 키가 교체되면 인덱스 갱신 때 이전 키가 인증 캐시에서 내려간다")
+    void rotatedKeyIsEvictedByIndexRefresh() {
+        // 다른 테스트가 쓰는 test-key가 부정 캐시에 남지 않도록 이 테스트만 쓰는 사용자를 만든다.
+        jdbcTemplate.update(
+                "INSERT INTO users (id, api_key, created_at, updated_at) VALUES (2, 'old-key', now(), now())");
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(apiKeyCache.resolveUserId("old-key")).isEqualTo(2L));
+
+        jdbcTemplate.update("UPDATE users SET api_key = 'new-key', updated_at = now() WHERE id = 2");
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(apiKeyCache.findCached("old-key")).isNull());
+        assertThat(apiKeyCache.resolveUserId("old-key")).isNull();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(apiKeyCache.resolveUserId("new-key")).isEqualTo(2L));
+    }
+
+    private void awaitIndexed(String apiKey) throws InterruptedException {
+        String keyHash = ApiKeyHasher.sha256Hex(apiKey);
+        for (int attempt = 0; attempt < 50 && !validApiKeyIndex.mightBeValid(keyHash); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(validApiKeyIndex.mightBeValid(keyHash)).isTrue();
+
+        // 인증에 한 번 성공해 키를 캐시에 올려 둔다.
+        webTestClient.get().uri("/api/conversations")
+                .header("X-API-Key", apiKey)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private double databaseLookups() {
+        return meterRegistry.get("auth.api_key.lookups").tag("source", "database").functionCounter().count();
+    }
+}
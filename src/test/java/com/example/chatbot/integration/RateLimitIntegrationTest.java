@@ -34,13 +34,16 @@ class RateLimitIntegrationTest extends IntegrationTestSupport {
             webTestClient.get().uri("/api/conversations")
                     .header("X-API-Key", "test-key")
                     .exchange()
-                    .expectStatus().isOk();
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("X-RateLimit-Limit", "3")
+                    .expectHeader().valueEquals("X-RateLimit-Remaining", String.valueOf(2 - i));
         }
 
         webTestClient.get().uri("/api/conversations")
                 .header("X-API-Key", "test-key")
                 .exchange()
                 .expectStatus().isEqualTo(429)
-                .expectHeader().exists("Retry-After");
+                .expectHeader().exists("Retry-After")
+                .expectHeader().valueEquals("X-RateLimit-Remaining", "0");
     }
 }
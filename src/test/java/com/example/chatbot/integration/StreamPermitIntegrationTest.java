@@ -0,0 +1,83 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import com.example.chatbot.global.ratelimit.StreamLimitProperties;
+import com.example.chatbot.global.ratelimit.StreamPermit;
+import com.example.chatbot.global.ratelimit.StreamPermitService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class StreamPermitIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private StreamPermitService streamPermitService;
+
+    @Autowired
+    private StreamLimitProperties properties;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.stream-limit.enabled", () -> "true");
+        registry.add("app.stream-limit.max-concurrent-streams", () -> "2");
+        registry.add("app.stream-limit.spare-linger", () -> "200ms");
+    }
+
+    @Test
+    @DisplayName("한 노드가 한도만큼 점유하면 다른 노드에서도 새 스트림을 열 수 없다")
+    void limitIsSharedAcrossNodes() {
+        Long userId = System.nanoTime();
+        StreamPermitService otherNode = new StreamPermitService(redisTemplate, properties, new SimpleMeterRegistry());
+
+        StreamPermit first = streamPermitService.acquire(userId);
+        streamPermitService.acquire(userId);
+
+        assertThatThrownBy(() -> otherNode.acquire(userId))
+                .isInstanceOf(AppException.class)
+                .satisfies(e -> assertThat(((AppException) e).getErrorCode())
+                        .isEqualTo(ErrorCode.CONCURRENT_STREAM_LIMIT_EXCEEDED));
+
+        first.release();
+        first.release();
+        // 반납된 퍼밋은 잠시 이 노드의 여분으로 남아 같은 노드의 요청이 Redis 없이 재사용한다.
+        streamPermitService.acquire(userId);
+        assertThat(redisTemplate.opsForZSet().zCard("stream_permits:" + userId)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("반납 후 여분 보관 시간이 지나면 Redis 임대도 반납된다")
+    void spareLeaseIsReturnedAfterLinger() throws InterruptedException {
+        Long userId = System.nanoTime();
+        StreamPermitService otherNode = new StreamPermitService(redisTemplate, properties, new SimpleMeterRegistry());
+
+        streamPermitService.acquire(userId).release();
+        streamPermitService.acquire(userId).release();
+
+        Long leased = 2L;
+        for (int attempt = 0; attempt < 50 && leased != null && leased > 0; attempt++) {
+            Thread.sleep(100);
+            leased = redisTemplate.opsForZSet().zCard("stream_permits:" + userId);
+        }
+
+        assertThat(leased).isZero();
+        otherNode.acquire(userId);
+        otherNode.acquire(userId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.chatbot.integration;
+
+import com.example.chatbot.global.quota.TokenQuotaException;
+import com.example.chatbot.global.quota.TokenQuotaService;
+import com.example.chatbot.global.quota.TokenReservation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class TokenQuotaIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private TokenQuotaService tokenQuotaService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.token-quota.enabled", () -> "true");
+        registry.add("app.token-quota.prompt-tokens", () -> "1000");
+        registry.add("app.token-quota.completion-tokens", () -> "500");
+        registry.add("app.token-quota.estimated-completion-tokens", () -> "200");
+        registry.add("app.token-quota.settle-interval", () -> "50ms");
+    }
+
+    @Test
+    @DisplayName("예약 한도를 넘는 요청은 업스트림 호출 전에 거절된다")
+    void rejectsReservationOverBudget() {
+        Long userId = System.nanoTime();
+        tokenQuotaService.reserve(userId, 400);
+        tokenQuotaService.reserve(userId, 400);
+
+        // 응답 토큰 추정치(200 x 3)가 한도 500을 넘는다.
+        assertThatThrownBy(() -> tokenQuotaService.reserve(userId, 100))
+                .isInstanceOf(TokenQuotaException.class)
+                .satisfies(e -> assertThat(((TokenQuotaException) e).getRetryAfterSeconds()).isPositive());
+    }
+
+    @Test
+    @DisplayName("실사용량은 비동기로 정산되어 예약량을 대체한다")
+    void settlesActualUsageAsynchronously() throws InterruptedException {
+        Long userId = System.nanoTime();
+        TokenReservation reservation = tokenQuotaService.reserve(userId, 400);
+        assertThat(redisTemplate.opsForHash().get(reservation.getKey(), "completion")).isEqualTo("200");
+
+        tokenQuotaService.settle(reservation, 350, 20);
+
+        Object completion = null;
+        for (int attempt = 0; attempt < 50 && !"20".equals(completion); attempt++) {
+            Thread.sleep(50);
+            completion = redisTemplate.opsForHash().get(reservation.getKey(), "completion");
+        }
+        assertThat(completion).isEqualTo("20");
+        assertThat(redisTemplate.opsForHash().get(reservation.getKey(), "prompt")).isEqualTo("350");
+
+        // 정산으로 돌려받은 응답 토큰만큼 다시 예약할 수 있다.
+        tokenQuotaService.reserve(userId, 100);
+        tokenQuotaService.reserve(userId, 100);
+    }
+}
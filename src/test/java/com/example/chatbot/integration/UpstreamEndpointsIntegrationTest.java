@@ -0,0 +1,117 @@
+package com.example.chatbot.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 목 서버 두 개를 엔드포인트로 두고, 5xx를 돌려준 엔드포인트가 빠지는지와 모델 매핑을 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30000")
+@ActiveProfiles("test")
+@Testcontainers
+class UpstreamEndpointsIntegrationTest extends IntegrationTestSupport {
+
+    private static final List<String> healthyRequestBodies = new CopyOnWriteArrayList<>();
+    private static MockWebServer flaky;
+    private static MockWebServer healthy;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        flaky = new MockWebServer();
+        flaky.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(503).setBody("{\"error\":\"overloaded\"}");
+            }
+        });
+        flaky.start();
+
+        healthy = new MockWebServer();
+        healthy.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                healthyRequestBodies.add(request.getBody().readUtf8());
+                // 지연 표본이 생긴 뒤에는 표본이 없는 flaky 쪽이 먼저 골라지도록 조금 기다린다.
+                Thread.sleep(20);
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"응답\"}}]}");
+            }
+        });
+        healthy.start();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        flaky.shutdown();
+        healthy.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.api-key", () -> "test-openai-key");
+        registry.add("app.rate-limit.enabled", () -> "false");
+        registry.add("openai.endpoints[0].name", () -> "flaky");
+        registry.add("openai.endpoints[0].base-url", () -> String.format("http://localhost:%d", flaky.getPort()));
+        registry.add("openai.endpoints[1].name", () -> "healthy");
+        registry.add("openai.endpoints[1].base-url", () -> String.format("http://localhost:%d", healthy.getPort()));
+        registry.add("openai.endpoints[1].models.gpt-4o-mini", () -> "healthy-deployment");
+    }
+
+    @Test
+    @DisplayName("5xx를 돌려준 엔드포인트는 빠지고 이후 요청은 다른 엔드포인트로 간다")
+    void ejectsFailingEndpoint() {
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            statuses.add(webTestClient.post()
+                    .uri("/api/chat/completions")
+                    .header("X-API-Key", "test-key")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"message\":\"안녕 " + i + "\"}")
+                    .exchange()
+                    .returnResult(String.class)
+                    .getStatus()
+                    .value());
+        }
+
+        assertThat(flaky.getRequestCount()).isEqualTo(1);
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(5);
+        assertThat(meterRegistry.get("upstream.endpoint.ejections").tag("endpoint", "flaky").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("upstream.endpoint.requests")
+                .tag("endpoint", "healthy").tag("outcome", "success").counter().count())
+                .isEqualTo(5);
+        assertThat(healthyRequestBodies).allMatch(body -> body.contains("\"model\":\"healthy-deployment\""));
+    }
+}
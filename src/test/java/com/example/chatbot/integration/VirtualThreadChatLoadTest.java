@@ -0,0 +1,32 @@
+package com.example.chatbot.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Testcontainers
+class VirtualThreadChatLoadTest extends ChatConcurrencyLoadTestSupport {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        configureLoadProperties(registry, true);
+    }
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+
+    @Override
+    void assertConcurrency(int peakConcurrentChats, long succeeded, int concurrency) {
+        // 같은 풀 크기 설정과 업스트림 지연에서 플랫폼 스레드 모드의 상한을 넘어서야 한다.
+        assertThat(peakConcurrentChats).isGreaterThan(PLATFORM_THREADS);
+        assertThat(succeeded).isEqualTo(concurrency);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.chatbot.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatMetrics chatMetrics = new ChatMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("스트림은 첫 토큰에서 한 번만 첫 토큰 시간을 기록하고, 끝날 때 생성 시간과 초당 토큰을 기록한다")
+    void recordsStreamTimings() throws InterruptedException {
+        ChatMetrics.StreamTimer timer = chatMetrics.upstream("gpt-4o-mini").startStream();
+        for (int i = 0; i < 10; i++) {
+            timer.onToken();
+            Thread.sleep(2);
+        }
+        timer.complete();
+
+        assertThat(meterRegistry.get("chat.upstream.time_to_first_token").tag("model", "gpt-4o-mini")
+                .timer().count()).isEqualTo(1);
+        Timer generation = meterRegistry.get("chat.upstream.generation").tags("model", "gpt-4o-mini", "type", "stream")
+                .timer();
+        assertThat(generation.count()).isEqualTo(1);
+        assertThat(generation.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(18);
+        assertThat(meterRegistry.get("chat.upstream.tokens_per_second").tag("type", "stream")
+                .summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("비스트리밍 호출은 토큰 수를 알 때만 초당 토큰을 기록한다")
+    void recordsCompletionTokensPerSecondOnlyWithUsage() {
+        ChatMetrics.UpstreamMeters meters = chatMetrics.upstream("gpt-4o-mini");
+        meters.recordCompletion(TimeUnit.SECONDS.toNanos(2), 100);
+        meters.recordCompletion(TimeUnit.SECONDS.toNanos(1), null);
+
+        assertThat(meterRegistry.get("chat.upstream.generation").tag("type", "completion").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("chat.upstream.tokens_per_second").tag("type", "completion")
+                .summary().mean()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("턴의 DB 시간은 여러 호출을 합쳐 한 번 기록하고, 열린 스트림 수는 여러 번 닫아도 한 번만 줄어든다")
+    void recordsTurnDbTimeAndActiveStreams() {
+        ChatMetrics.Turn turn = chatMetrics.completionTurn();
+        assertThat(turn.db(() -> "first")).isEqualTo("first");
+        turn.addDb(TimeUnit.MILLISECONDS.toNanos(5));
+        turn.finish();
+
+        Timer db = meterRegistry.get("chat.turn.db").tag("type", "completion").timer();
+        assertThat(db.count()).isEqualTo(1);
+        assertThat(db.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5);
+
+        Runnable close = chatMetrics.openStream();
+        assertThat(meterRegistry.get("chat.streams.active").gauge().value()).isEqualTo(1);
+        close.run();
+        close.run();
+        assertThat(meterRegistry.get("chat.streams.active").gauge().value()).isZero();
+    }
+}
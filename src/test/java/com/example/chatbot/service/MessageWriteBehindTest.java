@@ -0,0 +1,187 @@
+package com.example.chatbot.service;
+
+import com.example.chatbot.conversation.repository.MessageRepository;
+import com.example.chatbot.entity.Message;
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageWriteBehindTest {
+
+    // 저장 스레드를 이 메시지에서 멈춰 두고 뒤따르는 메시지를 한 배치로 모은다.
+    private static final String GATE = "gate";
+    private static final String BAD = "bad";
+
+    private final MessageWriteBehindProperties properties = new MessageWriteBehindProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final List<String> committed = new CopyOnWriteArrayList<>();
+    private final List<String> afterCommitted = new CopyOnWriteArrayList<>();
+    private final CountDownLatch gateEntered = new CountDownLatch(1);
+    private final CountDownLatch gateReleased = new CountDownLatch(1);
+    private final AtomicLong ids = new AtomicLong();
+    private MessageWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            if (GATE.equals(message.getContent())) {
+                gateEntered.countDown();
+                gateReleased.await();
+            }
+            if (BAD.equals(message.getContent())) {
+                throw new DataIntegrityViolationException("bad row");
+            }
+            message.setId(ids.incrementAndGet());
+            committed.add(message.getContent());
+            return message;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gateReleased.countDown();
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("ENQUEUE 내구성은 커밋 전에 대기열 등록만으로 확인을 돌려준다")
+    void enqueueDurabilityAcknowledgesBeforeCommit() throws Exception {
+        properties.setDurability(MessageWriteBehindProperties.Durability.ENQUEUE);
+        start();
+        holdWriter();
+
+        CompletableFuture<Message> future = submit("answer");
+        CompletableFuture<?> acknowledgement = writeBehind.acknowledgement(future);
+
+        assertThat(acknowledgement).isDone();
+        assertThat(future).isNotDone();
+        assertThat(committed).doesNotContain("answer");
+
+        gateReleased.countDown();
+        assertThat(future.get(2, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(committed).contains("answer");
+    }
+
+    @Test
+    @DisplayName("COMMIT 내구성은 커밋된 뒤에 확인을 돌려준다")
+    void commitDurabilityWaitsForCommit() throws Exception {
+        start();
+        holdWriter();
+
+        CompletableFuture<?> acknowledgement = writeBehind.acknowledgement(submit("answer"));
+        assertThat(acknowledgement).isNotDone();
+
+        gateReleased.countDown();
+        acknowledgement.get(2, TimeUnit.SECONDS);
+        assertThat(committed).contains("answer");
+    }
+
+    @Test
+    @DisplayName("배치 안의 메시지 하나가 실패해도 나머지는 개별 트랜잭션으로 저장된다")
+    void failingMessageDoesNotFailTheRestOfTheBatch() throws Exception {
+        start();
+        holdWriter();
+
+        CompletableFuture<Message> first = submit("first");
+        CompletableFuture<Message> bad = submit(BAD);
+        CompletableFuture<Message> last = submit("last");
+        gateReleased.countDown();
+
+        assertThat(first.get(2, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(last.get(2, TimeUnit.SECONDS).getId()).isNotNull();
+        await().atMost(Duration.ofSeconds(2)).until(bad::isDone);
+        assertThat(bad).isCompletedExceptionally();
+
+        assertThat(afterCommitted).containsExactly(GATE, "first", "last");
+        assertThat(meterRegistry.get("chat.messages.write_behind.failures").tag("reason", "failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 바로 SERVICE_UNAVAILABLE로 거절한다")
+    void fullQueueIsRejected() {
+        properties.setQueueCapacity(1);
+        start();
+        holdWriter();
+
+        CompletableFuture<Message> queued = submit("queued");
+        CompletableFuture<Message> rejected = submit("rejected");
+
+        assertThat(queued).isNotDone();
+        assertThatThrownBy(() -> writeBehind.await(rejected))
+                .isInstanceOfSatisfying(AppException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("chat.messages.write_behind.failures").tag("reason", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("기다리다 시간 초과된 메시지는 나중에 저장되지 않는다")
+    void timedOutMessageIsNeverCommitted() {
+        properties.setCommitTimeout(Duration.ofMillis(200));
+        start();
+        holdWriter();
+
+        CompletableFuture<Message> future = submit("late");
+        assertThatThrownBy(() -> writeBehind.await(future))
+                .isInstanceOfSatisfying(AppException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.SERVICE_UNAVAILABLE));
+
+        gateReleased.countDown();
+        CompletableFuture<Message> next = submit("next");
+        assertThat(writeBehind.await(next).getId()).isNotNull();
+
+        assertThat(committed).containsExactly(GATE, "next");
+        assertThat(afterCommitted).doesNotContain("late");
+        assertThat(meterRegistry.get("chat.messages.write_behind.failures").tag("reason", "abandoned").counter().count())
+                .isEqualTo(1);
+    }
+
+    private void start() {
+        writeBehind = new MessageWriteBehind(messageRepository, mock(PlatformTransactionManager.class),
+                properties, meterRegistry);
+        writeBehind.start();
+    }
+
+    /**
+     * 저장 스레드가 GATE 메시지를 저장하는 중에 멈춰 있게 한다.
+     */
+    private void holdWriter() {
+        submit(GATE);
+        try {
+            assertThat(gateEntered.await(2, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CompletableFuture<Message> submit(String content) {
+        return writeBehind.submit(new Message(null, Message.Role.user, content), afterCommitted::add);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.chatbot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.awaitility.Awaitility.await;
+
+class SseTokenWriterTest {
+
+    private final StreamCoalescingProperties properties = new StreamCoalescingProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Scheduler scheduler = Schedulers.immediate();
+    private SseTokenWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("첫 토큰은 바로 보내고 이후 토큰은 한 프레임으로 합친다")
+    void flushesFirstTokenImmediatelyAndCoalescesTheRest() {
+        properties.setMaxDelay(Duration.ofMillis(100));
+        CapturingEmitter emitter = new CapturingEmitter();
+        SseTokenWriter.TokenStream stream = open(emitter);
+
+        stream.append("안녕");
+        assertThat(emitter.frames).containsExactly("event:token\ndata:{\"text\":\"안녕\"}\n\n");
+
+        for (int i = 0; i < 50; i++) {
+            stream.append("하");
+        }
+        assertThat(emitter.frames).hasSize(1);
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> emitter.frames.size() == 2);
+        assertThat(emitter.frames.get(1)).isEqualTo("event:token\ndata:{\"text\":\"" + "하".repeat(50) + "\"}\n\n");
+        assertThat(meterRegistry.counter("chat.stream.tokens").count()).isEqualTo(51);
+        assertThat(meterRegistry.counter("chat.stream.frames").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("모인 토큰이 maxBytes를 넘으면 시간을 기다리지 않고 보낸다")
+    void flushesWhenMaxBytesReached() {
+        properties.setMaxDelay(Duration.ofMinutes(1));
+        properties.setMaxBytes(10);
+        CapturingEmitter emitter = new CapturingEmitter();
+        SseTokenWriter.TokenStream stream = open(emitter);
+
+        stream.append("a");
+        stream.append("가나");
+        stream.append("다라");
+
+        // "가나다라"는 UTF-8로 12바이트
+        assertThat(emitter.frames).hasSize(2);
+        assertThat(emitter.frames.get(1)).contains("가나다라");
+    }
+
+    @Test
+    @DisplayName("finish는 남은 토큰을 보내고 close는 버린다")
+    void finishFlushesAndCloseDiscards() {
+        properties.setMaxDelay(Duration.ofMinutes(1));
+        CapturingEmitter finished = new CapturingEmitter();
+        SseTokenWriter.TokenStream finishedStream = open(finished);
+        finishedStream.append("a");
+        finishedStream.append("b");
+        finishedStream.finish();
+        finishedStream.append("c");
+
+        CapturingEmitter closed = new CapturingEmitter();
+        SseTokenWriter.TokenStream closedStream = open(closed);
+        closedStream.append("a");
+        closedStream.append("b");
+        closedStream.close();
+
+        assertThat(finished.frames).hasSize(2);
+        assertThat(finished.frames.get(1)).contains("\"b\"");
+        assertThat(closed.frames).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("시간 기준 flush는 공유 타이머 스레드가 아닌 스케줄러에서 쓴다")
+    void timedFlushRunsOffTimerThread() {
+        properties.setMaxDelay(Duration.ofMillis(50));
+        scheduler = Schedulers.newSingle("flush-test");
+        CapturingEmitter emitter = new CapturingEmitter();
+        SseTokenWriter.TokenStream stream = open(emitter);
+
+        stream.append("a");
+        stream.append("b");
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> emitter.threads.size() == 2);
+        assertThat(emitter.threads.get(1)).startsWith("flush-test");
+    }
+
+    @Test
+    @DisplayName("클라이언트에 쓰기가 막혀도 content와 close는 기다리지 않고, 막힌 동안 온 토큰은 이어서 한 프레임으로 보낸다")
+    void stalledSendDoesNotBlockContentOrClose() throws Exception {
+        properties.setMaxDelay(Duration.ofMinutes(1));
+        StalledEmitter emitter = new StalledEmitter();
+        SseTokenWriter.TokenStream stream = open(emitter);
+
+        Thread writerThread = new Thread(() -> stream.append("a"));
+        writerThread.start();
+        assertThat(emitter.entered.await(2, TimeUnit.SECONDS)).isTrue();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            stream.append("b");
+            stream.append("c");
+            assertThat(stream.content()).isEqualTo("abc");
+        });
+
+        emitter.release.countDown();
+        writerThread.join(2000);
+        assertThat(emitter.frames).containsExactly(
+                "event:token\ndata:{\"text\":\"a\"}\n\n",
+                "event:token\ndata:{\"text\":\"bc\"}\n\n");
+
+        StalledEmitter stalled = new StalledEmitter();
+        SseTokenWriter.TokenStream closing = open(stalled);
+        Thread blocked = new Thread(() -> closing.append("a"));
+        blocked.start();
+        assertThat(stalled.entered.await(2, TimeUnit.SECONDS)).isTrue();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            closing.append("b");
+            closing.close();
+            closing.finish();
+            assertThat(closing.content()).isEqualTo("ab");
+        });
+
+        stalled.release.countDown();
+        blocked.join(2000);
+        assertThat(stalled.frames).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("미리 만든 프레임은 SseEmitter.event() 와 같은 와이어 형식이다")
+    void preEncodedFrameMatchesEventBuilderFormat() {
+        String text = "줄\n바꿈 \"따옴표\" \\ 탭\t 🚀";
+
+        assertThat(new String(SseFrames.token(text), StandardCharsets.UTF_8))
+                .isEqualTo("event:token\ndata:{\"text\":\"줄\\n바꿈 \\\"따옴표\\\" \\\\ 탭\\t 🚀\"}\n\n");
+        assertThat(SseTokenWriter.utf8Length(text)).isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private SseTokenWriter.TokenStream open(SseFrameEmitter emitter) {
+        if (writer == null) {
+            writer = new SseTokenWriter(properties, scheduler, meterRegistry);
+        }
+        return writer.open(emitter);
+    }
+
+    private static final class StalledEmitter extends SseFrameEmitter {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private StalledEmitter() {
+            super(null);
+        }
+
+        @Override
+        public void sendFrame(byte[] frame) {
+            frames.add(new String(frame, StandardCharsets.UTF_8));
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class CapturingEmitter extends SseFrameEmitter {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        private CapturingEmitter() {
+            super(null);
+        }
+
+        @Override
+        public void sendFrame(byte[] frame) {
+            frames.add(new String(frame, StandardCharsets.UTF_8));
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+}
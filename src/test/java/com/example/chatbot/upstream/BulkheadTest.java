@@ -0,0 +1,109 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.global.error.AppException;
+import com.example.chatbot.global.error.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkhead bulkhead = new Bulkhead("stream",
+            new UpstreamProperties.Bulkhead(1, 1, Duration.ofMillis(200)), meterRegistry);
+
+    @Test
+    @DisplayName("자리가 없으면 대기열에서 기다렸다가 앞 호출이 끝나면 실행되고, 대기열이 차면 바로 거절한다")
+    void queuesThenRejectsWhenQueueIsFull() {
+        Sinks.Many<String> first = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> received = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+
+        bulkhead.execute(first::asFlux).subscribe(received::add);
+        bulkhead.execute(() -> Flux.just("queued")).subscribe(received::add);
+        bulkhead.execute(() -> Flux.just("rejected")).subscribe(received::add, rejected::set);
+
+        assertThat(rejected.get()).isInstanceOf(AppException.class);
+        assertThat(((AppException) rejected.get()).getErrorCode()).isEqualTo(ErrorCode.UPSTREAM_BUSY);
+        assertThat(meterRegistry.get("upstream.bulkhead.queued").gauge().value()).isEqualTo(1);
+
+        first.tryEmitNext("first");
+        first.tryEmitComplete();
+
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+                assertThat(received).containsExactly("first", "queued"));
+        assertThat(meterRegistry.get("upstream.bulkhead.active").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("자리가 나면 먼저 많이 쌓은 사용자와 나중에 온 사용자를 번갈아 실행한다")
+    void dispatchesFairlyAcrossUsers() {
+        UpstreamProperties.FairScheduling fairScheduling = new UpstreamProperties.FairScheduling();
+        fairScheduling.setPerUserMetrics(true);
+        Bulkhead fair = new Bulkhead("completion",
+                new UpstreamProperties.Bulkhead(1, 10, Duration.ofSeconds(5)), fairScheduling, meterRegistry);
+        Sinks.Many<String> first = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> received = new CopyOnWriteArrayList<>();
+
+        fair.execute(1L, first::asFlux).subscribe(received::add);
+        fair.execute(1L, () -> Flux.just("batch-1")).subscribe(received::add);
+        fair.execute(1L, () -> Flux.just("batch-2")).subscribe(received::add);
+        fair.execute(1L, () -> Flux.just("batch-3")).subscribe(received::add);
+        fair.execute(2L, () -> Flux.just("chat-1")).subscribe(received::add);
+
+        assertThat(meterRegistry.get("upstream.scheduler.queued").tag("user", "1").gauge().value()).isEqualTo(3);
+
+        first.tryEmitComplete();
+
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+                assertThat(received).containsExactly("batch-1", "chat-1", "batch-2", "batch-3"));
+        assertThat(meterRegistry.get("upstream.scheduler.wait").tag("user", "2").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("한 사용자가 자기 대기열 한도를 채우면 그 사용자만 거절한다")
+    void rejectsUserOverPerUserQueueLimit() {
+        UpstreamProperties.FairScheduling fairScheduling = new UpstreamProperties.FairScheduling();
+        fairScheduling.setMaxQueuePerUser(1);
+        Bulkhead fair = new Bulkhead("completion",
+                new UpstreamProperties.Bulkhead(1, 10, Duration.ofSeconds(5)), fairScheduling, meterRegistry);
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+        AtomicReference<Throwable> otherUser = new AtomicReference<>();
+
+        fair.execute(1L, () -> Flux.<String>never()).subscribe();
+        fair.execute(1L, () -> Flux.just("queued")).subscribe();
+        fair.execute(1L, () -> Flux.just("rejected")).subscribe(value -> { }, rejected::set);
+        fair.execute(2L, () -> Flux.just("other")).subscribe(value -> { }, otherUser::set);
+
+        assertThat(rejected.get()).isInstanceOf(AppException.class);
+        assertThat(otherUser.get()).isNull();
+        assertThat(meterRegistry.get("upstream.bulkhead.rejected")
+                .tags("type", "completion", "reason", "user_queue_full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("max-wait 안에 자리가 나지 않으면 실패하고 대기열에서 빠진다")
+    void queuedCallTimesOut() {
+        Sinks.Many<String> first = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicReference<Throwable> timedOut = new AtomicReference<>();
+
+        bulkhead.execute(first::asFlux).subscribe();
+        bulkhead.execute(() -> Flux.just("late")).subscribe(value -> { }, timedOut::set);
+
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+                assertThat(timedOut.get()).isInstanceOf(AppException.class));
+        assertThat(meterRegistry.get("upstream.bulkhead.queued").gauge().value()).isZero();
+        assertThat(meterRegistry.get("upstream.bulkhead.rejected").tag("reason", "timeout").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.chatbot.upstream;
+
+import com.example.chatbot.global.error.AppException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatStreamDecoderTest {
+
+    private static final int FUZZ_ITERATIONS = 500;
+    private static final List<String> TOKENS = List.of(
+            "안녕", "하세요", "!", " Hello", ", ", "wor", "ld", " 🚀", "\n", "줄바꿈\r\n뒤", "\"따옴표\"",
+            "back\\slash", "data: 본문 안의 data:", "[DONE]", "탭\t", "é", "漢字");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    @DisplayName("임의의 바이트 경계로 잘린 스트림도 토큰을 그대로 복원한다")
+    void decodesStreamSplitAtRandomBoundaries() throws Exception {
+        long seed = System.nanoTime();
+        Random random = new Random(seed);
+
+        for (int iteration = 0; iteration < FUZZ_ITERATIONS; iteration++) {
+            String lineSeparator = switch (random.nextInt(3)) {
+                case 0 -> "\n";
+                case 1 -> "\r\n";
+                default -> "\r";
+            };
+            List<String> tokens = randomTokens(random);
+            byte[] stream = openAiStream(tokens, lineSeparator).getBytes(StandardCharsets.UTF_8);
+
+            ChatStreamDecoder decoder = new ChatStreamDecoder(jsonFactory);
+            List<String> decoded = decodeInRandomChunks(decoder, stream, random);
+
+            assertThat(String.join("", decoded))
+                    .as("seed=%d, iteration=%d", seed, iteration)
+                    .isEqualTo(String.join("", tokens));
+            assertThat(decoded).as("seed=%d, iteration=%d", seed, iteration).isEqualTo(tokens);
+            assertThat(decoder.getFinishReason()).isEqualTo("stop");
+            assertThat(decoder.isDone()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("여러 줄의 data 필드는 하나의 이벤트로 합쳐진다")
+    void joinsMultiLineDataFields() {
+        String stream = """
+                data: {"choices":[{"index":0,
+                data: "delta":{"content":"여러"}}]}
+
+                data: {"choices":[{"delta":
+                data:{"content":" 줄"}}]}
+
+                """;
+
+        assertThat(decodeWhole(stream)).containsExactly("여러", " 줄");
+    }
+
+    @Test
+    @DisplayName("주석과 data 외 필드는 무시하고 [DONE] 이후 이벤트는 버린다")
+    void ignoresCommentsAndEventsAfterDone() {
+        String stream = """
+                : keep-alive
+                event: message
+                id: 1
+                data: {"choices":[{"delta":{"role":"assistant"}}]}
+
+                data: {"choices":[{"delta":{"content":"하나"}}]}
+
+                data: [DONE]
+
+                data: {"choices":[{"delta":{"content":"버림"}}]}
+
+                """;
+
+        assertThat(decodeWhole(stream)).containsExactly("하나");
+    }
+
+    @Test
+    @DisplayName("깨진 이벤트는 건너뛰고 다음 이벤트를 계속 읽는다")
+    void skipsMalformedEvent() {
+        String stream = """
+                data: {"choices":[{"delta":{"content":"앞"
+
+                data: {"choices":[{"delta":{"content":"뒤"}}]}
+
+                """;
+
+        assertThat(decodeWhole(stream)).containsExactly("뒤");
+    }
+
+    @Test
+    @DisplayName("빈 줄 없이 끝난 마지막 이벤트도 finish 에서 넘긴다")
+    void finishFlushesTrailingEvent() {
+        ChatStreamDecoder decoder = new ChatStreamDecoder(jsonFactory);
+        byte[] stream = "data: {\"choices\":[{\"delta\":{\"content\":\"끝\"},\"finish_reason\":\"length\"}]}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decoder.decode(bufferFactory.wrap(stream))).isEmpty();
+        assertThat(decoder.finish()).containsExactly("끝");
+        assertThat(decoder.getFinishReason()).isEqualTo("length");
+    }
+
+    @Test
+    @DisplayName("스트림 중간의 에러 이벤트는 예외로 전달된다")
+    void errorEventFailsStream() {
+        ChatStreamDecoder decoder = new ChatStreamDecoder(jsonFactory);
+        byte[] stream = "data: {\"error\":{\"message\":\"overloaded\"}}\n\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> decoder.decode(bufferFactory.wrap(stream)))
+                .isInstanceOf(AppException.class)
+                .hasMessageContaining("overloaded");
+    }
+
+    private List<String> decodeWhole(String stream) {
+        ChatStreamDecoder decoder = new ChatStreamDecoder(jsonFactory);
+        List<String> decoded = new ArrayList<>(decoder.decode(bufferFactory.wrap(stream.getBytes(StandardCharsets.UTF_8))));
+        decoded.addAll(decoder.finish());
+        return decoded;
+    }
+
+    private List<String> decodeInRandomChunks(ChatStreamDecoder decoder, byte[] stream, Random random) {
+        List<String> decoded = new ArrayList<>();
+        int position = 0;
+        while (position < stream.length) {
+            // 1바이트 조각이 자주 나오도록 작은 크기에 치우치게 자른다.
+            int size = random.nextBoolean() ? 1 + random.nextInt(4) : 1 + random.nextInt(256);
+            int length = Math.min(size, stream.length - position);
+            byte[] chunk = new byte[length];
+            System.arraycopy(stream, position, chunk, 0, length);
+            decoded.addAll(decoder.decode(bufferFactory.wrap(chunk)));
+            position += length;
+        }
+        decoded.addAll(decoder.finish());
+        return decoded;
+    }
+
+    private List<String> randomTokens(Random random) {
+        int count = 1 + random.nextInt(40);
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tokens.add(TOKENS.get(random.nextInt(TOKENS.size())));
+        }
+        return tokens;
+    }
+
+    private String openAiStream(List<String> tokens, String lineSeparator) throws Exception {
+        StringBuilder stream = new StringBuilder();
+        appendEvent(stream, Map.of("id", "chatcmpl-1",
+                "choices", List.of(Map.of("index", 0, "delta", Map.of("role", "assistant", "content", "")))), lineSeparator);
+        for (String token : tokens) {
+            appendEvent(stream, Map.of("id", "chatcmpl-1",
+                    "choices", List.of(Map.of("index", 0, "delta", Map.of("content", token)))), lineSeparator);
+        }
+        appendEvent(stream, Map.of("id", "chatcmpl-1",
+                "choices", List.of(Map.of("index", 0, "delta", Map.of(), "finish_reason", "stop"))), lineSeparator);
+        stream.append(": keep-alive").append(lineSeparator);
+        stream.append("data: [DONE]").append(lineSeparator).append(lineSeparator);
+        return stream.toString();
+    }
+
+    private void appendEvent(StringBuilder stream, Map<String, Object> chunk, String lineSeparator) throws Exception {
+        stream.append("data: ").append(objectMapper.writeValueAsString(chunk))
+                .append(lineSeparator).append(lineSeparator);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamProperties.CircuitBreaker properties = new UpstreamProperties.CircuitBreaker();
+    private final AtomicLong clock = new AtomicLong(1);
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(10);
+        properties.setHalfOpenCalls(2);
+        circuitBreaker = new CircuitBreaker("default", "gpt-4o-mini", properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("최소 호출 수가 쌓이기 전에는 실패가 많아도 열지 않는다")
+    void staysClosedBelowMinimumCalls() {
+        for (int i = 0; i < 9; i++) {
+            circuitBreaker.onFailure();
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("실패율이 임계치를 넘으면 열고 호출을 바로 거절한다")
+    void opensOnFailureRate() {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.onSuccess(Duration.ofMillis(100).toNanos());
+            circuitBreaker.onFailure();
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+        assertThat(circuitBreaker.retryAfterSeconds()).isEqualTo(30);
+        assertThat(meterRegistry.get("upstream.circuit_breaker.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("성공했더라도 느린 호출 비율이 임계치를 넘으면 연다")
+    void opensOnSlowCallRate() {
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onSuccess(properties.getSlowCallDuration().toNanos());
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("열린 시간이 지나면 시험 호출만 받고, 모두 성공하면 닫는다")
+    void halfOpenAllowsLimitedTrialCalls() {
+        open();
+        clock.addAndGet(properties.getOpenDuration().toNanos());
+
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+        circuitBreaker.onSuccess(Duration.ofMillis(100).toNanos());
+        circuitBreaker.onSuccess(Duration.ofMillis(100).toNanos());
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get("upstream.circuit_breaker.transitions").tag("to", "CLOSED").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("반열림에서 시험 호출 자리가 모두 차면 거절하고 최소 1초 뒤 재시도를 알린다")
+    void halfOpenWithAllTrialPermitsInUseAsksToRetryLater() {
+        open();
+        clock.addAndGet(properties.getOpenDuration().toNanos());
+        assertThat(circuitBreaker.retryAfterSeconds()).isEqualTo(1);
+
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.allowsCalls()).isFalse();
+        assertThat(circuitBreaker.retryAfterSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("시험 호출이 실패하면 다시 연다")
+    void reopensWhenTrialCallFails() {
+        open();
+        clock.addAndGet(properties.getOpenDuration().toNanos());
+
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        circuitBreaker.onFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void open() {
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
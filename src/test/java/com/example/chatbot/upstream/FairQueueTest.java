@@ -0,0 +1,70 @@
+package com.example.chatbot.upstream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairQueueTest {
+
+    private final FairQueue<String> queue = new FairQueue<>();
+
+    @Test
+    @DisplayName("먼저 많이 넣은 사용자가 있어도 사용자별로 번갈아 꺼낸다")
+    void alternatesBetweenUsers() {
+        add("batch", 0, 1, "b1", "b2", "b3", "b4");
+        add("chat", 0, 1, "c1", "c2");
+
+        assertThat(drain()).containsExactly("b1", "c1", "b2", "c2", "b3", "b4");
+    }
+
+    @Test
+    @DisplayName("가중치만큼 차례마다 연달아 꺼낸다")
+    void servesWeightPerTurn() {
+        add("heavy", 0, 2, "h1", "h2", "h3", "h4");
+        add("light", 0, 1, "l1", "l2");
+
+        assertThat(drain()).containsExactly("h1", "h2", "l1", "h3", "h4", "l2");
+    }
+
+    @Test
+    @DisplayName("우선순위가 높은 등급에 대기가 있으면 그 등급부터 꺼낸다")
+    void servesHigherPriorityFirst() {
+        add("free", 0, 1, "f1", "f2");
+        add("paid", 10, 1, "p1");
+
+        assertThat(drain()).containsExactly("p1", "f1", "f2");
+    }
+
+    @Test
+    @DisplayName("대기 중에 빠진 항목은 꺼내지 않고, 빈 사용자 대기열은 정리한다")
+    void removesAbandonedElements() {
+        add("a", 0, 1, "a1", "a2");
+        add("b", 0, 1, "b1");
+
+        assertThat(queue.remove("b", "b1")).isTrue();
+        assertThat(queue.remove("b", "b1")).isFalse();
+        assertThat(queue.size("b")).isZero();
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(drain()).containsExactly("a1", "a2");
+    }
+
+    private void add(String key, int priority, int weight, String... elements) {
+        for (String element : elements) {
+            queue.add(key, priority, weight, element);
+        }
+    }
+
+    private List<String> drain() {
+        List<String> drained = new ArrayList<>();
+        String next;
+        while ((next = queue.poll()) != null) {
+            drained.add(next);
+        }
+        assertThat(queue.size()).isZero();
+        return drained;
+    }
+}
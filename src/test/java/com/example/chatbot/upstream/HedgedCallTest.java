@@ -0,0 +1,92 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgedCallTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamProperties.Hedging properties = new UpstreamProperties.Hedging();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties.setMinSamples(10);
+        properties.setMinDelay(Duration.ofMillis(10));
+        properties.setMaxRatio(1.0);
+    }
+
+    @Test
+    @DisplayName("표본이 부족하면 헤징하지 않는다")
+    void doesNotHedgeWithoutEnoughSamples() {
+        HedgedCall hedgedCall = new HedgedCall("completion", properties, meterRegistry);
+
+        String result = hedgedCall.execute(() -> slowThenFast(Duration.ofMillis(100))).block();
+
+        assertThat(result).isEqualTo("slow");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("백분위 안에 응답이 없으면 두 번째 호출의 결과를 쓰고 첫 호출은 취소한다")
+    void hedgeWinsAndCancelsSlowAttempt() {
+        HedgedCall hedgedCall = primed();
+
+        String result = hedgedCall.execute(() -> slowThenFast(Duration.ofSeconds(5))).block(Duration.ofSeconds(2));
+
+        assertThat(result).isEqualTo("fast");
+        assertThat(calls).hasValue(2);
+        assertThat(cancellations).hasValue(1);
+        assertThat(meterRegistry.get("upstream.hedge.wins").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("예산이 없으면 두 번째 호출 없이 첫 호출을 기다린다")
+    void respectsBudget() {
+        properties.setMaxRatio(0);
+        HedgedCall hedgedCall = primed();
+
+        String result = hedgedCall.execute(() -> slowThenFast(Duration.ofMillis(200))).block();
+
+        assertThat(result).isEqualTo("slow");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("upstream.hedge.budget_exhausted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("첫 호출이 먼저 실패하면 두 번째 호출 없이 실패한다")
+    void failsFastWhenPrimaryFails() {
+        HedgedCall hedgedCall = primed();
+
+        assertThatThrownBy(() -> hedgedCall.execute(() -> {
+            calls.incrementAndGet();
+            return Mono.<String>error(new IllegalStateException("upstream"));
+        }).block()).isInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    private HedgedCall primed() {
+        HedgedCall hedgedCall = new HedgedCall("completion", properties, meterRegistry);
+        for (int i = 0; i < 20; i++) {
+            hedgedCall.latencies().record(Duration.ofMillis(20).toNanos());
+        }
+        return hedgedCall;
+    }
+
+    private Mono<String> slowThenFast(Duration slowDelay) {
+        if (calls.incrementAndGet() == 1) {
+            return Mono.delay(slowDelay).map(tick -> "slow").doOnCancel(cancellations::incrementAndGet);
+        }
+        return Mono.just("fast");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String> singleFlight = new SingleFlight<>("stream", meterRegistry);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+    private Sinks.Many<String> upstream;
+
+    @Test
+    @DisplayName("같은 키의 동시 요청은 호출 하나를 공유하고 늦게 합류하면 이미 나온 토큰부터 받는다")
+    void lateJoinerReplaysEmittedTokens() {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+
+        singleFlight.execute("key", this::call).subscribe(first::add);
+        upstream.tryEmitNext("안");
+        upstream.tryEmitNext("녕");
+        singleFlight.execute("key", this::call).subscribe(second::add);
+        upstream.tryEmitNext("하세요");
+        upstream.tryEmitComplete();
+
+        assertThat(calls).hasValue(1);
+        assertThat(first).containsExactly("안", "녕", "하세요");
+        assertThat(second).containsExactly("안", "녕", "하세요");
+        assertThat(meterRegistry.get("upstream.single_flight.calls").tag("role", "follower").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("업스트림 호출은 마지막 구독자가 떠날 때만 취소된다")
+    void cancelsUpstreamOnlyWhenLastSubscriberLeaves() {
+        Disposable first = singleFlight.execute("key", this::call).subscribe();
+        Disposable second = singleFlight.execute("key", this::call).subscribe();
+
+        first.dispose();
+        assertThat(cancellations).hasValue(0);
+
+        second.dispose();
+        assertThat(cancellations).hasValue(1);
+
+        // 취소된 호출은 목록에서 빠지므로 다음 요청은 새로 호출한다.
+        singleFlight.execute("key", this::call).subscribe();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("끝난 호출은 공유하지 않고 다른 키는 따로 호출한다")
+    void completedOrDifferentKeyStartsNewCall() {
+        singleFlight.execute("key", this::call).subscribe();
+        upstream.tryEmitComplete();
+
+        singleFlight.execute("key", this::call).subscribe();
+        singleFlight.execute("other", this::call).subscribe();
+
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.get("upstream.single_flight.in_flight").gauge().value()).isEqualTo(2);
+    }
+
+    private Flux<String> call() {
+        calls.incrementAndGet();
+        upstream = Sinks.many().unicast().onBackpressureBuffer();
+        return upstream.asFlux().doOnCancel(cancellations::incrementAndGet);
+    }
+}
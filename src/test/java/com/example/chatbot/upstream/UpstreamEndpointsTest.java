@@ -0,0 +1,145 @@
+package com.example.chatbot.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamEndpointsTest {
+
+    private static final String MODEL = "gpt-4o-mini";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamProperties properties = new UpstreamProperties();
+    private final AtomicLong clock = new AtomicLong(1);
+    private final UpstreamEndpoint fast = endpoint("fast");
+    private final UpstreamEndpoint slow = endpoint("slow");
+    private final UpstreamEndpoints endpoints = new UpstreamEndpoints(List.of(fast, slow), List.of());
+
+    @Test
+    @DisplayName("지연 EWMA가 낮은 엔드포인트로 보낸다")
+    void prefersLowerLatency() {
+        complete(fast, Duration.ofMillis(10));
+        complete(slow, Duration.ofMillis(100));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(endpoints.pick(MODEL)).isSameAs(fast);
+        }
+    }
+
+    @Test
+    @DisplayName("진행 중 요청이 쌓이면 느린 엔드포인트로도 나눠 보낸다")
+    void spreadsOutstandingRequests() {
+        complete(fast, Duration.ofMillis(10));
+        complete(slow, Duration.ofMillis(100));
+
+        for (int i = 0; i < 10; i++) {
+            fast.begin(MODEL);
+        }
+
+        assertThat(endpoints.pick(MODEL)).isSameAs(slow);
+    }
+
+    @Test
+    @DisplayName("5xx를 받은 엔드포인트는 잠시 빠졌다가 slow-start로 돌아온다")
+    void ejectsAndRecoversWithSlowStart() {
+        complete(fast, Duration.ofMillis(10));
+        complete(slow, Duration.ofMillis(100));
+
+        UpstreamEndpoint.Call call = fast.begin(MODEL);
+        call.fail(HttpStatus.SERVICE_UNAVAILABLE);
+        call.end();
+
+        assertThat(fast.isAvailable()).isFalse();
+        assertThat(endpoints.pick(MODEL)).isSameAs(slow);
+
+        // 복귀 직후에는 가중치가 낮아 아직 느린 엔드포인트가 낫다.
+        advance(properties.getLoadBalancing().getEjectionDuration().plusMillis(1));
+        assertThat(fast.isAvailable()).isTrue();
+        assertThat(fast.score()).isGreaterThan(slow.score() / 2);
+
+        advance(properties.getLoadBalancing().getSlowStart());
+        assertThat(endpoints.pick(MODEL)).isSameAs(fast);
+        assertThat(meterRegistry.get("upstream.endpoint.ejections").tag("endpoint", "fast").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("모든 엔드포인트가 빠져 있으면 가장 먼저 복귀할 엔드포인트로 보낸다")
+    void fallsBackToSoonestRecoveringWhenAllEjected() {
+        eject(slow);
+        advance(Duration.ofSeconds(1));
+        eject(fast);
+
+        assertThat(endpoints.pick(MODEL)).isSameAs(slow);
+    }
+
+    @Test
+    @DisplayName("모델 서킷이 열린 엔드포인트는 후보에서 빠지고, 모두 열리면 바로 실패한다")
+    void skipsEndpointsWithOpenCircuit() {
+        properties.getCircuitBreaker().setMinimumCalls(1);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(10));
+        // 실패로 서킷을 열고, 배제는 시간을 흘려 끝낸다.
+        failCircuit(fast);
+        advance(properties.getLoadBalancing().getEjectionDuration().plusMillis(1));
+        for (int i = 0; i < 20; i++) {
+            assertThat(endpoints.pick(MODEL)).isSameAs(slow);
+        }
+
+        failCircuit(slow);
+        assertThatThrownBy(() -> endpoints.pick(MODEL))
+                .isInstanceOf(UpstreamUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("모든 서킷이 반열림이고 시험 호출 자리가 찼으면 Retry-After 0이 아닌 값으로 실패한다")
+    void halfOpenCircuitsWithoutPermitsReportRetryAfter() {
+        properties.getCircuitBreaker().setMinimumCalls(1);
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+        failCircuit(fast);
+        failCircuit(slow);
+        advance(properties.getCircuitBreaker().getOpenDuration());
+        // 시험 호출 자리를 하나씩 차지한 채 끝나지 않은 호출
+        fast.begin(MODEL);
+        slow.begin(MODEL);
+
+        assertThatThrownBy(() -> endpoints.ensureAvailable(MODEL))
+                .isInstanceOfSatisfying(UpstreamUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(1));
+    }
+
+    private void failCircuit(UpstreamEndpoint endpoint) {
+        UpstreamEndpoint.Call call = endpoint.begin(MODEL);
+        call.fail(HttpStatus.BAD_GATEWAY);
+        call.end();
+    }
+
+    private UpstreamEndpoint endpoint(String name) {
+        return new UpstreamEndpoint(name, Map.of(), null, null, properties, meterRegistry, clock::get);
+    }
+
+    private void complete(UpstreamEndpoint endpoint, Duration latency) {
+        UpstreamEndpoint.Call call = endpoint.begin(MODEL);
+        advance(latency);
+        call.succeed();
+        call.end();
+    }
+
+    private void eject(UpstreamEndpoint endpoint) {
+        UpstreamEndpoint.Call call = endpoint.begin(MODEL);
+        call.fail(HttpStatus.TOO_MANY_REQUESTS);
+        call.end();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}